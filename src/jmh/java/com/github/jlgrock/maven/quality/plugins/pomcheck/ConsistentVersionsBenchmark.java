@@ -0,0 +1,92 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures indexing a generated reactor of increasing size for the consistency-check goal, which should
+ * grow linearly with the number of modules.  Every module manages the same 20 dependencies at the same
+ * versions, so the reactor passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ConsistentVersionsBenchmark {
+
+    private static final int DEPENDENCY_COUNT = 20;
+
+    @Param({"100", "1000", "10000"})
+    public int moduleCount;
+
+    private List<File> pomFiles;
+    private ConsistentVersionsMojo consistentVersionsMojo;
+
+    @Setup
+    public void setUp() throws Exception {
+        File reactor = Files.createTempDirectory("reactor-" + moduleCount + "-").toFile();
+        reactor.deleteOnExit();
+        pomFiles = new ArrayList<>();
+        for (int module = 0; module < moduleCount; module++) {
+            pomFiles.add(generate(reactor, module));
+        }
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setFile(pomFiles.get(0));
+        consistentVersionsMojo = new ConsistentVersionsMojo(new DefaultBuildContext(), mavenProject);
+        consistentVersionsMojo.setLog(new QuietLog());
+    }
+
+    @Benchmark
+    public void checkFiles() throws Exception {
+        consistentVersionsMojo.checkFiles(pomFiles);
+    }
+
+    private static File generate(final File reactor, final int module) throws IOException {
+        File pomFile = new File(reactor, "module-" + module + ".xml");
+        pomFile.deleteOnExit();
+        try (Writer out = Files.newBufferedWriter(pomFile.toPath(), StandardCharsets.UTF_8)) {
+            out.write("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+            out.write("    <groupId>com.example.generated</groupId>\n");
+            out.write("    <artifactId>module-" + module + "</artifactId>\n");
+            out.write("    <version>1.0.0</version>\n");
+            out.write("    <properties>\n");
+            for (int i = 0; i < DEPENDENCY_COUNT; i++) {
+                out.write("        <artifact-" + i + ".version>1.0." + i + "</artifact-" + i + ".version>\n");
+            }
+            out.write("    </properties>\n");
+            out.write("    <dependencyManagement>\n        <dependencies>\n");
+            for (int i = 0; i < DEPENDENCY_COUNT; i++) {
+                out.write("            <dependency>\n");
+                out.write("                <groupId>com.example.group" + (i % 5) + "</groupId>\n");
+                out.write("                <artifactId>artifact-" + i + "</artifactId>\n");
+                out.write("                <version>${artifact-" + i + ".version}</version>\n");
+                out.write("            </dependency>\n");
+            }
+            out.write("        </dependencies>\n    </dependencyManagement>\n");
+            out.write("</project>\n");
+        }
+        return pomFile;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing and rule evaluation of the mojos against generated poms of increasing size.
+ * Run with the gc profiler (the default jmh.args of the benchmark profile) to see the allocation rate
+ * alongside the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PomCheckBenchmark {
+
+    @Param({"50", "500", "5000", "50000"})
+    public int dependencyCount;
+
+    private File pomFile;
+    private File recheckFile;
+    private VerifyVersionsMojo verifyVersionsMojo;
+    private ReleaseVersionsMojo releaseVersionsMojo;
+
+    @Setup
+    public void setUp() throws Exception {
+        pomFile = PomGenerator.generate(dependencyCount);
+        recheckFile = PomGenerator.generate(dependencyCount);
+        // old enough for the check service to trust its modification time
+        recheckFile.setLastModified(System.currentTimeMillis() - 60000);
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setFile(pomFile);
+
+        verifyVersionsMojo = new VerifyVersionsMojo(new DefaultBuildContext(), mavenProject);
+        verifyVersionsMojo.setLog(new QuietLog());
+        releaseVersionsMojo = new ReleaseVersionsMojo(new DefaultBuildContext(), mavenProject);
+        releaseVersionsMojo.setLog(new QuietLog());
+    }
+
+    @Benchmark
+    public PomModel readModel() throws Exception {
+        return PomModel.read(pomFile);
+    }
+
+    @Benchmark
+    public PomTree readTree() throws Exception {
+        return PomTree.read(pomFile, PomLimits.DEFAULT);
+    }
+
+    @Benchmark
+    public Object verifyVersionsCheckAll() throws Exception {
+        return verifyVersionsMojo.getRuleSet().checkAll(pomFile);
+    }
+
+    @Benchmark
+    public void verifyVersionsCheckFile() throws Exception {
+        // measure a cold check, not the result the check service holds from the last invocation
+        PomCheckService.instance().clear();
+        verifyVersionsMojo.checkFile(pomFile);
+    }
+
+    /**
+     * A check of a pom the {@link PomCheckService} has already checked in this process, as when the
+     * daemon re-checks a reactor after one pom has been edited.
+     */
+    @Benchmark
+    public Object serviceRecheck() throws Exception {
+        return PomCheckService.instance().check(recheckFile, verifyVersionsMojo.getRuleSet());
+    }
+
+    @Benchmark
+    public Object releaseVersionsCheckAll() throws Exception {
+        return releaseVersionsMojo.getRuleSet().checkAll(pomFile);
+    }
+
+    @Benchmark
+    public void releaseVersionsCheckFile() throws Exception {
+        PomCheckService.instance().clear();
+        releaseVersionsMojo.checkFile(pomFile);
+    }
+
+    @Benchmark
+    public Object releaseVersionsCheckFirst() throws Exception {
+        // pass/fail only: the raw bytes are prescanned, and the scan stops at the first error
+        return releaseVersionsMojo.getRuleSet().checkFirst(pomFile);
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates poms of a given size for the benchmarks.  Every dependency is managed through a property
+ * and declared again, without a version, in the dependencies section, so the generated poms pass both
+ * version-check and release-check.
+ */
+final class PomGenerator {
+
+    private PomGenerator() {
+    }
+
+    /**
+     * @param dependencyCount the number of managed dependencies (and properties) to generate
+     * @return a temporary file holding the pom, deleted on exit
+     * @throws IOException if the file could not be written
+     */
+    static File generate(final int dependencyCount) throws IOException {
+        File pomFile = File.createTempFile("pom-" + dependencyCount + "-", ".xml");
+        pomFile.deleteOnExit();
+        try (Writer out = Files.newBufferedWriter(pomFile.toPath(), StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+            out.write("    <modelVersion>4.0.0</modelVersion>\n");
+            out.write("    <groupId>com.example.generated</groupId>\n");
+            out.write("    <artifactId>generated-" + dependencyCount + "</artifactId>\n");
+            out.write("    <version>1.0.0</version>\n\n");
+
+            out.write("    <properties>\n");
+            for (int i = 0; i < dependencyCount; i++) {
+                out.write("        <artifact-" + i + ".version>" + (i % 10) + "." + (i % 7) + "." + i
+                        + "</artifact-" + i + ".version>\n");
+            }
+            out.write("    </properties>\n\n");
+
+            out.write("    <dependencyManagement>\n        <dependencies>\n");
+            for (int i = 0; i < dependencyCount; i++) {
+                out.write("            <dependency>\n");
+                out.write("                <groupId>com.example.group" + (i % 25) + "</groupId>\n");
+                out.write("                <artifactId>artifact-" + i + "</artifactId>\n");
+                out.write("                <version>${artifact-" + i + ".version}</version>\n");
+                out.write("            </dependency>\n");
+            }
+            out.write("        </dependencies>\n    </dependencyManagement>\n\n");
+
+            out.write("    <dependencies>\n");
+            for (int i = 0; i < dependencyCount; i++) {
+                out.write("        <dependency>\n");
+                out.write("            <groupId>com.example.group" + (i % 25) + "</groupId>\n");
+                out.write("            <artifactId>artifact-" + i + "</artifactId>\n");
+                out.write("        </dependency>\n");
+            }
+            out.write("    </dependencies>\n");
+            out.write("</project>\n");
+        }
+        return pomFile;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A log that discards everything, so the benchmarks measure the checks rather than the console.
+ * Debug is reported as disabled, as it is in a normal build.
+ */
+final class QuietLog implements Log {
+
+    @Override
+    public boolean isDebugEnabled() {
+        return false;
+    }
+
+    @Override
+    public void debug(final CharSequence content) {
+    }
+
+    @Override
+    public void debug(final CharSequence content, final Throwable error) {
+    }
+
+    @Override
+    public void debug(final Throwable error) {
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return false;
+    }
+
+    @Override
+    public void info(final CharSequence content) {
+    }
+
+    @Override
+    public void info(final CharSequence content, final Throwable error) {
+    }
+
+    @Override
+    public void info(final Throwable error) {
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return false;
+    }
+
+    @Override
+    public void warn(final CharSequence content) {
+    }
+
+    @Override
+    public void warn(final CharSequence content, final Throwable error) {
+    }
+
+    @Override
+    public void warn(final Throwable error) {
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return false;
+    }
+
+    @Override
+    public void error(final CharSequence content) {
+    }
+
+    @Override
+    public void error(final CharSequence content, final Throwable error) {
+    }
+
+    @Override
+    public void error(final Throwable error) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link VersionClassifier} with the regular expressions it replaced, on ordinary versions and on
+ * long property values.  The snapshot pattern backtracks quadratically on a long run of word characters,
+ * which is what the "adversarial" value is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionClassifierBenchmark {
+
+    private static final Pattern SNAPSHOT_PATTERN = Pattern.compile("\\w*.*(-SNAPSHOT)\\w*");
+    private static final Pattern PROPERTY_VERSION_PATTERN = Pattern.compile("(\\w*)(\\$\\{[a-zA-Z0-9\\-.]*\\})(.*)");
+
+    @Param({"release", "snapshot", "property", "description", "adversarial"})
+    public String kind;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        switch (kind) {
+            case "release":
+                value = "3.2.1";
+                break;
+            case "snapshot":
+                value = "3.2.1-SNAPSHOT";
+                break;
+            case "property":
+                value = "${maven.compiler.plugin.version}";
+                break;
+            case "description":
+                value = "A property holding a sentence, as long property values usually are - not a version.";
+                break;
+            default:
+                StringBuilder adversarial = new StringBuilder();
+                for (int i = 0; i < 5000; i++) {
+                    adversarial.append('a');
+                }
+                value = adversarial.append("-SNAPSHOT-").toString();
+                break;
+        }
+    }
+
+    @Benchmark
+    public boolean snapshotPattern() {
+        return SNAPSHOT_PATTERN.matcher(value).matches();
+    }
+
+    @Benchmark
+    public boolean snapshotClassifier() {
+        return VersionClassifier.isSnapshot(value);
+    }
+
+    @Benchmark
+    public boolean propertyVersionPattern() {
+        return PROPERTY_VERSION_PATTERN.matcher(value).matches();
+    }
+
+    @Benchmark
+    public boolean propertyVersionClassifier() {
+        return VersionClassifier.isPropertyVersion(value);
+    }
+
+    @Benchmark
+    public int classify() {
+        return VersionClassifier.classify(value);
+    }
+}
@@ -3,141 +3,704 @@ package com.github.jlgrock.maven.quality.plugins.pomcheck;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.sonatype.plexus.build.incremental.BuildContext;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Stack;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  *
  */
 public abstract class AbstractPomChecker extends AbstractMojo {
 
-    private static final String LINE_NUM_ATTR_NAME = "LINE_NUM";
+    /**
+     * When true, the first project of the reactor checks the pom of every project in the reactor
+     * concurrently and reports all of the failures together.  The remaining projects are skipped.
+     */
+    @Parameter(property = "pomcheck.aggregate", defaultValue = "false")
+    protected boolean aggregate;
+
+    /**
+     * The number of poms to check at once when aggregating.  Defaults to the number of processors.
+     */
+    @Parameter(property = "pomcheck.threads", defaultValue = "0")
+    protected int threads;
+
+    /**
+     * The projects in the reactor, used when aggregating.
+     */
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true)
+    protected List<MavenProject> reactorProjects;
+
+    /**
+     * When true, the results of each check are kept in the build directory, and poms whose contents
+     * have not changed since they were last checked are not parsed again.
+     */
+    @Parameter(property = "pomcheck.cache", defaultValue = "true")
+    protected boolean useCache;
+
+    /**
+     * The directory the result cache is kept in.
+     */
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true)
+    protected File buildDirectory;
+
+    /**
+     * The version of this plugin, so that results from other versions are not reused.
+     */
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    protected String pluginVersion;
+
+    /**
+     * Further rules to check along with the goal's own, such as
+     * {@code <rules><versionRule><path>...</path><forbidden>...</forbidden></versionRule></rules>}.
+     * Every rule is checked in the same pass over the pom.
+     */
+    @Parameter
+    protected List<PomRule> rules;
+
+    /**
+     * When true, every rule broken by every pom is reported, rather than only the first rule broken by
+     * each pom.
+     */
+    @Parameter(property = "pomcheck.collectAll", defaultValue = "false")
+    protected boolean collectAll;
+
+    /**
+     * Comma separated formats ("json", "sarif") of the reports to write to the pom-check directory of the
+     * build directory.  No reports are written by default.
+     */
+    @Parameter(property = "pomcheck.reportFormats")
+    protected String reportFormats;
+
+    /**
+     * When true, the time spent checking each pom and in each phase of the check, along with the bytes
+     * read, the elements scanned and an estimate of the memory allocated, are written to the pom-check
+     * directory of the build directory.  The measurements of every project in the reactor are added up
+     * in the build directory of the first project.
+     */
+    @Parameter(property = "pomcheck.metrics", defaultValue = "false")
+    protected boolean metrics;
+
+    /**
+     * When true, a summary of the measurements of the whole reactor is logged once the last project has
+     * been checked.
+     */
+    @Parameter(property = "pomcheck.metricsSummary", defaultValue = "false")
+    protected boolean metricsSummary;
+
+    /**
+     * When true, each pom is only checked until its first error is found, and when aggregating, the poms
+     * still being checked are cancelled once one has failed.  Only that error is reported.  This is for gate keeping
+     * builds that only need to know whether the poms pass.
+     */
+    @Parameter(property = "pomcheck.failFast", defaultValue = "false")
+    protected boolean failFast;
+
+    /**
+     * The deepest the elements of a pom may be nested.  A pom breaking any of the limits fails to be read,
+     * without reading the rest of it.
+     */
+    @Parameter(property = "pomcheck.maxDepth", defaultValue = "256")
+    protected int maxDepth = PomLimits.DEFAULT.getMaxDepth();
+
+    /**
+     * The most characters of text a single element of a pom may hold.
+     */
+    @Parameter(property = "pomcheck.maxTextLength", defaultValue = "1048576")
+    protected int maxTextLength = PomLimits.DEFAULT.getMaxTextLength();
+
+    /**
+     * The most elements a pom may have.
+     */
+    @Parameter(property = "pomcheck.maxElements", defaultValue = "2000000")
+    protected int maxElements = PomLimits.DEFAULT.getMaxElements();
+
+    /**
+     * The most entity references a pom may expand.  External entities are never read.
+     */
+    @Parameter(property = "pomcheck.maxEntityExpansions", defaultValue = "10000")
+    protected int maxEntityExpansions = PomLimits.DEFAULT.getMaxEntityExpansions();
+
+    /**
+     * The most bytes of pom files whose parsed models are kept for the rest of the build, shared by every
+     * goal configured with the same size.  The models of the poms used least recently are dropped beyond it.
+     */
+    @Parameter(property = "pomcheck.modelCacheSize", defaultValue = "67108864")
+    protected long modelCacheSize = PomModelCache.DEFAULT_MAX_BYTES;
+
+    /**
+     * When true, only the projects whose pom, or one of whose parent poms, changed in the local git
+     * working tree are checked, and the others are skipped without reading their poms.  See
+     * {@link ChangedPoms} for how the changes are found.
+     */
+    @Parameter(property = "pomcheck.changedOnly", defaultValue = "false")
+    protected boolean changedOnly;
+
+    /**
+     * With pomcheck.changedOnly, the ref to find the changes since, such as "origin/master" on a pull
+     * request build.  By default, only the changes not yet committed are checked.
+     */
+    @Parameter(property = "pomcheck.baseRef")
+    protected String baseRef;
+
+    private ResultCache resultCache;
+
+    private PomCheckMetrics executionMetrics;
+
+    private volatile RuleSet ruleSet;
+
+    private volatile PomLimits limits;
 
     protected abstract MavenProject getMavenProject();
 
     protected abstract BuildContext getBuildContext();
 
-    protected abstract void checkFile(final File pomFile) throws MojoExecutionException, MojoFailureException;
+    /**
+     * @return the rules this goal always checks, in the order that they are reported
+     */
+    protected abstract List<PomRule> getBuiltInRules();
 
     /**
-     * The entry point for a maven mojo.  This kicks off the maven scanning against the pom file.
+     * @return the goal's own rules followed by the configured ones, as compiled by the {@link PomCheckService}
+     */
+    protected RuleSet getRuleSet() {
+        RuleSet compiled = ruleSet;
+        if (compiled == null) {
+            List<PomRule> allRules = new ArrayList<>(getBuiltInRules());
+            if (rules != null) {
+                allRules.addAll(rules);
+            }
+            compiled = PomCheckService.instance().ruleSet(allRules, getLimits());
+            ruleSet = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the configured limits of every pom read
+     */
+    protected PomLimits getLimits() {
+        PomLimits configured = limits;
+        if (configured == null) {
+            configured = new PomLimits(maxDepth, maxTextLength, maxElements, maxEntityExpansions);
+            limits = configured;
+        }
+        return configured;
+    }
+
+    /**
+     * @return the parsed poms shared by every goal of the build configured with the same cache size
+     */
+    protected PomModelCache getModelCache() {
+        return PomModelCache.shared(modelCacheSize);
+    }
+
+    /**
+     * Find the errors in a particular file.  It expects that this file follows the maven defined format.
+     *
+     * @param pomFile the file to scan
+     * @return the errors of the first rule broken, or null if the file passes
+     * @throws IOException        if the file could not be read
+     * @throws XMLStreamException if the file could not be parsed
+     * @throws SAXException       if a pom the file depends on could not be parsed
+     */
+    protected RuleViolations findErrors(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        List<RuleViolations> failures = findAllErrors(pomFile);
+        return failures.isEmpty() ? null : failures.get(0);
+    }
+
+    /**
+     * Find every error in a particular file.  This may be called from several threads at once when
+     * aggregating.
+     *
+     * @param pomFile the file to scan
+     * @return the errors of each rule broken, in rule order, or an empty list if the file passes
+     * @throws IOException        if the file could not be read
+     * @throws XMLStreamException if the file could not be parsed
+     * @throws SAXException       if a pom the file depends on could not be parsed
+     */
+    protected List<RuleViolations> findAllErrors(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        if (failFast) {
+            return getRuleSet().checkFirst(pomFile);
+        }
+        return PomCheckService.instance().check(pomFile, getRuleSet());
+    }
+
+    /**
+     * @return a description of everything that affects the result of a check other than the pom itself,
+     *         such as the patterns and paths being checked.  Cached results are discarded when this changes.
+     */
+    protected String getRuleConfiguration() {
+        return getRuleSet().describe() + "failFast=" + failFast + "\n";
+    }
+
+    /**
+     * @return false when the result of a check depends on more than the contents of the pom itself,
+     *         in which case results are never taken from the cache
+     */
+    protected boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * @return false when every pom must be checked even with pomcheck.changedOnly, because the result of
+     *         each depends on the others
+     */
+    protected boolean isChangedOnlySupported() {
+        return true;
+    }
+
+    /**
+     * @return true when the first project of the reactor checks every pom in the reactor
+     */
+    protected boolean isAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * The entry point for a maven mojo.  This kicks off the maven scanning against the pom file, or against
+     * every pom in the reactor when aggregating.
      *
      * @throws MojoExecutionException if there are any errors in execution
      * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
      */
     public void execute() throws MojoExecutionException, MojoFailureException {
-        checkFile(getMavenProject().getFile());
+        if (isAggregate() && !isFirstProject()) {
+            getLog().debug("skipping, the reactor has been checked by " + reactorProjects.get(0).getArtifactId());
+            return;
+        }
+        executionMetrics = metrics || metricsSummary ? new PomCheckMetrics() : null;
+        long start = System.nanoTime();
+        resultCache = openCache();
+        recordPhase(PomCheckMetrics.Phase.CACHE, start);
+        try {
+            if (!isAggregate()) {
+                if (isChanged(getMavenProject())) {
+                    checkFile(getMavenProject().getFile());
+                } else {
+                    getLog().debug("unchanged since " + describeBaseRef() + ", skipping "
+                            + getMavenProject().getFile());
+                }
+            } else {
+                checkFiles(changedPomFiles());
+            }
+        } finally {
+            start = System.nanoTime();
+            closeCache();
+            recordPhase(PomCheckMetrics.Phase.CACHE, start);
+            finishMetrics();
+        }
     }
 
-    public Document readXML(final InputStream is) throws IOException, SAXException {
-        final Document doc;
-        SAXParser parser;
+    /**
+     * Will allow you to check a particular file.  It expects that this file follows the maven
+     * defined format.
+     *
+     * @param pomFile the file to scan
+     * @throws MojoExecutionException if there are any errors in execution
+     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     */
+    protected void checkFile(final File pomFile) throws MojoExecutionException, MojoFailureException {
+        getLog().debug("file " + pomFile.getAbsolutePath() + " exists: " + pomFile.exists());
+        List<RuleViolations> failures;
         try {
-            SAXParserFactory factory = SAXParserFactory.newInstance();
-            parser = factory.newSAXParser();
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-            doc = docBuilder.newDocument();
-        } catch (ParserConfigurationException e) {
-            throw new RuntimeException("Can't create SAX parser / DOM builder.", e);
+            failures = reported(findErrorsMeasured(pomFile));
+        } catch (IOException | XMLStreamException | SAXException | RuntimeException e) {
+            getBuildContext().addMessage(pomFile, 0, 0, e.getMessage(), BuildContext.SEVERITY_ERROR, e);
+            throw new MojoFailureException("Exception processing", e);
         }
+        writeReports(Collections.singletonList(new PomCheckResult(pomFile, failures)));
+        if (!failures.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            for (RuleViolations failure : failures) {
+                message.append(failure.getMessage());
+            }
+            getBuildContext().addMessage(pomFile, 0, 0, message.toString(), BuildContext.SEVERITY_ERROR, null);
+            throw new MojoFailureException(message.toString());
+        }
+    }
 
-        final Stack<Element> elementStack = new Stack<Element>();
-        final StringBuilder textBuffer = new StringBuilder();
-        DefaultHandler handler = new SaxHandler(doc, LINE_NUM_ATTR_NAME, elementStack, textBuffer);
-        parser.parse(is, handler);
+    /**
+     * Check several files concurrently on a bounded pool.  Every file is checked, and the failures are
+     * reported together in the order the files were provided, regardless of the order they finish in.
+     * With failFast, the first file to fail, whichever order it finishes in, cancels the checks of the
+     * files still being checked, which are left out of the report.
+     *
+     * @param pomFiles the files to scan
+     * @throws MojoExecutionException if the check was interrupted
+     * @throws MojoFailureException   if any of the files are in error
+     */
+    protected void checkFiles(final List<File> pomFiles) throws MojoExecutionException, MojoFailureException {
+        if (pomFiles.isEmpty()) {
+            return;
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(poolSize, pomFiles.size()));
+        try {
+            CompletionService<List<RuleViolations>> completion = new ExecutorCompletionService<>(pool);
+            Map<Future<List<RuleViolations>>, File> filesByFuture = new HashMap<>();
+            for (final File pomFile : pomFiles) {
+                filesByFuture.put(completion.submit(() -> findErrorsMeasured(pomFile)), pomFile);
+            }
+            Map<File, List<RuleViolations>> failuresByFile = new HashMap<>();
+            for (int i = 0; i < pomFiles.size(); i++) {
+                Future<List<RuleViolations>> done = completion.take();
+                File pomFile = filesByFuture.get(done);
+                List<RuleViolations> fileFailures;
+                try {
+                    fileFailures = reported(done.get());
+                } catch (ExecutionException e) {
+                    fileFailures = Collections.singletonList(
+                            RuleViolations.processingFailure(pomFile, failureMessage(e.getCause())));
+                }
+                failuresByFile.put(pomFile, fileFailures);
+                if (failFast && !fileFailures.isEmpty()) {
+                    for (Future<List<RuleViolations>> future : filesByFuture.keySet()) {
+                        future.cancel(true);
+                    }
+                    break;
+                }
+            }
+            ViolationReport report = new ViolationReport();
+            for (File pomFile : pomFiles) {
+                List<RuleViolations> fileFailures = failuresByFile.get(pomFile);
+                if (fileFailures == null) {
+                    // cancelled by the first failure
+                    continue;
+                }
+                for (RuleViolations errors : fileFailures) {
+                    getBuildContext().addMessage(pomFile, 0, 0, errors.getMessage(), BuildContext.SEVERITY_ERROR, null);
+                }
+                report.add(new PomCheckResult(pomFile, fileFailures));
+            }
+            writeReports(report.getResults());
+            if (!report.isPassed()) {
+                throw new MojoFailureException(report.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while checking pom files", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-        return doc;
+    /**
+     * Find the errors in a file, measuring the check when metrics are being collected.
+     *
+     * @param pomFile the file to scan
+     * @return the errors of each rule broken, or an empty list if the file passes
+     * @throws IOException        if the file could not be read
+     * @throws XMLStreamException if the file could not be parsed
+     * @throws SAXException       if a pom the file depends on could not be parsed
+     */
+    private List<RuleViolations> findErrorsMeasured(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        PomCheckMetrics measuring = executionMetrics;
+        if (measuring == null) {
+            return findErrorsCached(pomFile);
+        }
+        PomCheckMetrics.Pom pom = measuring.begin(pomFile);
+        try {
+            return findErrorsCached(pomFile);
+        } finally {
+            measuring.end(pom);
+        }
     }
 
-    protected Document readXML(final File fileIn) throws IOException, SAXException {
-        return readXML(new FileInputStream(fileIn));
+    /**
+     * Find the errors in a file, reusing the cached result when the file has not changed.  A result held
+     * by the {@link PomCheckService} from earlier in this process is used first, then the persistent
+     * cache.  When the build context is incremental (in the IDE) and reports no change to the file, it is
+     * not even read.
+     *
+     * @param pomFile the file to scan
+     * @return the errors of each rule broken, or an empty list if the file passes
+     * @throws IOException        if the file could not be read
+     * @throws XMLStreamException if the file could not be parsed
+     * @throws SAXException       if a pom the file depends on could not be parsed
+     */
+    private List<RuleViolations> findErrorsCached(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        if (!isCacheable()) {
+            return findAllErrors(pomFile);
+        }
+        long start = System.nanoTime();
+        List<RuleViolations> held = PomCheckService.instance().peek(pomFile, getRuleSet());
+        if (held != null) {
+            getLog().debug("unchanged since it was last checked in this process, skipping " + pomFile);
+            PomCheckMetrics.time(PomCheckMetrics.Phase.CACHE, start);
+            return held;
+        }
+        ResultCache cache = resultCache;
+        if (cache == null) {
+            PomCheckMetrics.time(PomCheckMetrics.Phase.CACHE, start);
+            return findAllErrors(pomFile);
+        }
+        BuildContext buildContext = getBuildContext();
+        if (buildContext.isIncremental() && !buildContext.hasDelta(pomFile) && cache.contains(pomFile)) {
+            getLog().debug("unchanged in this incremental build, skipping " + pomFile);
+            List<RuleViolations> unchecked = cache.getUnchecked(pomFile);
+            PomCheckMetrics.time(PomCheckMetrics.Phase.CACHE, start);
+            return unchecked;
+        }
+        String hash = ResultCache.hash(pomFile);
+        ResultCache.Result cached = cache.get(pomFile, hash);
+        PomCheckMetrics.time(PomCheckMetrics.Phase.CACHE, start);
+        if (cached != null) {
+            getLog().debug("unchanged since it was last checked, skipping " + pomFile);
+            return cached.getFailures();
+        }
+        List<RuleViolations> failures = findAllErrors(pomFile);
+        start = System.nanoTime();
+        cache.putAll(pomFile, hash, failures);
+        PomCheckMetrics.time(PomCheckMetrics.Phase.CACHE, start);
+        return failures;
     }
 
-    protected String getLineNumber(final Node node) {
-        return (String) node.getUserData(LINE_NUM_ATTR_NAME);
+    /**
+     * @param failures the errors of every rule broken by a file
+     * @return all of them when collecting all errors, otherwise only the first
+     */
+    private List<RuleViolations> reported(final List<RuleViolations> failures) {
+        return collectAll || failures.size() <= 1 ? failures : failures.subList(0, 1);
     }
 
     /**
-     * Generate the string representing the artifact coordinates.
+     * Stream the results to each of the configured report formats.  A report that can't be written is
+     * only warned about, so that it does not hide the result of the check itself.
      *
-     * @param node the node representing a single dependency
-     * @return the string representing the artifact coordinates
+     * @param results the result of every file checked
      */
-    protected String artifactBuilder(final Node node) {
-        Element element = (Element) node;
-        return artifactBuilder(element);
+    protected void writeReports(final List<PomCheckResult> results) {
+        if (reportFormats == null || reportFormats.trim().isEmpty() || buildDirectory == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (String format : reportFormats.split(",")) {
+            if (format.trim().isEmpty()) {
+                continue;
+            }
+            ReportWriter writer = ReportWriter.forFormat(format);
+            File reportFile = new File(buildDirectory, "pom-check/" + getClass().getSimpleName() + "." + writer.getExtension());
+            try {
+                Files.createDirectories(reportFile.getParentFile().toPath());
+                try (Writer out = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+                    writer.write(pluginVersion, results, out);
+                }
+                getLog().info("Wrote " + reportFile);
+            } catch (IOException e) {
+                getLog().warn("Unable to write the report " + reportFile + ": " + e.getMessage());
+            }
+        }
+        recordPhase(PomCheckMetrics.Phase.REPORT, start);
+    }
+
+    private void recordPhase(final PomCheckMetrics.Phase phase, final long startNanos) {
+        if (executionMetrics != null) {
+            executionMetrics.record(phase, startNanos);
+        }
     }
 
     /**
-     * Generate the string representing the artifact coordinates.
-     *
-     * @param element the element representing a single dependency
-     * @return the string representing the artifact coordinates
+     * Add the measurements of this execution to those of the reactor, writing them out when metrics are
+     * being collected, and logging the summary of the reactor after the last project.
+     */
+    private void finishMetrics() {
+        PomCheckMetrics measured = executionMetrics;
+        if (measured == null) {
+            return;
+        }
+        executionMetrics = null;
+        String goal = getClass().getSimpleName();
+        PomCheckMetrics reactor = PomCheckMetrics.reactor(goal, isFirstProject());
+        reactor.addAll(measured);
+        if (metrics && buildDirectory != null) {
+            writeMetrics(measured, new File(buildDirectory, "pom-check/" + goal + ".metrics.json"));
+        }
+        if (!isAggregate() && !isLastProject()) {
+            return;
+        }
+        if (metrics && !isAggregate() && reactorProjects != null && reactorProjects.size() > 1) {
+            writeMetrics(reactor, new File(reactorBuildDirectory(), "pom-check/" + goal + ".reactor-metrics.json"));
+        }
+        if (metricsSummary) {
+            getLog().info(goal + " metrics: " + reactor.summary());
+        }
+    }
+
+    private void writeMetrics(final PomCheckMetrics measured, final File metricsFile) {
+        try {
+            Files.createDirectories(metricsFile.getParentFile().toPath());
+            try (Writer out = Files.newBufferedWriter(metricsFile.toPath(), StandardCharsets.UTF_8)) {
+                measured.write(getClass().getSimpleName(), out);
+            }
+            getLog().debug("Wrote " + metricsFile);
+        } catch (IOException e) {
+            getLog().warn("Unable to write the metrics " + metricsFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param cause why a pom could not be checked
+     * @return its message, or the exception itself when it has none, such as a NullPointerException
+     */
+    protected static String failureMessage(final Throwable cause) {
+        return cause.getMessage() == null ? cause.toString() : cause.getMessage();
+    }
+
+    /**
+     * @return true when this is the first project of the reactor, which starts what the reactor shares
      */
-    protected String artifactBuilder(final Element element) {
-        getLog().debug("ELEMENT: " + element.toString());
-        String groupId = "[unknown-groupid]";
-        String artifactId = "[unknown-artifactid]";
-        String version = "[unknown-version]";
+    protected boolean isFirstProject() {
+        return reactorProjects == null || reactorProjects.isEmpty() || reactorProjects.get(0).equals(getMavenProject());
+    }
 
-        NodeList groupIdNodeList = element.getElementsByTagName("groupId");
-        if (groupIdNodeList.getLength() != 0) {
-            groupId = element.getElementsByTagName("groupId").item(0).getTextContent();
+    private boolean isLastProject() {
+        return reactorProjects == null || reactorProjects.isEmpty()
+                || reactorProjects.get(reactorProjects.size() - 1).equals(getMavenProject());
+    }
+
+    /**
+     * @return the build directory of the first project in the reactor, or this project's when it isn't known
+     */
+    private File reactorBuildDirectory() {
+        MavenProject first = reactorProjects.get(0);
+        if (first.getBuild() == null || first.getBuild().getDirectory() == null) {
+            return buildDirectory;
+        }
+        return new File(first.getBuild().getDirectory());
+    }
+
+    private ResultCache openCache() {
+        if (!useCache || !isCacheable() || buildDirectory == null) {
+            return null;
+        }
+        File cacheFile = new File(buildDirectory, "pom-check/" + getClass().getSimpleName() + ".cache");
+        ResultCache cache = new ResultCache(cacheFile, pluginVersion + "\n" + getRuleConfiguration());
+        try {
+            cache.load();
+        } catch (IOException e) {
+            getLog().warn("Unable to read the result cache " + cacheFile + ", all poms will be checked: " + e.getMessage());
         }
-        NodeList artifactNodeList = element.getElementsByTagName("artifactId");
-        if (artifactNodeList.getLength() != 0) {
-            artifactId = artifactNodeList.item(0).getTextContent();
+        return cache;
+    }
+
+    private void closeCache() {
+        if (resultCache == null) {
+            return;
         }
-        NodeList versionNodeList = element.getElementsByTagName("version");
-        if (versionNodeList.getLength() != 0) {
-            version = versionNodeList.item(0).getTextContent();
+        try {
+            resultCache.save();
+        } catch (IOException e) {
+            getLog().warn("Unable to write the result cache: " + e.getMessage());
+        } finally {
+            resultCache = null;
         }
-        return groupId + ":" + artifactId + ":" + version;
     }
 
     /**
-     * Using an xpath expression, gather the appropriate collection of tags
-     *
-     * @param doc             the document to search
-     * @param path            the path to find the dependencies collection
-     * @throws MojoExecutionException if there are any errors in execution
-     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     * @return the pom of every project in the reactor that changed, or whose parent changed, with
+     *         pomcheck.changedOnly, otherwise the pom of every project in the reactor
+     * @throws MojoExecutionException if the changes could not be found
+     */
+    protected List<File> changedPomFiles() throws MojoExecutionException {
+        if (!changedOnly || !isChangedOnlySupported()) {
+            return reactorPomFiles();
+        }
+        List<MavenProject> projects = reactorProjects == null || reactorProjects.isEmpty()
+                ? Collections.singletonList(getMavenProject()) : reactorProjects;
+        ChangedPoms changes = findChanges();
+        List<File> pomFiles = new ArrayList<>();
+        try {
+            for (MavenProject project : projects) {
+                if (project.getFile() != null && changes.isChanged(project)) {
+                    pomFiles.add(project.getFile());
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to find the poms changed since " + describeBaseRef() + ": "
+                    + e.getMessage(), e);
+        }
+        getLog().info(pomFiles.size() + " of " + projects.size() + " poms changed since " + describeBaseRef());
+        return pomFiles;
+    }
+
+    /**
+     * @param project a project of the reactor
+     * @return true when the project must be checked: its pom or one of its parents changed, or every pom
+     *         is being checked
+     * @throws MojoExecutionException if the changes could not be found
+     */
+    private boolean isChanged(final MavenProject project) throws MojoExecutionException {
+        if (!changedOnly || !isChangedOnlySupported()) {
+            return true;
+        }
+        try {
+            return findChanges().isChanged(project);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to find the poms changed since " + describeBaseRef() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the changes in the working tree, found once for the reactor by the first project
+     * @throws MojoExecutionException if the changes could not be found
      */
-    protected NodeList findByPath(final Document doc, final String path)
-            throws MojoExecutionException, MojoFailureException {
-        getLog().debug("finding By Path: " + path);
-        NodeList nodeCollection;
+    private ChangedPoms findChanges() throws MojoExecutionException {
+        MavenProject first = reactorProjects == null || reactorProjects.isEmpty()
+                ? getMavenProject() : reactorProjects.get(0);
         try {
-            XPath xPath = XPathFactory.newInstance().newXPath();
-            nodeCollection = (NodeList) xPath.evaluate(path, doc.getDocumentElement(), XPathConstants.NODESET);
-            getLog().debug("size of collection matching \"" + path + "\": " + nodeCollection.getLength());
-        } catch (XPathExpressionException e) {
-            throw new MojoExecutionException(e.getMessage());
+            return ChangedPoms.reactor(first.getBasedir(), baseRef, isFirstProject());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to find the poms changed since " + describeBaseRef() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private String describeBaseRef() {
+        return baseRef == null || baseRef.trim().isEmpty() ? "HEAD" : baseRef.trim();
+    }
+
+    /**
+     * @return the pom of every project in the reactor, in reactor order, or only this project's when the
+     *         reactor is not known
+     */
+    protected List<File> reactorPomFiles() {
+        List<File> pomFiles = new ArrayList<>();
+        if (reactorProjects == null || reactorProjects.isEmpty()) {
+            pomFiles.add(getMavenProject().getFile());
+        } else {
+            for (MavenProject project : reactorProjects) {
+                if (project.getFile() != null) {
+                    pomFiles.add(project.getFile());
+                }
+            }
         }
-        return nodeCollection;
+        return pomFiles;
     }
 }
@@ -0,0 +1,84 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+/**
+ * The groupId, artifactId and version of a dependency or plugin.  Holding the parts rather than the
+ * "groupId:artifactId:version" string means nothing is concatenated unless a report is produced.
+ * Missing parts are rendered as placeholders, and coordinates with no parts at all share a single
+ * instance.
+ */
+public final class ArtifactCoordinates {
+
+    static final String UNKNOWN_GROUP_ID = "[unknown-groupid]";
+    static final String UNKNOWN_ARTIFACT_ID = "[unknown-artifactid]";
+    static final String UNKNOWN_VERSION = "[unknown-version]";
+
+    /**
+     * The coordinates of an element that declares none of its own.
+     */
+    public static final ArtifactCoordinates UNKNOWN =
+            new ArtifactCoordinates(UNKNOWN_GROUP_ID, UNKNOWN_ARTIFACT_ID, UNKNOWN_VERSION);
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+
+    private ArtifactCoordinates(final String groupIdIn, final String artifactIdIn, final String versionIn) {
+        groupId = groupIdIn;
+        artifactId = artifactIdIn;
+        version = versionIn;
+    }
+
+    /**
+     * @param groupId    the groupId, or null if it was not declared
+     * @param artifactId the artifactId, or null if it was not declared
+     * @param version    the version, or null if it was not declared
+     * @return the coordinates
+     */
+    public static ArtifactCoordinates of(final String groupId, final String artifactId, final String version) {
+        if (groupId == null && artifactId == null && version == null) {
+            return UNKNOWN;
+        }
+        return new ArtifactCoordinates(
+                groupId == null ? UNKNOWN_GROUP_ID : groupId,
+                artifactId == null ? UNKNOWN_ARTIFACT_ID : artifactId,
+                version == null ? UNKNOWN_VERSION : version);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArtifactCoordinates)) {
+            return false;
+        }
+        ArtifactCoordinates that = (ArtifactCoordinates) o;
+        return groupId.equals(that.groupId) && artifactId.equals(that.artifactId) && version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * groupId.hashCode() + artifactId.hashCode()) + version.hashCode();
+    }
+
+    /**
+     * @return the coordinates in the form "groupId:artifactId:version"
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder(groupId.length() + artifactId.length() + version.length() + 2)
+                .append(groupId).append(':').append(artifactId).append(':').append(version).toString();
+    }
+}
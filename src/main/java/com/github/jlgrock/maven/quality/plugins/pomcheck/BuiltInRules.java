@@ -0,0 +1,108 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rules the version-check and release-check goals check in every pom.  They are kept out of the
+ * mojos, so that {@link PomCheckCli} can check them without maven on the class path.
+ */
+final class BuiltInRules {
+
+    static final String SNAPSHOT_DESCRIPTION = "You must not use snapshots in properties";
+
+    private static final String VERSION_ALLOWED_KINDS = VersionKind.PROPERTY_VERSION.name();
+    private static final String VERSION_NOT_ALLOWED_KINDS = VersionKind.SNAPSHOT.name();
+
+    private static final String PROJECT_XPATH_PREFIX = "/project";
+    private static final String PROFILE_XPATH_PREFIX = "/profiles/profile";
+    private static final String DEPENDENCY_MANAGEMENT_XPATH_PREFIX = "/dependencyManagement";
+    private static final String DEPENDENCY_VERSION_XPATH_LOC = "/dependencies/dependency/version";
+    private static final String PLUGIN_VERSION_XPATH_LOC = "/build/plugins/plugin/version";
+    private static final String PLUGIN_MANAGEMENT_XPATH_PREFIX = "/build/pluginManagement/plugins/plugin";
+    private static final String PLUGIN_XPATH_PREFIX = "/build/plugins/plugin";
+    private static final String REPORTING_PLUGIN_VERSION_XPATH_LOC = "/reporting/plugins/plugin/version";
+    private static final String EXTENSION_VERSION_XPATH_LOC = "/build/extensions/extension/version";
+    private static final String PROPERTIES_XPATH_PREFIX = "/properties/*";
+    private static final String PROPERTIES_XPATH = PROJECT_XPATH_PREFIX + PROPERTIES_XPATH_PREFIX;
+    private static final String PROFILE_PROPERTIES_XPATH = PROJECT_XPATH_PREFIX + PROFILE_XPATH_PREFIX + PROPERTIES_XPATH_PREFIX;
+
+    /**
+     * The rules of version-check.
+     */
+    static final List<PomRule> VERSION_CHECK = versionCheck();
+
+    /**
+     * The rules of release-check, which it checks in the pom itself.
+     */
+    static final List<PomRule> RELEASE_CHECK = Collections.unmodifiableList(Arrays.<PomRule>asList(
+            new VersionRule(PROPERTIES_XPATH, null, null, null, VERSION_NOT_ALLOWED_KINDS, SNAPSHOT_DESCRIPTION),
+            new VersionRule(PROFILE_PROPERTIES_XPATH, null, null, null, VERSION_NOT_ALLOWED_KINDS,
+                    SNAPSHOT_DESCRIPTION)));
+
+    private BuiltInRules() {
+    }
+
+    /**
+     * Properties are required in dependency management sections and versions are not allowed at all
+     * in the dependencies and plugins, which take them from management.  These are reported first, in
+     * this order.  Everywhere else maven accepts a version - plugin management, the dependencies of a
+     * plugin, reporting plugins and build extensions - nothing manages it, so a version is allowed but
+     * must be a property.  Each rule applies to the project and to its profiles, other than extensions,
+     * which profiles can't declare.  However many sections there are, they are all checked in one pass
+     * over the pom by the {@link RuleSet}.
+     */
+    private static List<PomRule> versionCheck() {
+        String[] prefixes = {PROJECT_XPATH_PREFIX, PROJECT_XPATH_PREFIX + PROFILE_XPATH_PREFIX};
+        List<PomRule> rules = new ArrayList<>();
+        for (String prefix : prefixes) {
+            rules.add(new VersionRule(prefix + DEPENDENCY_MANAGEMENT_XPATH_PREFIX + DEPENDENCY_VERSION_XPATH_LOC,
+                    null, null, VERSION_ALLOWED_KINDS, null, errorDescription(true)));
+            rules.add(new VersionRule(prefix + DEPENDENCY_VERSION_XPATH_LOC, null, null, errorDescription(false)));
+        }
+        for (String prefix : prefixes) {
+            rules.add(new VersionRule(prefix + PLUGIN_VERSION_XPATH_LOC, null, null, errorDescription(false)));
+        }
+        for (String prefix : prefixes) {
+            rules.add(new VersionRule(prefix + PLUGIN_MANAGEMENT_XPATH_PREFIX + "/version", null, null,
+                    VERSION_ALLOWED_KINDS, null, propertyDescription("pluginManagement")));
+            rules.add(new VersionRule(prefix + PLUGIN_MANAGEMENT_XPATH_PREFIX + DEPENDENCY_VERSION_XPATH_LOC, null, null,
+                    VERSION_ALLOWED_KINDS, null, propertyDescription("plugin dependencies")));
+            rules.add(new VersionRule(prefix + PLUGIN_XPATH_PREFIX + DEPENDENCY_VERSION_XPATH_LOC, null, null,
+                    VERSION_ALLOWED_KINDS, null, propertyDescription("plugin dependencies")));
+            rules.add(new VersionRule(prefix + REPORTING_PLUGIN_VERSION_XPATH_LOC, null, null,
+                    VERSION_ALLOWED_KINDS, null, propertyDescription("reporting")));
+        }
+        rules.add(new VersionRule(PROJECT_XPATH_PREFIX + EXTENSION_VERSION_XPATH_LOC, null, null,
+                VERSION_ALLOWED_KINDS, null, propertyDescription("extensions")));
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * @param allowProperties whether or not properties are allowed in this dependency list.
+     *                        Version numbers are never allowed.
+     * @return the description of the errors found in a section
+     */
+    private static String errorDescription(final boolean allowProperties) {
+        if (allowProperties) {
+            //dependency management sections
+            return "dependencyManagment sections must use variables."
+                    + "These should likely be referenced in the dependency/plugin management mavenProject.\n"
+                    + "The following artifacts are in error:\n";
+        }
+        return "Versions must be inherited from dependency/plugin management"
+                + "sections. \"version\" tag found where it was not allowed for the following artifacts:";
+    }
+
+    /**
+     * @param section the section the versions are declared in
+     * @return the description of the errors found in a section where versions are allowed, but only
+     *         through variables, since nothing manages them
+     */
+    private static String propertyDescription(final String section) {
+        return "Versions in " + section + " sections must use variables.\n"
+                + "The following artifacts are in error:\n";
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.project.MavenProject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The files changed in the local git working tree, so that only the projects whose pom, or one of
+ * whose parent poms, changed need to be checked.  On a pull request build this makes the check scale
+ * with the size of the change rather than the size of the reactor.
+ *
+ * The changes are read from the local repository by the git command line, and never fetched: without a
+ * base ref, they are the staged and unstaged changes against HEAD; with one, they are every change since
+ * the commit HEAD forked from it, committed or not.  Untracked files are always included.  The parents of
+ * a project are taken from the projects Maven has already built, so an unchanged pom is never read.
+ */
+public final class ChangedPoms {
+
+    private static final ConcurrentMap<String, ChangedPoms> REACTOR = new ConcurrentHashMap<>();
+
+    /**
+     * The deepest a chain of parents is followed, in case of a cycle.
+     */
+    private static final int MAX_PARENTS = 64;
+
+    private final Set<File> changed;
+
+    /**
+     * @param changedIn the canonical path of every changed file
+     */
+    ChangedPoms(final Set<File> changedIn) {
+        changed = Collections.unmodifiableSet(changedIn);
+    }
+
+    /**
+     * @param directory the working tree, or any directory within it
+     * @param baseRef   the ref to compare against, or null or empty to compare the working tree with HEAD
+     * @param reset     true to find the changes again, at the start of a build
+     * @return the changes, found once for the whole reactor
+     * @throws IOException if git could not be run, or failed
+     */
+    static ChangedPoms reactor(final File directory, final String baseRef, final boolean reset)
+            throws IOException {
+        String key = directory.getCanonicalPath() + '\n' + (baseRef == null ? "" : baseRef);
+        if (reset) {
+            REACTOR.remove(key);
+        }
+        try {
+            return REACTOR.computeIfAbsent(key, unused -> {
+                try {
+                    return find(directory, baseRef);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param directory the working tree, or any directory within it
+     * @param baseRef   the ref to compare against, or null or empty to compare the working tree with HEAD
+     * @return the changes
+     * @throws IOException if git could not be run, or failed
+     */
+    public static ChangedPoms find(final File directory, final String baseRef) throws IOException {
+        File topLevel = new File(git(directory, "rev-parse", "--show-toplevel").trim());
+        String base = "HEAD";
+        if (baseRef != null && !baseRef.trim().isEmpty()) {
+            base = git(directory, "merge-base", baseRef.trim(), "HEAD").trim();
+        }
+        Set<File> changedIn = new HashSet<>();
+        addAll(changedIn, topLevel, git(topLevel, "diff", "--name-only", "--no-renames", "-z", base));
+        addAll(changedIn, topLevel, git(topLevel, "ls-files", "--others", "--exclude-standard", "-z"));
+        return new ChangedPoms(changedIn);
+    }
+
+    /**
+     * @param project a project of the reactor
+     * @return true when the pom of the project, or of any of its parents, changed
+     * @throws IOException if the path of a pom could not be resolved
+     */
+    public boolean isChanged(final MavenProject project) throws IOException {
+        MavenProject current = project;
+        for (int depth = 0; current != null && depth < MAX_PARENTS; depth++) {
+            if (current.getFile() != null && changed.contains(current.getFile().getCanonicalFile())) {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+
+    /**
+     * @return the canonical path of every changed file
+     */
+    public Set<File> getFiles() {
+        return changed;
+    }
+
+    private static void addAll(final Set<File> files, final File topLevel, final String names)
+            throws IOException {
+        for (String name : names.split("\0")) {
+            if (!name.isEmpty()) {
+                files.add(new File(topLevel, name).getCanonicalFile());
+            }
+        }
+    }
+
+    /**
+     * Run git in a directory.  Only commands that read the local repository are run.
+     *
+     * @return what git wrote to its standard output
+     * @throws IOException if git could not be run, or failed
+     */
+    private static String git(final File directory, final String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+        // reading must not take the index lock, which an IDE or another build may hold
+        builder.environment().put("GIT_OPTIONAL_LOCKS", "0");
+        // errors go to a file, so that git can't block writing them while its output is being read
+        File errorFile = File.createTempFile("pomcheck-git", ".err");
+        try {
+            builder.redirectError(errorFile);
+            Process process = builder.start();
+            process.getOutputStream().close();
+            String output = readAll(process.getInputStream());
+            try {
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    String error = new String(Files.readAllBytes(errorFile.toPath()), StandardCharsets.UTF_8);
+                    throw new IOException("git " + String.join(" ", arguments) + " failed in " + directory + " ("
+                            + exitCode + "): " + error.trim());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroy();
+                throw new IOException("Interrupted while running git", e);
+            }
+            return output;
+        } finally {
+            Files.deleteIfExists(errorFile.toPath());
+        }
+    }
+
+    private static String readAll(final InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream stream = in) {
+            for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifies that every module of the reactor declares each dependency and plugin at the same version,
+ * through the same property.  version-check makes each pom take its versions from properties, but
+ * nothing stops two modules from managing the same artifact at different versions or under different
+ * property names; this goal finds those.
+ *
+ * The first project of the reactor reads every pom in the reactor concurrently, once, into a
+ * {@link DependencyVersionIndex}, and each artifact declared inconsistently is reported against every
+ * module declaring it.  Versions are interpolated against each module's parents, which are read from
+ * their relative path or the local repository.
+ */
+@Mojo(name = "consistency-check", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
+public class ConsistentVersionsMojo extends AbstractPomChecker {
+
+    @Component
+    private BuildContext buildContext;
+
+    /**
+     * The local repository, where parents outside of the reactor are looked up.
+     */
+    @Parameter(defaultValue = "${settings.localRepository}", readonly = true)
+    protected File localRepository;
+
+    /**
+     * The Maven Project.
+     */
+    @Component
+    protected MavenProject mavenProject;
+
+    /**
+     * Default constructor (for when not testing).
+     */
+    public ConsistentVersionsMojo() {
+    }
+
+    /**
+     * Constructor used for testing.
+     *
+     * @param buildContextIn the buildContext for logging and such.
+     * @param mavenProjectIn the maven mavenProject to execute on.
+     */
+    ConsistentVersionsMojo(final BuildContext buildContextIn, final MavenProject mavenProjectIn) {
+        buildContext = buildContextIn;
+        mavenProject = mavenProjectIn;
+    }
+
+    @Override
+    protected MavenProject getMavenProject() {
+        return mavenProject;
+    }
+
+    @Override
+    protected BuildContext getBuildContext() {
+        return buildContext;
+    }
+
+    /**
+     * Nothing is checked a pom at a time; see {@link #checkFiles(List)}.
+     */
+    @Override
+    protected List<PomRule> getBuiltInRules() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Every pom is indexed, since a change to one can conflict with any other.
+     */
+    @Override
+    protected boolean isChangedOnlySupported() {
+        return false;
+    }
+
+    /**
+     * The reactor is always checked as a whole.
+     */
+    @Override
+    protected boolean isAggregate() {
+        return true;
+    }
+
+    /**
+     * The result depends on every pom in the reactor, so it is never cached.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Index every pom of the reactor in a single concurrent pass, and report the artifacts declared
+     * inconsistently.
+     *
+     * @param pomFiles the pom of every project in the reactor
+     * @throws MojoExecutionException if the check was interrupted
+     * @throws MojoFailureException   if any artifact is declared inconsistently, or a pom could not be read
+     */
+    @Override
+    protected void checkFiles(final List<File> pomFiles) throws MojoExecutionException, MojoFailureException {
+        if (pomFiles.isEmpty()) {
+            return;
+        }
+        DependencyVersionIndex index = new DependencyVersionIndex(pomFiles);
+        EffectivePomResolver resolver = new EffectivePomResolver(getModelCache(), localRepository,
+                getLimits());
+        Map<File, List<RuleViolations>> failuresByFile = new LinkedHashMap<>();
+        for (File pomFile : pomFiles) {
+            failuresByFile.put(pomFile, new ArrayList<RuleViolations>());
+        }
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(poolSize, pomFiles.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < pomFiles.size(); i++) {
+                final int module = i;
+                final File pomFile = pomFiles.get(i);
+                // shared with release-check, which reads the same modules when it checks effective poms
+                futures.add(pool.submit(() -> {
+                    index.add(module, resolver.resolve(pomFile));
+                    return null;
+                }));
+            }
+            for (int i = 0; i < pomFiles.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failuresByFile.get(pomFiles.get(i)).add(
+                            RuleViolations.processingFailure(pomFiles.get(i), failureMessage(e.getCause())));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while indexing pom files", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        getLog().debug("indexed " + index.size() + " artifacts declared by " + pomFiles.size() + " modules");
+
+        for (DependencyVersionIndex.Conflict conflict : index.conflicts()) {
+            Map<File, List<ErrorAndLocation>> declarationsByFile = new LinkedHashMap<>();
+            for (DependencyVersionIndex.Declaration declaration : conflict.getDeclarations()) {
+                declarationsByFile.computeIfAbsent(declaration.getFile(), file -> new ArrayList<ErrorAndLocation>())
+                        .add(new ErrorAndLocation(describe(conflict, declaration),
+                                String.valueOf(declaration.getLine()), null));
+            }
+            for (Map.Entry<File, List<ErrorAndLocation>> entry : declarationsByFile.entrySet()) {
+                failuresByFile.get(entry.getKey()).add(new RuleViolations(entry.getKey(),
+                        conflict.getDescription(), entry.getValue()));
+            }
+        }
+
+        ViolationReport report = new ViolationReport();
+        for (Map.Entry<File, List<RuleViolations>> entry : failuresByFile.entrySet()) {
+            for (RuleViolations errors : entry.getValue()) {
+                getBuildContext().addMessage(entry.getKey(), 0, 0, errors.getMessage(), BuildContext.SEVERITY_ERROR,
+                        null);
+            }
+            report.add(new PomCheckResult(entry.getKey(), entry.getValue()));
+        }
+        writeReports(report.getResults());
+        if (!report.isPassed()) {
+            throw new MojoFailureException(report.getMessage());
+        }
+    }
+
+    /**
+     * @return e.g. "junit:junit:4.12 from ${junit.version}"
+     */
+    private static String describe(final DependencyVersionIndex.Conflict conflict,
+                                   final DependencyVersionIndex.Declaration declaration) {
+        StringBuilder output = new StringBuilder(conflict.getKey()).append(':');
+        if (declaration.getVersion() != null) {
+            output.append(declaration.getVersion());
+            if (declaration.getProperty() != null) {
+                output.append(" from ${").append(declaration.getProperty()).append('}');
+            }
+        } else if (declaration.getProperty() != null) {
+            output.append("${").append(declaration.getProperty()).append('}');
+        } else {
+            output.append(ArtifactCoordinates.UNKNOWN_VERSION);
+        }
+        return output.toString();
+    }
+}
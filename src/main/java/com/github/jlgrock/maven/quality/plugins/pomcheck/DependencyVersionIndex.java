@@ -0,0 +1,267 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Every dependency and plugin version declared across the modules of a reactor, indexed by
+ * "groupId:artifactId", so that two modules declaring the same artifact at different versions, or
+ * through different properties, can be found.
+ *
+ * Modules are numbered by their position in the reactor, and each declaration is held as that number,
+ * its line, its version and its property in the primitive and string arrays of its artifact.  Keys,
+ * versions and property names are interned, so a version declared by thousands of modules is held once.
+ * Only the declarations are kept, never the poms themselves, so the index grows with the number of
+ * declarations and modules can be added from several threads at once.
+ */
+public final class DependencyVersionIndex {
+
+    private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+    private static final String PLUGIN = "plugin";
+
+    private final List<File> modules;
+    private final ConcurrentMap<String, String> symbols = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Artifact> artifacts = new ConcurrentHashMap<>();
+
+    /**
+     * @param modulesIn the pom of every module in the reactor, in reactor order
+     */
+    public DependencyVersionIndex(final List<File> modulesIn) {
+        modules = Collections.unmodifiableList(new ArrayList<>(modulesIn));
+    }
+
+    /**
+     * Add every version a module declares itself.  Versions are interpolated against the module and its
+     * parents; those declared by the parents are added when the parents themselves are.
+     *
+     * @param module the position of the module in the reactor
+     * @param pom    the module, resolved against its parents
+     */
+    public void add(final int module, final EffectivePom pom) {
+        for (PomModel.Declaration declaration : pom.getPom().getVersions()) {
+            ArtifactCoordinates coordinates = declaration.getCoordinates();
+            String groupId = pom.interpolate(coordinates.getGroupId());
+            if (ArtifactCoordinates.UNKNOWN_GROUP_ID.equals(groupId) && PLUGIN.equals(declaration.getName())) {
+                groupId = DEFAULT_PLUGIN_GROUP_ID;
+            }
+            String key = intern(groupId + ':' + pom.interpolate(coordinates.getArtifactId()));
+            String version = pom.interpolate(declaration.getValue());
+            Artifact artifact = artifacts.computeIfAbsent(key, Artifact::new);
+            artifact.add(module, declaration.getLine(), version.contains("${") ? null : intern(version),
+                    intern(propertyOf(declaration.getValue())));
+        }
+    }
+
+    /**
+     * @return the number of artifacts declared by any module
+     */
+    public int size() {
+        return artifacts.size();
+    }
+
+    /**
+     * @return every artifact declared at more than one version or through more than one property,
+     *         ordered by key
+     */
+    public List<Conflict> conflicts() {
+        List<Conflict> conflicts = new ArrayList<>();
+        for (Artifact artifact : artifacts.values()) {
+            Conflict conflict = artifact.conflict();
+            if (conflict != null) {
+                conflicts.add(conflict);
+            }
+        }
+        conflicts.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+        return conflicts;
+    }
+
+    /**
+     * @return the name of the property a version is taken from, or null if it is not exactly "${name}"
+     */
+    static String propertyOf(final String value) {
+        if (value.length() > 3 && value.startsWith("${") && value.indexOf('}') == value.length() - 1) {
+            return value.substring(2, value.length() - 1);
+        }
+        return null;
+    }
+
+    private String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = symbols.putIfAbsent(value, value);
+        return interned == null ? value : interned;
+    }
+
+    /**
+     * The declarations of a single artifact, in the order they were added.
+     */
+    private final class Artifact {
+        private final String key;
+        private int size;
+        private int[] declaringModules = new int[2];
+        private int[] lines = new int[2];
+        private String[] versions = new String[2];
+        private String[] properties = new String[2];
+
+        Artifact(final String keyIn) {
+            key = keyIn;
+        }
+
+        synchronized void add(final int module, final int line, final String version, final String property) {
+            if (size == lines.length) {
+                declaringModules = Arrays.copyOf(declaringModules, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+                properties = Arrays.copyOf(properties, size * 2);
+            }
+            declaringModules[size] = module;
+            lines[size] = line;
+            versions[size] = version;
+            properties[size] = property;
+            size++;
+        }
+
+        /**
+         * Versions that can't be resolved are not compared, and neither are declarations without a
+         * property when comparing properties, since the version-check goal already reports those.
+         */
+        synchronized Conflict conflict() {
+            TreeSet<String> distinctVersions = new TreeSet<>();
+            TreeSet<String> distinctProperties = new TreeSet<>();
+            for (int i = 0; i < size; i++) {
+                if (versions[i] != null) {
+                    distinctVersions.add(versions[i]);
+                }
+                if (properties[i] != null) {
+                    distinctProperties.add(properties[i]);
+                }
+            }
+            if (distinctVersions.size() < 2 && distinctProperties.size() < 2) {
+                return null;
+            }
+            List<Declaration> declarations = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                declarations.add(new Declaration(modules.get(declaringModules[i]), declaringModules[i], lines[i],
+                        versions[i], properties[i]));
+            }
+            declarations.sort((a, b) -> a.module != b.module ? Integer.compare(a.module, b.module)
+                    : Integer.compare(a.line, b.line));
+            return new Conflict(key, new ArrayList<>(distinctVersions), new ArrayList<>(distinctProperties),
+                    declarations);
+        }
+    }
+
+    /**
+     * An artifact declared at more than one version, or through more than one property.
+     */
+    public static final class Conflict {
+        private final String key;
+        private final List<String> versions;
+        private final List<String> properties;
+        private final List<Declaration> declarations;
+
+        Conflict(final String keyIn, final List<String> versionsIn, final List<String> propertiesIn,
+                 final List<Declaration> declarationsIn) {
+            key = keyIn;
+            versions = Collections.unmodifiableList(versionsIn);
+            properties = Collections.unmodifiableList(propertiesIn);
+            declarations = Collections.unmodifiableList(declarationsIn);
+        }
+
+        /**
+         * @return "groupId:artifactId"
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the distinct versions the artifact is declared at, in order
+         */
+        public List<String> getVersions() {
+            return versions;
+        }
+
+        /**
+         * @return the distinct properties the artifact's versions are taken from, in order
+         */
+        public List<String> getProperties() {
+            return properties;
+        }
+
+        /**
+         * @return every declaration of the artifact, in reactor order
+         */
+        public List<Declaration> getDeclarations() {
+            return declarations;
+        }
+
+        /**
+         * @return e.g. "junit:junit is declared at versions 4.12, 4.13 and through properties junit.version,
+         *         junit4.version"
+         */
+        public String getDescription() {
+            StringBuilder description = new StringBuilder(key).append(" is declared");
+            if (versions.size() > 1) {
+                description.append(" at versions ").append(String.join(", ", versions));
+            }
+            if (properties.size() > 1) {
+                description.append(versions.size() > 1 ? " and" : "").append(" through properties ")
+                        .append(String.join(", ", properties));
+            }
+            return description.toString();
+        }
+    }
+
+    /**
+     * A single version of an artifact, as a module declares it.
+     */
+    public static final class Declaration {
+        private final File file;
+        private final int module;
+        private final int line;
+        private final String version;
+        private final String property;
+
+        Declaration(final File fileIn, final int moduleIn, final int lineIn, final String versionIn,
+                    final String propertyIn) {
+            file = fileIn;
+            module = moduleIn;
+            line = lineIn;
+            version = versionIn;
+            property = propertyIn;
+        }
+
+        /**
+         * @return the pom of the declaring module
+         */
+        public File getFile() {
+            return file;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the interpolated version, or null if it could not be resolved
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the property the version is taken from, or null if it is not taken from a single property
+         */
+        public String getProperty() {
+            return property;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pom along with the parents it inherits from.  Properties declared by a child override those of
+ * its parents, and any value can be interpolated against the merged properties.  Profiles are not
+ * applied, since which of them are active is not known outside of a real build: the versions they
+ * declare are read as if every profile were active, their dependencies are kept apart from the project's,
+ * and what they manage and their properties are ignored.
+ */
+public final class EffectivePom {
+
+    private static final int MAX_INTERPOLATION_DEPTH = 16;
+
+    private final List<PomModel> chain;
+    private final List<ArtifactCoordinates> unresolvedParents;
+    private final Map<String, PomModel.Declaration> properties;
+
+    /**
+     * @param chainIn             the pom followed by each of its parents, nearest first
+     * @param unresolvedParentsIn parents that could not be found, which end the chain early
+     */
+    EffectivePom(final List<PomModel> chainIn, final List<ArtifactCoordinates> unresolvedParentsIn) {
+        chain = Collections.unmodifiableList(chainIn);
+        unresolvedParents = Collections.unmodifiableList(unresolvedParentsIn);
+        Map<String, PomModel.Declaration> merged = new LinkedHashMap<>();
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            merged.putAll(chain.get(i).getProperties());
+        }
+        properties = Collections.unmodifiableMap(merged);
+    }
+
+    /**
+     * @return the pom itself
+     */
+    public PomModel getPom() {
+        return chain.get(0);
+    }
+
+    /**
+     * @return the pom followed by each of its parents, nearest first
+     */
+    public List<PomModel> getChain() {
+        return chain;
+    }
+
+    public List<ArtifactCoordinates> getUnresolvedParents() {
+        return unresolvedParents;
+    }
+
+    /**
+     * @return the properties of the pom and its parents, with the nearest declaration of each winning
+     */
+    public Map<String, PomModel.Declaration> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return every dependency and plugin version declared by the pom and its parents
+     */
+    public List<PomModel.Declaration> getVersions() {
+        List<PomModel.Declaration> versions = new ArrayList<>();
+        for (PomModel model : chain) {
+            versions.addAll(model.getVersions());
+        }
+        return versions;
+    }
+
+    /**
+     * @return every bom imported by the pom and its parents
+     */
+    public List<PomModel.Declaration> getImports() {
+        List<PomModel.Declaration> imports = new ArrayList<>();
+        for (PomModel model : chain) {
+            imports.addAll(model.getImports());
+        }
+        return imports;
+    }
+
+    /**
+     * Replace every "${...}" expression in a value with the property it refers to.  Properties that
+     * can't be resolved are left as they are.
+     *
+     * @param value the value to interpolate
+     * @return the interpolated value
+     */
+    public String interpolate(final String value) {
+        return interpolate(value, 0);
+    }
+
+    private String interpolate(final String value, final int depth) {
+        if (value == null || depth > MAX_INTERPOLATION_DEPTH) {
+            return value;
+        }
+        int start = value.indexOf("${");
+        if (start < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        int copied = 0;
+        while (start >= 0) {
+            int end = value.indexOf('}', start + 2);
+            if (end < 0) {
+                break;
+            }
+            String resolved = lookup(value.substring(start + 2, end));
+            result.append(value, copied, start);
+            if (resolved == null) {
+                result.append(value, start, end + 1);
+            } else {
+                result.append(interpolate(resolved, depth + 1));
+            }
+            copied = end + 1;
+            start = value.indexOf("${", copied);
+        }
+        result.append(value, copied, value.length());
+        return result.toString();
+    }
+
+    private String lookup(final String name) {
+        PomModel.Declaration property = properties.get(name);
+        if (property != null) {
+            return property.getValue();
+        }
+        PomModel pom = getPom();
+        switch (name) {
+            case "project.version":
+            case "pom.version":
+            case "version":
+                return pom.getVersion();
+            case "project.groupId":
+            case "pom.groupId":
+            case "groupId":
+                return pom.getGroupId();
+            case "project.artifactId":
+            case "pom.artifactId":
+            case "artifactId":
+                return pom.getArtifactId();
+            case "project.parent.version":
+                return pom.getParent() == null ? null : pom.getParent().getVersion();
+            case "project.parent.groupId":
+                return pom.getParent() == null ? null : pom.getParent().getGroupId();
+            default:
+                return null;
+        }
+    }
+}
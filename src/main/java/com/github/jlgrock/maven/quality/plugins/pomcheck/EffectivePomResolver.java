@@ -0,0 +1,179 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out the parent chain of a pom, looking for each parent at its relative path first and then in
+ * the local repository, the same way maven does.  Every pom read goes through a {@link PomModelCache}.
+ * Nothing is downloaded: a parent or bom that is not on disk is reported as unresolved.
+ */
+public class EffectivePomResolver {
+
+    private static final String POM_FILE_NAME = "pom.xml";
+
+    private final PomModelCache cache;
+    private final File localRepository;
+    private final PomLimits limits;
+
+    /**
+     * @param cacheIn           the cache to read poms through
+     * @param localRepositoryIn the local repository, or null to only use relative paths
+     */
+    public EffectivePomResolver(final PomModelCache cacheIn, final File localRepositoryIn) {
+        this(cacheIn, localRepositoryIn, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param cacheIn           the cache to read poms through
+     * @param localRepositoryIn the local repository, or null to only use relative paths
+     * @param limitsIn          the limits of every pom read
+     */
+    public EffectivePomResolver(final PomModelCache cacheIn, final File localRepositoryIn,
+                                final PomLimits limitsIn) {
+        cache = cacheIn;
+        localRepository = localRepositoryIn;
+        limits = limitsIn;
+    }
+
+    /**
+     * @param pomFile the pom to resolve
+     * @return the pom with its parents
+     * @throws IOException  if a pom could not be read
+     * @throws SAXException if a pom could not be parsed
+     */
+    public EffectivePom resolve(final File pomFile) throws IOException, SAXException {
+        return resolve(cache.get(pomFile, limits));
+    }
+
+    /**
+     * Resolve a pom that was read without the cache, such as one that is only needed once.  Its parents
+     * are still read through the cache.
+     *
+     * @param pom the pom to resolve
+     * @return the pom with its parents
+     * @throws IOException  if a parent could not be read
+     * @throws SAXException if a parent could not be parsed
+     */
+    public EffectivePom resolve(final PomModel pom) throws IOException, SAXException {
+        List<PomModel> chain = new ArrayList<>();
+        List<ArtifactCoordinates> unresolved = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        PomModel model = pom;
+        while (model != null && seen.add(model.getFile().getCanonicalPath())) {
+            chain.add(model);
+            if (model.getParent() == null) {
+                break;
+            }
+            File parentFile = locateParent(model);
+            if (parentFile == null) {
+                unresolved.add(model.getParent());
+                model = null;
+            } else {
+                model = cache.get(parentFile, limits);
+            }
+        }
+        return new EffectivePom(chain, unresolved);
+    }
+
+    /**
+     * @param groupId    the groupId of the pom
+     * @param artifactId the artifactId of the pom
+     * @param version    the version of the pom
+     * @return the pom in the local repository, or null if it is not there
+     */
+    public File repositoryPom(final String groupId, final String artifactId, final String version) {
+        if (localRepository == null || groupId == null || artifactId == null || version == null) {
+            return null;
+        }
+        File pomFile = new File(localRepository, groupId.replace('.', File.separatorChar) + File.separator
+                + artifactId + File.separator + version + File.separator + artifactId + "-" + version + ".pom");
+        return pomFile.isFile() ? pomFile : null;
+    }
+
+    /**
+     * @param pom the pom, with its parents
+     * @return the version of each {@link #managementKey} managed by the pom, its parents and the boms they
+     *         import that are in the local repository, with the nearest declaration winning
+     * @throws IOException  if a bom could not be read
+     * @throws SAXException if a bom could not be parsed
+     */
+    public Map<String, String> managedVersions(final EffectivePom pom) throws IOException, SAXException {
+        Map<String, String> managed = new HashMap<>();
+        Deque<EffectivePom> poms = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        poms.add(pom);
+        while (!poms.isEmpty()) {
+            EffectivePom managing = poms.poll();
+            for (PomModel model : managing.getChain()) {
+                for (PomModel.Dependency dependency : model.getManagedDependencies()) {
+                    String version = managing.interpolate(dependency.getVersion());
+                    if (version != null && !"import".equals(managing.interpolate(dependency.getScope()))) {
+                        managed.putIfAbsent(managementKey(managing.interpolate(dependency.getGroupId()),
+                                managing.interpolate(dependency.getArtifactId()),
+                                managing.interpolate(dependency.getType()),
+                                managing.interpolate(dependency.getClassifier())), version);
+                    }
+                }
+            }
+            for (PomModel.Declaration bomImport : managing.getImports()) {
+                ArtifactCoordinates bom = ArtifactCoordinates.of(
+                        managing.interpolate(bomImport.getCoordinates().getGroupId()),
+                        managing.interpolate(bomImport.getCoordinates().getArtifactId()),
+                        managing.interpolate(bomImport.getValue()));
+                File bomFile = repositoryPom(bom.getGroupId(), bom.getArtifactId(), bom.getVersion());
+                if (bomFile != null && seen.add(bom.toString())) {
+                    poms.add(resolve(bomFile));
+                }
+            }
+        }
+        return managed;
+    }
+
+    /**
+     * Maven manages a dependency by its groupId, artifactId, type and classifier, so a test-jar is not
+     * managed by the version of the jar.
+     *
+     * @param groupId    the interpolated groupId
+     * @param artifactId the interpolated artifactId
+     * @param type       the interpolated type, or null for "jar"
+     * @param classifier the interpolated classifier, or null if there is none
+     * @return "groupId:artifactId:type:classifier", the key of the managed versions
+     */
+    public static String managementKey(final String groupId, final String artifactId, final String type,
+                                       final String classifier) {
+        return groupId + ':' + artifactId + ':' + (type == null ? "jar" : type) + ':'
+                + (classifier == null ? "" : classifier);
+    }
+
+    private File locateParent(final PomModel child) throws IOException, SAXException {
+        ArtifactCoordinates parent = child.getParent();
+        String relativePath = child.getParentRelativePath();
+        if (relativePath != null) {
+            File candidate = new File(child.getFile().getParentFile(), relativePath);
+            if (candidate.isDirectory()) {
+                candidate = new File(candidate, POM_FILE_NAME);
+            }
+            if (candidate.isFile() && matches(cache.get(candidate, limits), parent)) {
+                return candidate;
+            }
+        }
+        return repositoryPom(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+    }
+
+    private static boolean matches(final PomModel model, final ArtifactCoordinates coordinates) {
+        return coordinates.getGroupId().equals(model.getGroupId())
+                && coordinates.getArtifactId().equals(model.getArtifactId())
+                && coordinates.getVersion().equals(model.getVersion());
+    }
+}
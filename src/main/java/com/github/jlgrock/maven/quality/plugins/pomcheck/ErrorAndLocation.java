@@ -1,21 +1,47 @@
 package com.github.jlgrock.maven.quality.plugins.pomcheck;
 
+import java.util.Objects;
+
 /**
- *
+ * A single element in error and where it was found.  This is an immutable value, and never thrown, so
+ * a pom with thousands of errors costs no more than the errors themselves.
  */
-public class ErrorAndLocation extends Exception {
+public final class ErrorAndLocation {
+    private final ArtifactCoordinates coordinates;
     private final String output;
     private final String line;
     private final String column;
 
     public ErrorAndLocation(final String outputIn, final String lineIn, final String columnIn) {
+        coordinates = null;
         output = outputIn;
         line = lineIn;
         column = columnIn;
     }
 
+    /**
+     * Create an error for an artifact.  The coordinates are only rendered if the output is asked for.
+     *
+     * @param coordinatesIn the coordinates of the artifact in error
+     * @param lineIn        the line the error was found on
+     * @param columnIn      the column the error was found in
+     */
+    public ErrorAndLocation(final ArtifactCoordinates coordinatesIn, final String lineIn, final String columnIn) {
+        coordinates = coordinatesIn;
+        output = null;
+        line = lineIn;
+        column = columnIn;
+    }
+
+    /**
+     * @return the coordinates of the artifact in error, or null if this error is not about an artifact
+     */
+    public ArtifactCoordinates getCoordinates() {
+        return coordinates;
+    }
+
     public String getOutput() {
-        return output;
+        return output == null && coordinates != null ? coordinates.toString() : output;
     }
 
     public String getLine() {
@@ -25,4 +51,24 @@ public class ErrorAndLocation extends Exception {
     public String getColumn() {
         return column;
     }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof ErrorAndLocation)) {
+            return false;
+        }
+        ErrorAndLocation error = (ErrorAndLocation) other;
+        return Objects.equals(getOutput(), error.getOutput()) && Objects.equals(line, error.line)
+                && Objects.equals(column, error.column);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOutput(), line, column);
+    }
+
+    @Override
+    public String toString() {
+        return getOutput() + " on line " + line;
+    }
 }
@@ -0,0 +1,223 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rewrites the pom so that it passes version-check: literal versions in dependency management are moved
+ * into generated properties, and versions in the dependencies and plugins are removed.  Any configured
+ * rules on "version" elements are fixed the same way.  See {@link PomFixer} for how the pom is rewritten.
+ *
+ * A version is only removed from the dependencies and plugins when the pom, its parents or the boms they
+ * import manage it at that same version, so that the pom still builds, and with the same artifacts,
+ * afterwards; the rest are left and reported.  Dependencies are managed by their groupId, artifactId, type
+ * and classifier, as maven manages them.  Parents and
+ * boms are read from their relative path or the local repository.  With pomcheck.aggregate set, every
+ * pom in the reactor is fixed concurrently by the first project.
+ */
+@Mojo(name = "fix", threadSafe = true)
+public class FixVersionsMojo extends AbstractPomChecker {
+
+    private static final String PLUGIN = "plugin";
+    private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+
+    /**
+     * When true, what would be changed is logged, but no pom is written.
+     */
+    @Parameter(property = "pomcheck.dryRun", defaultValue = "false")
+    protected boolean dryRun;
+
+    /**
+     * The local repository, where parents and boms outside of the reactor are looked up.
+     */
+    @Parameter(defaultValue = "${settings.localRepository}", readonly = true)
+    protected File localRepository;
+
+    @Component
+    private BuildContext buildContext;
+
+    /**
+     * The Maven Project.
+     */
+    @Component
+    protected MavenProject mavenProject;
+
+    private volatile PomFixer fixer;
+
+    /**
+     * Default constructor (for when not testing).
+     */
+    public FixVersionsMojo() {
+    }
+
+    /**
+     * Constructor used for testing.
+     *
+     * @param buildContextIn the buildContext for logging and such.
+     * @param mavenProjectIn the maven mavenProject to execute on.
+     */
+    FixVersionsMojo(final BuildContext buildContextIn, final MavenProject mavenProjectIn) {
+        buildContext = buildContextIn;
+        mavenProject = mavenProjectIn;
+    }
+
+    @Override
+    protected MavenProject getMavenProject() {
+        return mavenProject;
+    }
+
+    @Override
+    protected BuildContext getBuildContext() {
+        return buildContext;
+    }
+
+    @Override
+    protected List<PomRule> getBuiltInRules() {
+        return BuiltInRules.VERSION_CHECK;
+    }
+
+    /**
+     * A fix always reads the pom as it is now.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Fix a single pom.
+     *
+     * @param pomFile the file to fix
+     * @throws MojoExecutionException if the file could not be read or written
+     */
+    @Override
+    protected void checkFile(final File pomFile) throws MojoExecutionException {
+        try {
+            report(pomFile, fix(pomFile));
+        } catch (IOException | SAXException e) {
+            throw new MojoExecutionException("Unable to fix " + pomFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fix several poms concurrently on a bounded pool.  Every pom is fixed, and the changes are logged in
+     * the order the poms were provided.
+     *
+     * @param pomFiles the files to fix
+     * @throws MojoExecutionException if any file could not be read or written, or the fix was interrupted
+     */
+    @Override
+    protected void checkFiles(final List<File> pomFiles) throws MojoExecutionException {
+        if (pomFiles.isEmpty()) {
+            return;
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(poolSize, pomFiles.size()));
+        try {
+            List<Future<PomFixer.Result>> futures = new ArrayList<>();
+            for (final File pomFile : pomFiles) {
+                futures.add(pool.submit(() -> fix(pomFile)));
+            }
+            List<String> unfixed = new ArrayList<>();
+            for (int i = 0; i < pomFiles.size(); i++) {
+                try {
+                    report(pomFiles.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    unfixed.add(pomFiles.get(i) + ": " + failureMessage(e.getCause()));
+                }
+            }
+            if (!unfixed.isEmpty()) {
+                throw new MojoExecutionException("Unable to fix " + unfixed.size() + " of " + pomFiles.size()
+                        + " pom files:\n" + String.join("\n", unfixed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while fixing pom files", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private PomFixer.Result fix(final File pomFile) throws IOException, SAXException {
+        PomFixer compiled = fixer;
+        if (compiled == null) {
+            compiled = PomFixer.compile(getRuleSet().getRules());
+            fixer = compiled;
+        }
+        return compiled.fix(pomFile, !dryRun, management(pomFile));
+    }
+
+    /**
+     * @return the dependencies and plugins managed by the pom, its parents and the boms they import
+     */
+    private PomFixer.Management management(final File pomFile) throws IOException, SAXException {
+        EffectivePomResolver resolver = new EffectivePomResolver(getModelCache(), localRepository,
+                getLimits());
+        EffectivePom pom = resolver.resolve(pomFile);
+        for (ArtifactCoordinates parent : pom.getUnresolvedParents()) {
+            getLog().warn("Unable to find the parent " + parent + " of " + pomFile
+                    + ", the versions it manages will not be removed");
+        }
+        Map<String, String> dependencies = resolver.managedVersions(pom);
+        Map<String, String> plugins = new HashMap<>();
+        for (PomModel model : pom.getChain()) {
+            for (PomModel.Dependency plugin : model.getManagedPlugins()) {
+                if (plugin.getVersion() != null) {
+                    plugins.putIfAbsent(pluginKey(pom.interpolate(plugin.getGroupId()),
+                            pom.interpolate(plugin.getArtifactId())), pom.interpolate(plugin.getVersion()));
+                }
+            }
+        }
+        return (element, groupId, artifactId, type, classifier, version) -> {
+            String managed = PLUGIN.equals(element)
+                    ? plugins.get(pluginKey(pom.interpolate(groupId), pom.interpolate(artifactId)))
+                    : dependencies.get(EffectivePomResolver.managementKey(pom.interpolate(groupId),
+                            pom.interpolate(artifactId), pom.interpolate(type), pom.interpolate(classifier)));
+            return managed != null && managed.equals(pom.interpolate(version));
+        };
+    }
+
+    /**
+     * @return "groupId:artifactId", with the groupId maven gives a plugin that has none
+     */
+    private static String pluginKey(final String groupId, final String artifactId) {
+        return (groupId == null ? DEFAULT_PLUGIN_GROUP_ID : groupId) + ':' + artifactId;
+    }
+
+    private void report(final File pomFile, final PomFixer.Result result) {
+        if (result.getSkippedReason() != null) {
+            getLog().warn("Unable to fix " + pomFile + " since " + result.getSkippedReason());
+            return;
+        }
+        if (!result.getUnmanaged().isEmpty()) {
+            getLog().warn("Unable to remove the versions of " + result.getUnmanaged() + " from " + pomFile
+                    + " since neither it, its parents nor their boms manage them at those versions");
+        }
+        if (!result.isChanged()) {
+            getLog().debug("nothing to fix in " + pomFile);
+            return;
+        }
+        if (!dryRun) {
+            getBuildContext().refresh(pomFile);
+        }
+        getLog().info((dryRun ? "Would fix " : "Fixed ") + pomFile + ": " + result.getReplaced()
+                + " versions moved into properties " + result.getAddedProperties().keySet() + ", "
+                + result.getRemoved() + " versions removed");
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the results as a plain JSON document:
+ * {@code {"files": [{"file": ..., "passed": ..., "failures": [{"description": ..., "errors": [...]}]}]}}.
+ */
+public class JsonReportWriter implements ReportWriter {
+
+    @Override
+    public String getExtension() {
+        return "json";
+    }
+
+    @Override
+    public void write(final String toolVersion, final List<PomCheckResult> results, final Writer out)
+            throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("version").value(toolVersion);
+        json.name("fileCount").value(results.size());
+        json.name("files").beginArray();
+        for (PomCheckResult result : results) {
+            json.beginObject();
+            json.name("file").value(result.getFile().getAbsolutePath());
+            json.name("passed").value(result.isPassed());
+            json.name("failures").beginArray();
+            for (RuleViolations failure : result.getFailures()) {
+                json.beginObject();
+                json.name("description").value(failure.getDescription());
+                json.name("errors").beginArray();
+                for (ErrorAndLocation error : failure.getErrors()) {
+                    json.beginObject();
+                    json.name("artifact").value(error.getOutput());
+                    json.name("line").value(error.getLine());
+                    json.name("column").value(error.getColumn());
+                    json.endObject();
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        out.flush();
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A minimal streaming JSON writer.  Values are written straight through to the underlying writer as they
+ * are given, so a report of any size is written without being built up in memory first.
+ */
+public final class JsonWriter implements Closeable {
+
+    private final Writer out;
+    private boolean[] hasValues = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * @param outIn the writer to write to, which is closed along with this one
+     */
+    public JsonWriter(final Writer outIn) {
+        out = outIn;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * @param name the name of the next member of the current object
+     * @return this writer
+     * @throws IOException if the name could not be written
+     */
+    public JsonWriter name(final String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * @param value a string, or null
+     * @return this writer
+     * @throws IOException if the value could not be written
+     */
+    public JsonWriter value(final String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(final boolean value) throws IOException {
+        separate();
+        out.write(Boolean.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(final long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(final char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        depth++;
+        if (depth == hasValues.length) {
+            hasValues = Arrays.copyOf(hasValues, depth * 2);
+        }
+        hasValues[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(final char bracket) throws IOException {
+        out.write(bracket);
+        depth--;
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValues[depth]) {
+            out.write(',');
+        }
+        hasValues[depth] = true;
+    }
+
+    private void string(final String value) throws IOException {
+        out.write('"');
+        int copied = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            switch (c) {
+                case '"':
+                    escape = "\\\"";
+                    break;
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                default:
+                    escape = c < 0x20 || c == '\u2028' || c == '\u2029' ? String.format("\\u%04x", (int) c) : null;
+                    break;
+            }
+            if (escape != null) {
+                out.write(value, copied, i - copied);
+                out.write(escape);
+                copied = i + 1;
+            }
+        }
+        out.write(value, copied, value.length() - copied);
+        out.write('"');
+    }
+}
@@ -0,0 +1,640 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * Checks a pom file by scanning its bytes directly, without decoding the document or handing it to an
+ * XML parser.  Large files are memory-mapped rather than read onto the heap, so that checking a pom
+ * with tens of thousands of managed dependencies takes no more memory than checking a small one.
+ *
+ * Only the names of elements on a path being checked are decoded, and only the text of the elements
+ * being checked (and the coordinates of their owners) is copied.  The scan relies on the pom being
+ * well formed, which maven has already established by the time a mojo runs.
+ *
+ * Anything the byte scan does not handle - an encoding other than UTF-8 or ASCII, a DOCTYPE, an entity
+ * other than the predefined ones, or a document that ends early - is handed to the
+ * {@link StreamingPomScanner} instead, which reports the same errors for the same file.  Both fail as
+ * soon as a pom breaks one of its {@link PomLimits}.
+ *
+ * @param <K> the key of the paths being checked, used to group the errors that are found
+ */
+public class MappedPomScanner<K> {
+
+    /**
+     * Files smaller than this are read onto the heap, since mapping them costs more than reading them.
+     */
+    static final long MAP_THRESHOLD = 256 * 1024;
+
+    private static final String GROUP_ID = "groupId";
+    private static final String ARTIFACT_ID = "artifactId";
+    private static final String VERSION = "version";
+
+    private final PomPathMatcher<K> matcher;
+    private final PomPrefilter prefilter;
+    private final boolean firstOnly;
+    private final PomLimits limits;
+
+    /**
+     * @param matcherIn the compiled paths to check
+     */
+    public MappedPomScanner(final PomPathMatcher<K> matcherIn) {
+        this(matcherIn, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param matcherIn the compiled paths to check
+     * @param limitsIn  the limits of the poms scanned
+     */
+    public MappedPomScanner(final PomPathMatcher<K> matcherIn, final PomLimits limitsIn) {
+        this(matcherIn, null, false, limitsIn);
+    }
+
+    /**
+     * @param matcherIn   the compiled paths to check
+     * @param prefilterIn passes poms that can't break any rule without scanning them, or null
+     * @param firstOnlyIn true to stop at the first element in error, once its owner has closed
+     * @param limitsIn    the limits of the poms scanned
+     */
+    MappedPomScanner(final PomPathMatcher<K> matcherIn, final PomPrefilter prefilterIn, final boolean firstOnlyIn,
+                     final PomLimits limitsIn) {
+        matcher = matcherIn;
+        prefilter = prefilterIn;
+        firstOnly = firstOnlyIn;
+        limits = limitsIn;
+    }
+
+    /**
+     * Scan a pom, testing the text of every element that matches one of the compiled paths.
+     *
+     * @param pomFile     the pom to scan
+     * @param isViolation tests the key and text of a matched element, returning true when it is in error
+     * @return the errors found, grouped by the key of the path that was matched, in document order
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public Map<K, List<ErrorAndLocation>> scan(final File pomFile, final BiPredicate<K, String> isViolation)
+            throws IOException, XMLStreamException {
+        return scanViolations(pomFile, StreamingPomScanner.asViolations(isViolation));
+    }
+
+    /**
+     * Scan a pom, where each matched element may break any number of rules.
+     *
+     * @param pomFile    the pom to scan
+     * @param violations given the key and text of a matched element, returns the rules it breaks
+     * @param <R>        the type of rule
+     * @return the errors found, grouped by rule, in document order
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public <R> Map<R, List<ErrorAndLocation>> scanViolations(final File pomFile,
+                                                             final BiFunction<K, String, List<R>> violations)
+            throws IOException, XMLStreamException {
+        try (FileChannel channel = FileChannel.open(pomFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= Integer.MAX_VALUE) {
+                long start = System.nanoTime();
+                ByteBuffer buffer = read(channel, (int) size);
+                PomCheckMetrics.time(PomCheckMetrics.Phase.READ, start);
+                PomCheckMetrics.bytes(size);
+                if (buffer != null && isUtf8(buffer)) {
+                    if (prefilter != null) {
+                        start = System.nanoTime();
+                        boolean mayBreak = prefilter.mayBreak(buffer);
+                        PomCheckMetrics.time(PomCheckMetrics.Phase.PRESCAN, start);
+                        if (!mayBreak) {
+                            return new HashMap<>();
+                        }
+                    }
+                    start = System.nanoTime();
+                    Scan scan = new Scan(buffer);
+                    Map<R, List<ErrorAndLocation>> errors = scan.run(violations);
+                    PomCheckMetrics.time(PomCheckMetrics.Phase.SCAN, start);
+                    if (errors != null) {
+                        PomCheckMetrics.elements(scan.elements);
+                        return errors;
+                    }
+                }
+            }
+            channel.position(0);
+            InputStream is = Channels.newInputStream(channel);
+            return new StreamingPomScanner<>(matcher, firstOnly, limits).scanViolations(is, violations);
+        }
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final int size) throws IOException {
+        if (size >= MAP_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Work out whether the document is UTF-8 (or its ASCII subset) from its byte order mark and XML
+     * declaration, skipping the byte order mark if there is one.
+     *
+     * @param buffer the document
+     * @return true if the document can be scanned as UTF-8
+     */
+    static boolean isUtf8(final ByteBuffer buffer) {
+        int limit = buffer.limit();
+        if (limit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            buffer.position(3);
+        }
+        int start = buffer.position();
+        if (limit - start >= 2 && (buffer.get(start) == 0 || buffer.get(start + 1) == 0
+                || (buffer.get(start) & 0xFF) >= 0xFE)) {
+            return false;
+        }
+        if (!startsWith(buffer, start, "<?xml")) {
+            return true;
+        }
+        int end = indexOf(buffer, start, "?>");
+        if (end < 0) {
+            return false;
+        }
+        byte[] declaration = new byte[end - start];
+        for (int i = 0; i < declaration.length; i++) {
+            declaration[i] = buffer.get(start + i);
+        }
+        String text = new String(declaration, StandardCharsets.US_ASCII);
+        int encoding = text.indexOf("encoding");
+        if (encoding < 0) {
+            return true;
+        }
+        int quote = encoding + "encoding".length();
+        while (quote < text.length() && text.charAt(quote) != '"' && text.charAt(quote) != '\'') {
+            quote++;
+        }
+        int close = quote < text.length() ? text.indexOf(text.charAt(quote), quote + 1) : -1;
+        if (close < 0) {
+            return false;
+        }
+        String name = text.substring(quote + 1, close).trim().toUpperCase(Locale.ROOT);
+        return name.equals("UTF-8") || name.equals("UTF8") || name.equals("US-ASCII") || name.equals("ASCII");
+    }
+
+    static boolean startsWith(final ByteBuffer buffer, final int at, final String prefix) {
+        if (buffer.limit() - at < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(at + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(final ByteBuffer buffer, final int from, final String target) {
+        int last = buffer.limit() - target.length();
+        for (int i = from; i <= last; i++) {
+            if (startsWith(buffer, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the code point is a character allowed in an XML 1.0 document
+     */
+    static boolean isXmlCharacter(final int codePoint) {
+        return codePoint == 0x9 || codePoint == 0xA || codePoint == 0xD
+                || (codePoint >= 0x20 && codePoint <= 0xD7FF) || (codePoint >= 0xE000 && codePoint <= 0xFFFD)
+                || (codePoint >= 0x10000 && codePoint <= Character.MAX_CODE_POINT);
+    }
+
+    private static boolean isCoordinate(final String name) {
+        return GROUP_ID.equals(name) || ARTIFACT_ID.equals(name) || VERSION.equals(name);
+    }
+
+    /**
+     * Thrown within a scan when the document uses something the byte scan does not handle.
+     */
+    private static final class Unsupported extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The state of a single scan.  This follows {@link StreamingPomScanner} step for step, so that both
+     * report the same errors.
+     */
+    private final class Scan {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+        private int line = 1;
+        private int lineStart;
+        private byte[] scratch = new byte[64];
+        private int scratchLength;
+        private int scratchChars;
+        private byte[] nameScratch = new byte[32];
+        private int elements;
+
+        Scan(final ByteBuffer bufferIn) {
+            buffer = bufferIn;
+            limit = bufferIn.limit();
+            position = bufferIn.position();
+            lineStart = position;
+        }
+
+        /**
+         * @return the errors found, or null if the document should be handed to the full parser instead
+         * @throws XMLStreamException if the document breaks one of the limits
+         */
+        <R> Map<R, List<ErrorAndLocation>> run(final BiFunction<K, String, List<R>> violations)
+                throws XMLStreamException {
+            try {
+                return scan(violations);
+            } catch (Unsupported e) {
+                return null;
+            }
+        }
+
+        private <R> Map<R, List<ErrorAndLocation>> scan(final BiFunction<K, String, List<R>> violations)
+                throws Unsupported, XMLStreamException {
+            Map<R, List<ErrorAndLocation>> errors = new HashMap<>();
+            int[] states = new int[16];
+            StreamingPomScanner.Owner<R>[] owners = StreamingPomScanner.newOwners(16);
+            states[0] = matcher.root();
+            int depth = 0;
+            boolean started = false;
+
+            int captureDepth = 0;
+            int captureLine = 0;
+            int captureColumn = 0;
+
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b != '<') {
+                    int end = textEnd();
+                    if (captureDepth != 0) {
+                        appendText(position, end);
+                    } else {
+                        countLines(position, end);
+                    }
+                    position = end;
+                    continue;
+                }
+                byte next = byteAt(position + 1);
+                if (next == '!') {
+                    if (startsWith(buffer, position, "<!--")) {
+                        skipPast("-->");
+                    } else if (startsWith(buffer, position, "<![CDATA[")) {
+                        int start = position + 9;
+                        int end = indexOf(buffer, start, "]]>");
+                        if (end < 0) {
+                            throw new Unsupported();
+                        }
+                        if (captureDepth != 0) {
+                            appendRaw(start, end);
+                        }
+                        countLines(position, end + 3);
+                        position = end + 3;
+                    } else {
+                        throw new Unsupported();
+                    }
+                } else if (next == '?') {
+                    skipPast("?>");
+                } else if (next == '/') {
+                    if (depth == 0) {
+                        throw new Unsupported();
+                    }
+                    int nameStart = position + 2;
+                    int nameEnd = nameEnd(nameStart);
+                    skipPast(">");
+                    if (depth == captureDepth) {
+                        captureDepth = 0;
+                        StreamingPomScanner.Owner<R> owner = owners[depth - 1];
+                        K key = matcher.keyOf(states[depth]);
+                        String value = new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+                        if (owner != null) {
+                            owner.setCoordinate(localName(nameStart, nameEnd), value);
+                        }
+                        if (key != null && !(firstOnly && owner.hasViolations())) {
+                            owner.addViolations(violations.apply(key, value), captureLine, captureColumn);
+                        }
+                    }
+                    if (owners[depth] != null) {
+                        owners[depth].report(errors);
+                        owners[depth] = null;
+                        if (firstOnly && !errors.isEmpty()) {
+                            return errors;
+                        }
+                    }
+                    depth--;
+                } else {
+                    if (started && depth == 0) {
+                        throw new Unsupported();
+                    }
+                    started = true;
+                    elements++;
+                    if (elements > limits.getMaxElements()) {
+                        throw exceeded(limits.elementsExceeded());
+                    }
+                    int tagStart = position;
+                    int nameStart = position + 1;
+                    int nameEnd = nameEnd(nameStart);
+                    int parentState = states[depth];
+                    boolean ownedByParent = owners[depth] != null;
+                    String name = parentState == PomPathMatcher.NO_MATCH && !ownedByParent
+                            ? null : localName(nameStart, nameEnd);
+                    int state = name == null ? PomPathMatcher.NO_MATCH : matcher.next(parentState, name);
+                    depth++;
+                    if (depth > limits.getMaxDepth()) {
+                        throw exceeded(limits.depthExceeded());
+                    }
+                    if (depth == states.length) {
+                        states = Arrays.copyOf(states, depth * 2);
+                        owners = Arrays.copyOf(owners, depth * 2);
+                    }
+                    states[depth] = state;
+                    owners[depth] = matcher.isOwner(state) ? new StreamingPomScanner.Owner<R>() : null;
+                    if (captureDepth == 0 && (matcher.keyOf(state) != null || (ownedByParent && isCoordinate(name)))) {
+                        captureDepth = depth;
+                        captureLine = line;
+                        captureColumn = columnOf(tagStart);
+                        scratchLength = 0;
+                        scratchChars = 0;
+                    }
+                    boolean empty = skipTag(nameEnd);
+                    if (empty) {
+                        if (depth == captureDepth) {
+                            captureDepth = 0;
+                            StreamingPomScanner.Owner<R> owner = owners[depth - 1];
+                            K key = matcher.keyOf(state);
+                            if (owner != null) {
+                                owner.setCoordinate(name, "");
+                            }
+                            if (key != null && !(firstOnly && owner.hasViolations())) {
+                                owner.addViolations(violations.apply(key, ""), captureLine, captureColumn);
+                            }
+                        }
+                        if (owners[depth] != null) {
+                            owners[depth].report(errors);
+                            owners[depth] = null;
+                            if (firstOnly && !errors.isEmpty()) {
+                                return errors;
+                            }
+                        }
+                        depth--;
+                    }
+                }
+            }
+            if (depth != 0 || !started) {
+                throw new Unsupported();
+            }
+            return errors;
+        }
+
+        private byte byteAt(final int index) throws Unsupported {
+            if (index >= limit) {
+                throw new Unsupported();
+            }
+            return buffer.get(index);
+        }
+
+        private int textEnd() {
+            int end = position;
+            while (end < limit && buffer.get(end) != '<') {
+                end++;
+            }
+            return end;
+        }
+
+        private void countLines(final int from, final int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) == '\n') {
+                    line++;
+                    lineStart = i + 1;
+                }
+            }
+        }
+
+        private void skipPast(final String terminator) throws Unsupported {
+            int end = indexOf(buffer, position, terminator);
+            if (end < 0) {
+                throw new Unsupported();
+            }
+            countLines(position, end + terminator.length());
+            position = end + terminator.length();
+        }
+
+        private int nameEnd(final int from) {
+            int end = from;
+            while (end < limit) {
+                byte b = buffer.get(end);
+                if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    break;
+                }
+                end++;
+            }
+            return end;
+        }
+
+        /**
+         * Skip the attributes of a start tag, leaving the position after its closing bracket.
+         *
+         * @return true if the element is empty ("&lt;name/&gt;")
+         */
+        private boolean skipTag(final int from) throws Unsupported {
+            int index = from;
+            while (true) {
+                byte b = byteAt(index);
+                if (b == '"' || b == '\'') {
+                    do {
+                        index++;
+                    } while (byteAt(index) != b);
+                } else if (b == '>') {
+                    countLines(position, index + 1);
+                    position = index + 1;
+                    return buffer.get(index - 1) == '/';
+                }
+                index++;
+            }
+        }
+
+        /**
+         * @return the name without its namespace prefix
+         */
+        private String localName(final int start, final int end) {
+            int from = start;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == ':') {
+                    from = i + 1;
+                }
+            }
+            int length = end - from;
+            if (length > nameScratch.length) {
+                nameScratch = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                nameScratch[i] = buffer.get(from + i);
+            }
+            return new String(nameScratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return the one based column of the byte, counting characters rather than bytes
+         */
+        private int columnOf(final int index) {
+            int column = 1;
+            for (int i = lineStart; i < index; i++) {
+                if ((buffer.get(i) & 0xC0) != 0x80) {
+                    column++;
+                }
+            }
+            return column;
+        }
+
+        private void appendRaw(final int from, final int to) throws XMLStreamException {
+            for (int i = from; i < to; i++) {
+                append(buffer.get(i));
+            }
+        }
+
+        /**
+         * Append text to the captured value, replacing the predefined entities and character references.
+         */
+        private void appendText(final int from, final int to) throws Unsupported, XMLStreamException {
+            countLines(from, to);
+            int i = from;
+            while (i < to) {
+                byte b = buffer.get(i);
+                if (b == '\r') {
+                    // line endings are normalised to a single line feed, as a parser would
+                    if (i + 1 >= to || buffer.get(i + 1) != '\n') {
+                        append((byte) '\n');
+                    }
+                    i++;
+                } else if (b != '&') {
+                    append(b);
+                    i++;
+                } else {
+                    int semicolon = i + 1;
+                    while (semicolon < to && buffer.get(semicolon) != ';') {
+                        semicolon++;
+                    }
+                    if (semicolon >= to) {
+                        throw new Unsupported();
+                    }
+                    appendEntity(i + 1, semicolon);
+                    i = semicolon + 1;
+                }
+            }
+        }
+
+        private void appendEntity(final int from, final int to) throws Unsupported, XMLStreamException {
+            byte[] entity = new byte[to - from];
+            for (int i = 0; i < entity.length; i++) {
+                entity[i] = buffer.get(from + i);
+            }
+            String name = new String(entity, StandardCharsets.US_ASCII);
+            int codePoint;
+            switch (name) {
+                case "lt":
+                    codePoint = '<';
+                    break;
+                case "gt":
+                    codePoint = '>';
+                    break;
+                case "amp":
+                    codePoint = '&';
+                    break;
+                case "quot":
+                    codePoint = '"';
+                    break;
+                case "apos":
+                    codePoint = '\'';
+                    break;
+                default:
+                    codePoint = characterReference(name);
+                    break;
+            }
+            for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+                append(b);
+            }
+        }
+
+        /**
+         * @return the code point of a character reference such as "#60" or "#x3C", which must be a character
+         *         allowed in XML
+         */
+        private int characterReference(final String name) throws Unsupported {
+            int radix = name.startsWith("#x") ? 16 : 10;
+            int start = radix == 16 ? 2 : 1;
+            if (!name.startsWith("#") || name.length() == start) {
+                throw new Unsupported();
+            }
+            int codePoint = 0;
+            for (int i = start; i < name.length(); i++) {
+                int digit = Character.digit(name.charAt(i), radix);
+                if (digit < 0) {
+                    throw new Unsupported();
+                }
+                codePoint = codePoint * radix + digit;
+                if (codePoint > Character.MAX_CODE_POINT) {
+                    throw new Unsupported();
+                }
+            }
+            if (!isXmlCharacter(codePoint)) {
+                throw new Unsupported();
+            }
+            return codePoint;
+        }
+
+        /**
+         * @return the failure of a document breaking a limit, at the current position
+         */
+        private XMLStreamException exceeded(final String message) {
+            return new XMLStreamException("ParseError at [row,col]:[" + line + "," + columnOf(position) + "]\n"
+                    + "Message: " + message);
+        }
+
+        /**
+         * Append a byte of UTF-8 to the captured value.  The text limit is in characters, as the parser
+         * counts them, so each byte starting a character counts one, or two for a character beyond the
+         * basic multilingual plane, which takes a surrogate pair.
+         */
+        private void append(final byte b) throws XMLStreamException {
+            if ((b & 0xC0) != 0x80) {
+                scratchChars += (b & 0xF8) == 0xF0 ? 2 : 1;
+                if (scratchChars > limits.getMaxTextLength()) {
+                    throw exceeded(limits.textLengthExceeded());
+                }
+            }
+            if (scratchLength == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratchLength * 2);
+            }
+            scratch[scratchLength++] = b;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks every pom.xml under one or more directories without running maven, with the same rules as the
+ * version-check and release-check goals.  Directories are walked and poms checked in parallel on a
+ * fork/join pool, each pom in a single pass with every rule.  Build output ("target") and hidden
+ * directories are not descended into, and symbolic links are not followed.
+ *
+ * <pre>
+ * java -cp ... com.github.jlgrock.maven.quality.plugins.pomcheck.PomCheckCli [options] path...
+ *   --goal version-check|release-check|all  the rules to check, all by default
+ *   --threads n                            the number of poms to check at once, the number of processors by default
+ *   --format text|json|sarif               the report to write, text by default
+ *   --output file                          the file to write the report to, standard out by default
+ *   --collect-all                          report every rule broken by each pom, not only the first
+ *   --fail-fast                            stop checking each pom at its first error
+ * </pre>
+ *
+ * The exit status is 0 when every pom passes, 1 when any pom fails, 2 when the arguments are wrong and
+ * 3 when the report could not be written.
+ * The release-check goal's effective mode needs a maven project, so only the rules it checks in the pom
+ * itself are used here.
+ */
+public final class PomCheckCli {
+
+    static final int PASSED = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+    static final int REPORT_FAILED = 3;
+
+    private static final String POM_FILE_NAME = "pom.xml";
+    private static final String BUILD_DIRECTORY_NAME = "target";
+
+    private PomCheckCli() {
+    }
+
+    public static void main(final String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @param args the command line
+     * @param out  where the report is written when there is no output file
+     * @param err  where usage and progress are written
+     * @return the exit status
+     */
+    static int run(final String[] args, final PrintStream out, final PrintStream err) {
+        String goal = "all";
+        int threads = 0;
+        String format = "text";
+        String output = null;
+        boolean collectAll = false;
+        boolean failFast = false;
+        List<Path> roots = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--goal":
+                        goal = argument(args, ++i);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(argument(args, ++i));
+                        break;
+                    case "--format":
+                        format = argument(args, ++i);
+                        break;
+                    case "--output":
+                        output = argument(args, ++i);
+                        break;
+                    case "--collect-all":
+                        collectAll = true;
+                        break;
+                    case "--fail-fast":
+                        failFast = true;
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        roots.add(Paths.get(args[i]));
+                }
+            }
+            if (roots.isEmpty()) {
+                throw new IllegalArgumentException("No paths to check");
+            }
+            RuleSet ruleSet = RuleSet.compile(rulesFor(goal));
+            ReportWriter reportWriter = "text".equals(format) ? null : ReportWriter.forFormat(format);
+
+            long start = System.nanoTime();
+            List<PomCheckResult> results = scan(roots, ruleSet, threads, collectAll, failFast);
+            err.println("Checked " + results.size() + " pom files in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+
+            if (output == null) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeReport(reportWriter, results, writer);
+                writer.flush();
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                    writeReport(reportWriter, results, writer);
+                }
+            }
+            for (PomCheckResult result : results) {
+                if (!result.isPassed()) {
+                    return FAILED;
+                }
+            }
+            return PASSED;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println("usage: PomCheckCli [--goal version-check|release-check|all] [--threads n]"
+                    + " [--format text|json|sarif] [--output file] [--collect-all] [--fail-fast] path...");
+            return USAGE;
+        } catch (IOException e) {
+            err.println("Unable to write the report: " + e.getMessage());
+            return REPORT_FAILED;
+        }
+    }
+
+    /**
+     * Check every pom under the given paths.  A path may also be a pom itself, whatever its name.
+     *
+     * @param roots      the directories to walk
+     * @param ruleSet    the rules to check
+     * @param threads    the number of poms to check at once, or 0 for the number of processors
+     * @param collectAll true to keep every rule broken by each pom, false to keep only the first
+     * @param failFast   true to stop checking each pom at its first error
+     * @return the result of every pom found, ordered by path
+     */
+    public static List<PomCheckResult> scan(final Collection<Path> roots, final RuleSet ruleSet, final int threads,
+                                            final boolean collectAll, final boolean failFast) {
+        ConcurrentLinkedQueue<PomCheckResult> results = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        try {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            for (Path root : roots) {
+                if (Files.isDirectory(root)) {
+                    tasks.add(new DirectoryTask(root, ruleSet, collectAll, failFast, results));
+                } else {
+                    results.add(check(root, ruleSet, collectAll, failFast));
+                }
+            }
+            for (RecursiveAction task : tasks) {
+                pool.execute(task);
+            }
+            for (RecursiveAction task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        List<PomCheckResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing(PomCheckResult::getFile));
+        return sorted;
+    }
+
+    /**
+     * @param goal "version-check", "release-check" or "all"
+     * @return the built in rules of the goal, or of both goals
+     */
+    static List<PomRule> rulesFor(final String goal) {
+        switch (goal) {
+            case "version-check":
+                return BuiltInRules.VERSION_CHECK;
+            case "release-check":
+                return BuiltInRules.RELEASE_CHECK;
+            case "all":
+                List<PomRule> rules = new ArrayList<>(BuiltInRules.VERSION_CHECK);
+                rules.addAll(BuiltInRules.RELEASE_CHECK);
+                return rules;
+            default:
+                throw new IllegalArgumentException("Unknown goal \"" + goal + "\", expected version-check,"
+                        + " release-check or all");
+        }
+    }
+
+    private static String argument(final String[] args, final int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static PomCheckResult check(final Path pomFile, final RuleSet ruleSet, final boolean collectAll,
+                                        final boolean failFast) {
+        File file = pomFile.toFile();
+        List<RuleViolations> failures;
+        try {
+            failures = failFast ? ruleSet.checkFirst(file) : ruleSet.checkAll(file);
+            if (!collectAll && failures.size() > 1) {
+                failures = failures.subList(0, 1);
+            }
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            failures = Collections.singletonList(RuleViolations.processingFailure(file, e.getMessage()));
+        }
+        return new PomCheckResult(file, failures);
+    }
+
+    private static void writeReport(final ReportWriter reportWriter, final List<PomCheckResult> results,
+                                    final Writer writer) throws IOException {
+        if (reportWriter != null) {
+            reportWriter.write(PomCheckCli.class.getPackage().getImplementationVersion(), results, writer);
+            return;
+        }
+        ViolationReport report = new ViolationReport();
+        for (PomCheckResult result : results) {
+            report.add(result);
+        }
+        if (report.isPassed()) {
+            writer.write("All " + results.size() + " pom files passed\n");
+        } else {
+            writer.write(report.getMessage());
+        }
+    }
+
+    /**
+     * Checks the pom in a directory while its subdirectories are walked by further tasks.
+     */
+    private static final class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final RuleSet ruleSet;
+        private final boolean collectAll;
+        private final boolean failFast;
+        private final Collection<PomCheckResult> results;
+
+        DirectoryTask(final Path directoryIn, final RuleSet ruleSetIn, final boolean collectAllIn,
+                      final boolean failFastIn, final Collection<PomCheckResult> resultsIn) {
+            directory = directoryIn;
+            ruleSet = ruleSetIn;
+            collectAll = collectAllIn;
+            failFast = failFastIn;
+            results = resultsIn;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            Path pomFile = null;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        if (!name.startsWith(".") && !BUILD_DIRECTORY_NAME.equals(name)) {
+                            DirectoryTask subdirectory = new DirectoryTask(entry, ruleSet, collectAll, failFast, results);
+                            subdirectory.fork();
+                            subdirectories.add(subdirectory);
+                        }
+                    } else if (attributes.isRegularFile() && POM_FILE_NAME.equals(name)) {
+                        pomFile = entry;
+                    }
+                }
+            } catch (IOException e) {
+                // an unreadable directory is skipped, as maven would not be able to build it either
+            }
+            if (pomFile != null) {
+                results.add(check(pomFile, ruleSet, collectAll, failFast));
+            }
+            for (DirectoryTask subdirectory : subdirectories) {
+                subdirectory.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Where the time of a check goes: per pom and per phase timings, the elements scanned, the bytes read
+ * and an estimate of the memory allocated, collected when {@code pomcheck.metrics} is set.
+ *
+ * The pom being checked is held per thread between {@link #begin(File)} and {@link #end(Pom)}, so the
+ * scanners and parsers record against it with the static methods without any of it being passed down
+ * to them.  Outside of a check, or when metrics are not collected, those methods do nothing.
+ * Allocation is measured with the JVM's per thread allocation counter where there is one, and is
+ * reported as -1 where there is not.
+ */
+public final class PomCheckMetrics {
+
+    /**
+     * The phases of a check that are timed.
+     */
+    public enum Phase {
+        /** looking up and storing results in the result cache, including hashing the pom */
+        CACHE,
+        /** reading or mapping the pom into memory */
+        READ,
+        /** the pass over the raw bytes of the pom that passes it without scanning when it can */
+        PRESCAN,
+        /** the single pass over the pom that checks every rule */
+        SCAN,
+        /** reading a pom, or one of its parents or boms, into a {@link PomModel} */
+        PARSE,
+        /** resolving and checking the effective pom */
+        EFFECTIVE,
+        /** writing the json and sarif reports */
+        REPORT;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final ThreadLocal<Pom> CURRENT = new ThreadLocal<>();
+
+    private static final ConcurrentMap<String, PomCheckMetrics> REACTOR = new ConcurrentHashMap<>();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+    private final LongAdder[] phaseNanos = adders();
+    private final LongAdder[] phaseCounts = adders();
+    private final ConcurrentLinkedQueue<Pom> poms = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param goal the goal being measured
+     * @param reset true to start again, at the start of a build
+     * @return the metrics of every execution of the goal in the reactor
+     */
+    static PomCheckMetrics reactor(final String goal, final boolean reset) {
+        if (reset) {
+            REACTOR.put(goal, new PomCheckMetrics());
+        }
+        return REACTOR.computeIfAbsent(goal, name -> new PomCheckMetrics());
+    }
+
+    /**
+     * Start measuring a pom on the current thread.
+     *
+     * @param pomFile the pom about to be checked
+     * @return the measurements of the pom, to pass to {@link #end(Pom)}
+     */
+    public Pom begin(final File pomFile) {
+        Pom pom = new Pom(pomFile);
+        CURRENT.set(pom);
+        return pom;
+    }
+
+    /**
+     * Finish measuring a pom, adding it to the totals.
+     *
+     * @param pom the measurements from {@link #begin(File)}
+     */
+    public void end(final Pom pom) {
+        CURRENT.remove();
+        pom.nanos = System.nanoTime() - pom.startNanos;
+        long allocated = allocatedBytes();
+        pom.allocatedBytes = allocated < 0 || pom.startAllocated < 0 ? -1 : allocated - pom.startAllocated;
+        for (Phase phase : Phase.values()) {
+            if (pom.phaseCounts[phase.ordinal()] > 0) {
+                phaseNanos[phase.ordinal()].add(pom.phaseNanos[phase.ordinal()]);
+                phaseCounts[phase.ordinal()].add(pom.phaseCounts[phase.ordinal()]);
+            }
+        }
+        poms.add(pom);
+    }
+
+    /**
+     * Record a phase that is not part of checking any one pom, such as writing the reports.
+     *
+     * @param phase      the phase
+     * @param startNanos the {@link System#nanoTime()} the phase started at
+     */
+    public void record(final Phase phase, final long startNanos) {
+        phaseNanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+        phaseCounts[phase.ordinal()].increment();
+    }
+
+    /**
+     * Add everything measured by another execution to this one.
+     *
+     * @param other the measurements to add
+     */
+    public void addAll(final PomCheckMetrics other) {
+        for (Phase phase : Phase.values()) {
+            phaseNanos[phase.ordinal()].add(other.phaseNanos[phase.ordinal()].sum());
+            phaseCounts[phase.ordinal()].add(other.phaseCounts[phase.ordinal()].sum());
+        }
+        poms.addAll(other.poms);
+    }
+
+    /**
+     * Record a phase of the pom being checked on this thread, if there is one.
+     *
+     * @param phase      the phase
+     * @param startNanos the {@link System#nanoTime()} the phase started at
+     */
+    public static void time(final Phase phase, final long startNanos) {
+        Pom pom = CURRENT.get();
+        if (pom != null) {
+            pom.phaseNanos[phase.ordinal()] += System.nanoTime() - startNanos;
+            pom.phaseCounts[phase.ordinal()]++;
+        }
+    }
+
+    /**
+     * @param count the number of elements scanned in the pom being checked on this thread
+     */
+    public static void elements(final int count) {
+        Pom pom = CURRENT.get();
+        if (pom != null) {
+            pom.elements += count;
+        }
+    }
+
+    /**
+     * @param count the number of bytes read for the pom being checked on this thread
+     */
+    public static void bytes(final long count) {
+        Pom pom = CURRENT.get();
+        if (pom != null) {
+            pom.bytes += count;
+        }
+    }
+
+    /**
+     * @return every pom measured, in the order they finished
+     */
+    public List<Pom> getPoms() {
+        return new ArrayList<>(poms);
+    }
+
+    /**
+     * @param phase the phase
+     * @return the total time spent in the phase
+     */
+    public long getNanos(final Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * Stream the measurements as JSON: the totals, then each phase, then each pom.
+     *
+     * @param goal the goal that was measured
+     * @param out  the writer to stream to
+     * @throws IOException if the metrics could not be written
+     */
+    public void write(final String goal, final Writer out) throws IOException {
+        List<Pom> measured = getPoms();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("goal").value(goal);
+        json.name("pomCount").value(measured.size());
+        json.name("nanos").value(total(measured, Pom::getNanos));
+        json.name("bytes").value(total(measured, Pom::getBytes));
+        json.name("elements").value(total(measured, Pom::getElements));
+        json.name("allocatedBytes").value(total(measured, Pom::getAllocatedBytes));
+        json.name("phases").beginObject();
+        for (Phase phase : Phase.values()) {
+            json.name(phase.key()).beginObject();
+            json.name("count").value(phaseCounts[phase.ordinal()].sum());
+            json.name("nanos").value(phaseNanos[phase.ordinal()].sum());
+            json.endObject();
+        }
+        json.endObject();
+        json.name("poms").beginArray();
+        for (Pom pom : measured) {
+            json.beginObject();
+            json.name("file").value(pom.file.getAbsolutePath());
+            json.name("nanos").value(pom.nanos);
+            json.name("bytes").value(pom.bytes);
+            json.name("elements").value(pom.elements);
+            json.name("allocatedBytes").value(pom.allocatedBytes);
+            json.name("phases").beginObject();
+            for (Phase phase : Phase.values()) {
+                if (pom.phaseCounts[phase.ordinal()] > 0) {
+                    json.name(phase.key()).value(pom.phaseNanos[phase.ordinal()]);
+                }
+            }
+            json.endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        out.flush();
+    }
+
+    /**
+     * @return a one line summary for the build log
+     */
+    public String summary() {
+        List<Pom> measured = getPoms();
+        StringBuilder summary = new StringBuilder();
+        summary.append(measured.size()).append(" poms checked in ").append(millis(total(measured, Pom::getNanos)))
+                .append(" ms, ").append(total(measured, Pom::getBytes) / 1024).append(" KB read, ")
+                .append(total(measured, Pom::getElements)).append(" elements scanned");
+        long allocated = total(measured, Pom::getAllocatedBytes);
+        if (allocated >= 0) {
+            summary.append(", ~").append(allocated / 1024).append(" KB allocated");
+        }
+        for (Phase phase : Phase.values()) {
+            if (phaseCounts[phase.ordinal()].sum() > 0) {
+                summary.append("; ").append(phase.key()).append(' ')
+                        .append(millis(phaseNanos[phase.ordinal()].sum())).append(" ms");
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return the sum of a measurement over every pom, or -1 if any pom could not be measured
+     */
+    private static long total(final List<Pom> measured, final ToLongFunction<Pom> measurement) {
+        long total = 0;
+        for (Pom pom : measured) {
+            long value = measurement.applyAsLong(pom);
+            if (value < 0) {
+                return -1;
+            }
+            total += value;
+        }
+        return total;
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Phase.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot based JVM, allocation is not measured
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The measurements of a single pom.  Only the thread checking the pom updates them.
+     */
+    public static final class Pom {
+        private final File file;
+        private final long startNanos = System.nanoTime();
+        private final long startAllocated = allocatedBytes();
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private final int[] phaseCounts = new int[Phase.values().length];
+        private long nanos;
+        private long bytes;
+        private long elements;
+        private long allocatedBytes;
+
+        Pom(final File fileIn) {
+            file = fileIn;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @param phase the phase
+         * @return the time spent in the phase for this pom
+         */
+        public long getNanos(final Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        /**
+         * @return the bytes allocated by the thread while checking the pom, or -1 if the JVM can't tell
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of checking a single pom: the errors of every rule it breaks, in rule order.
+ */
+public final class PomCheckResult {
+
+    private final File file;
+    private final List<RuleViolations> failures;
+
+    /**
+     * @param fileIn     the pom that was checked
+     * @param failuresIn the errors of each rule broken, which are empty if the pom passed
+     */
+    public PomCheckResult(final File fileIn, final List<RuleViolations> failuresIn) {
+        file = fileIn;
+        failures = Collections.unmodifiableList(failuresIn);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public List<RuleViolations> getFailures() {
+        return failures;
+    }
+
+    public boolean isPassed() {
+        return failures.isEmpty();
+    }
+}
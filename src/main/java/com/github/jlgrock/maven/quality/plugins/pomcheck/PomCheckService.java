@@ -0,0 +1,169 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The checker core, kept for the life of the plugin's class loader.  Under the maven daemon (mvnd) or
+ * in the IDE (m2e) the class loader outlives a single build, so the compiled rules and the results of
+ * every pom checked carry over from one build to the next, along with the parsers held by
+ * {@link XmlParsers} and the code the JIT has already compiled.  Re-checking after editing one pom
+ * only parses that pom.
+ *
+ * A result is reused while the pom's modification time and size are unchanged.  A pom modified within
+ * {@link #MODIFICATION_RESOLUTION} of being checked is always checked again, since a second edit in
+ * that window might not change either.
+ */
+public final class PomCheckService {
+
+    /**
+     * The coarsest modification time resolution of the file systems a pom might be on.
+     */
+    static final long MODIFICATION_RESOLUTION = 2000;
+
+    private static final int MAX_RULE_SETS = 32;
+    private static final int MAX_RESULTS_PER_RULE_SET = 20000;
+
+    private static final PomCheckService INSTANCE = new PomCheckService();
+
+    private final ConcurrentMap<String, Compiled> compiled = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PomCheckService() {
+    }
+
+    /**
+     * @return the service shared by every mojo execution in this class loader
+     */
+    public static PomCheckService instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param rules the rules to check, in the order they are reported
+     * @return the compiled rules, reused when an equivalent set of rules has been compiled before
+     */
+    public RuleSet ruleSet(final List<? extends PomRule> rules) {
+        return ruleSet(rules, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param rules  the rules to check, in the order they are reported
+     * @param limits the limits to scan poms within
+     * @return the compiled rules, reused when an equivalent set of rules has been compiled before with
+     *         the same limits
+     */
+    public RuleSet ruleSet(final List<? extends PomRule> rules, final PomLimits limits) {
+        Compiled existing = compiled.get(RuleSet.describe(rules, limits));
+        return existing != null ? existing.ruleSet
+                : compiledFor(RuleSet.compile(rules).withLimits(limits)).ruleSet;
+    }
+
+    /**
+     * Check a pom, reusing the result of the last check if the pom has not changed since.
+     *
+     * @param pomFile the pom to check
+     * @param ruleSet the rules to check, from {@link #ruleSet(List, PomLimits)}
+     * @return the errors of each rule broken, or an empty list if the pom passes
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed
+     */
+    public List<RuleViolations> check(final File pomFile, final RuleSet ruleSet)
+            throws IOException, XMLStreamException {
+        List<RuleViolations> cached = peek(pomFile, ruleSet);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        long checkedAt = System.currentTimeMillis();
+        long lastModified = pomFile.lastModified();
+        long length = pomFile.length();
+        List<RuleViolations> failures = ruleSet.checkAll(pomFile);
+        ConcurrentMap<String, Result> results = compiledFor(ruleSet).results;
+        if (results.size() >= MAX_RESULTS_PER_RULE_SET) {
+            results.clear();
+        }
+        results.put(pomFile.getAbsolutePath(), new Result(lastModified, length, checkedAt, failures));
+        return failures;
+    }
+
+    /**
+     * @param pomFile the pom to look up
+     * @param ruleSet the rules it was checked with
+     * @return the result of the last check, or null if the pom has changed or has not been checked
+     */
+    public List<RuleViolations> peek(final File pomFile, final RuleSet ruleSet) {
+        Result result = compiledFor(ruleSet).results.get(pomFile.getAbsolutePath());
+        if (result == null || result.lastModified != pomFile.lastModified() || result.length != pomFile.length()
+                || result.checkedAt - result.lastModified < MODIFICATION_RESOLUTION) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return result.failures;
+    }
+
+    /**
+     * @return the number of checks answered without reading the pom
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of checks that read the pom
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Forget every compiled rule set and result.
+     */
+    public void clear() {
+        compiled.clear();
+    }
+
+    private Compiled compiledFor(final RuleSet ruleSet) {
+        String key = ruleSet.describe();
+        Compiled existing = compiled.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (compiled.size() >= MAX_RULE_SETS) {
+            compiled.clear();
+        }
+        Compiled created = new Compiled(ruleSet);
+        existing = compiled.putIfAbsent(key, created);
+        return existing == null ? created : existing;
+    }
+
+    private static final class Compiled {
+        private final RuleSet ruleSet;
+        private final ConcurrentMap<String, Result> results = new ConcurrentHashMap<>();
+
+        Compiled(final RuleSet ruleSetIn) {
+            ruleSet = ruleSetIn;
+        }
+    }
+
+    private static final class Result {
+        private final long lastModified;
+        private final long length;
+        private final long checkedAt;
+        private final List<RuleViolations> failures;
+
+        Result(final long lastModifiedIn, final long lengthIn, final long checkedAtIn,
+               final List<RuleViolations> failuresIn) {
+            lastModified = lastModifiedIn;
+            length = lengthIn;
+            checkedAt = checkedAtIn;
+            failures = failuresIn;
+        }
+    }
+}
@@ -0,0 +1,742 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites the versions of a pom that break the version rules, in a single pass over its bytes.  A
+ * literal version where a property is required, as in dependency management, is replaced by a
+ * reference to a generated "artifactId.version" property, which is added to the properties of the
+ * project.  A version where none is allowed at all, as in the dependencies and plugins, is removed,
+ * along with its line when it is alone on it, but only when the {@link Management} of the pom manages
+ * that dependency or plugin at that same version; otherwise removing it would break the build or change
+ * what it builds with, so it is left and reported.
+ *
+ * Only the edited spans change: every other byte of the pom, including its formatting, comments and
+ * line endings, is copied as it is.  The edits are found in one pass and the new pom is assembled in a
+ * single array of the exact size, so the cost is linear in the size of the pom however many edits there
+ * are.  A version holding an entity, a CDATA section or a comment is left alone, as is any pom that is
+ * not UTF-8 or has a DOCTYPE.
+ */
+public final class PomFixer {
+
+    private static final String VERSION = "version";
+    private static final String GROUP_ID = "groupId";
+    private static final String ARTIFACT_ID = "artifactId";
+    private static final String TYPE = "type";
+    private static final String CLASSIFIER = "classifier";
+    private static final String PROJECT = "project";
+    private static final String PROPERTIES = "properties";
+    private static final String VERSION_SUFFIX = ".version";
+    private static final String PROPERTY_PLACEHOLDER = "${version}";
+    private static final String DEFAULT_INDENT = "    ";
+
+    private final PomPathMatcher<PomRule[]> matcher;
+
+    private PomFixer(final PomPathMatcher<PomRule[]> matcherIn) {
+        matcher = matcherIn;
+    }
+
+    /**
+     * @param rules the rules to fix the pom for.  Only rules on "version" elements can be fixed, and the
+     *              rest are ignored.
+     * @return the fixer
+     */
+    public static PomFixer compile(final List<? extends PomRule> rules) {
+        Map<String, List<PomRule>> byPath = new LinkedHashMap<>();
+        for (PomRule rule : rules) {
+            if (rule.getPath().endsWith("/" + VERSION)) {
+                byPath.computeIfAbsent(rule.getPath(), path -> new ArrayList<>()).add(rule);
+            }
+        }
+        Map<String, PomRule[]> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, List<PomRule>> entry : byPath.entrySet()) {
+            paths.put(entry.getKey(), entry.getValue().toArray(new PomRule[0]));
+        }
+        return new PomFixer(PomPathMatcher.compile(paths, RuleSet::merge));
+    }
+
+    /**
+     * Fix a pom file, rewriting it if anything changed.  The new pom is written to a temporary file beside
+     * it and moved over it, so an interrupted build never leaves a pom half written.
+     *
+     * @param pomFile    the pom to fix
+     * @param write      false to only work out what would change
+     * @param management the dependencies and plugins whose versions may be removed
+     * @return what was changed
+     * @throws IOException if the pom could not be read or written
+     */
+    public Result fix(final File pomFile, final boolean write, final Management management) throws IOException {
+        byte[] pom = Files.readAllBytes(pomFile.toPath());
+        PomCheckMetrics.bytes(pom.length);
+        Result result = fix(pom, management);
+        if (write && result.isChanged()) {
+            replace(pomFile.toPath().toRealPath(), result.getContent());
+        }
+        return result;
+    }
+
+    private static void replace(final Path target, final byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            PosixFileAttributeView permissions = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            if (permissions != null) {
+                Files.setPosixFilePermissions(temporary, permissions.readAttributes().permissions());
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param pom        the contents of a pom
+     * @param management the dependencies and plugins whose versions may be removed
+     * @return what was changed, with the new contents
+     */
+    public Result fix(final byte[] pom, final Management management) {
+        ByteBuffer buffer = ByteBuffer.wrap(pom);
+        if (!MappedPomScanner.isUtf8(buffer)) {
+            return new Result("it is not UTF-8");
+        }
+        Pass pass = new Pass(pom, buffer.position(), management);
+        try {
+            pass.run();
+        } catch (Unsupported e) {
+            return new Result("it can't be read without a full XML parser");
+        }
+        return pass.result();
+    }
+
+    /**
+     * Which dependencies and plugins have their version managed, by the pom itself, its parents or the
+     * boms they import, so that the version they declare can be removed.
+     */
+    public interface Management {
+
+        /**
+         * @param element    the element declaring the version, "dependency" or "plugin"
+         * @param groupId    the groupId as written, or null if there is none
+         * @param artifactId the artifactId as written
+         * @param type       the type as written, or null if there is none
+         * @param classifier the classifier as written, or null if there is none
+         * @param version    the version as written
+         * @return true if the version is managed, and is the version declared
+         */
+        boolean isManaged(String element, String groupId, String artifactId, String type, String classifier,
+                          String version);
+    }
+
+    /**
+     * What a fix changed.
+     */
+    public static final class Result {
+        private final byte[] content;
+        private final int replaced;
+        private final int removed;
+        private final Map<String, String> addedProperties;
+        private final List<String> unmanaged;
+        private final String skippedReason;
+
+        Result(final byte[] contentIn, final int replacedIn, final int removedIn,
+               final Map<String, String> addedPropertiesIn, final List<String> unmanagedIn) {
+            content = contentIn;
+            replaced = replacedIn;
+            removed = removedIn;
+            addedProperties = Collections.unmodifiableMap(addedPropertiesIn);
+            unmanaged = Collections.unmodifiableList(unmanagedIn);
+            skippedReason = null;
+        }
+
+        Result(final String skippedReasonIn) {
+            content = null;
+            replaced = 0;
+            removed = 0;
+            addedProperties = Collections.emptyMap();
+            unmanaged = Collections.emptyList();
+            skippedReason = skippedReasonIn;
+        }
+
+        /**
+         * @return true if the pom was rewritten
+         */
+        public boolean isChanged() {
+            return content != null;
+        }
+
+        /**
+         * @return the new contents, or null if nothing changed
+         */
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * @return the number of literal versions replaced by properties
+         */
+        public int getReplaced() {
+            return replaced;
+        }
+
+        /**
+         * @return the number of versions removed
+         */
+        public int getRemoved() {
+            return removed;
+        }
+
+        /**
+         * @return the properties added to the pom, with their values, in the order they were added
+         */
+        public Map<String, String> getAddedProperties() {
+            return addedProperties;
+        }
+
+        /**
+         * @return the "groupId:artifactId:version", with any type and classifier before the version, of each
+         *         dependency or plugin whose version was left, although no version is allowed, since nothing
+         *         manages it at that version
+         */
+        public List<String> getUnmanaged() {
+            return unmanaged;
+        }
+
+        /**
+         * @return why the pom could not be fixed at all, or null if it could
+         */
+        public String getSkippedReason() {
+            return skippedReason;
+        }
+    }
+
+    /**
+     * Thrown within a pass when the document uses something the byte scan does not handle.
+     */
+    private static final class Unsupported extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A dependency or plugin, holding its coordinates until it closes.
+     */
+    private static final class Owner {
+        private final String element;
+        private String groupId;
+        private String artifactId;
+        private String type;
+        private String classifier;
+
+        Owner(final String elementIn) {
+            element = elementIn;
+        }
+
+        @Override
+        public String toString() {
+            return (groupId == null ? artifactId : groupId + ":" + artifactId) + (type == null ? "" : ":" + type)
+                    + (classifier == null ? "" : ":" + classifier);
+        }
+    }
+
+    /**
+     * A span of the pom to replace.  The replacement of a version is only known once the whole pom has
+     * been read, since the name of its property depends on the coordinates and the existing properties.
+     */
+    private static final class Edit {
+        private final int start;
+        private final int end;
+        private byte[] replacement;
+        private boolean removal;
+        private Owner owner;
+        private String value;
+        private PomRule[] rules;
+        private int sectionStart;
+
+        Edit(final int startIn, final int endIn, final byte[] replacementIn) {
+            start = startIn;
+            end = endIn;
+            replacement = replacementIn;
+        }
+    }
+
+    /**
+     * The state of fixing a single pom.
+     */
+    private final class Pass {
+        private final byte[] pom;
+        private final ByteBuffer buffer;
+        private final int limit;
+        private final Management management;
+        private int position;
+
+        private final List<Edit> edits = new ArrayList<>();
+        private final Map<String, String> properties = new LinkedHashMap<>();
+        private int propertiesStart = -1;
+        private int propertiesEnd = -1;
+        private boolean propertiesEmpty;
+        private int lastPropertyStart = -1;
+        private int firstSectionStart = -1;
+        private int sectionStart = -1;
+
+        Pass(final byte[] pomIn, final int start, final Management managementIn) {
+            pom = pomIn;
+            buffer = ByteBuffer.wrap(pomIn);
+            limit = pomIn.length;
+            management = managementIn;
+            position = start;
+        }
+
+        void run() throws Unsupported {
+            int[] states = new int[16];
+            int[] starts = new int[16];
+            int[] contentStarts = new int[16];
+            String[] names = new String[16];
+            Owner[] owners = new Owner[16];
+            states[0] = matcher.root();
+            int depth = 0;
+
+            while (position < limit) {
+                if (pom[position] != '<') {
+                    position++;
+                    continue;
+                }
+                byte next = byteAt(position + 1);
+                if (next == '!') {
+                    if (startsWith(position, "<!--")) {
+                        skipPast("-->");
+                    } else if (startsWith(position, "<![CDATA[")) {
+                        skipPast("]]>");
+                    } else {
+                        throw new Unsupported();
+                    }
+                } else if (next == '?') {
+                    skipPast("?>");
+                } else if (next == '/') {
+                    if (depth == 0) {
+                        throw new Unsupported();
+                    }
+                    int endTagStart = position;
+                    skipPast(">");
+                    close(names[depth], states[depth], starts[depth], contentStarts[depth], endTagStart,
+                            owners[depth - 1], depth, names);
+                    owners[depth] = null;
+                    depth--;
+                } else {
+                    int tagStart = position;
+                    String name = localName(position + 1);
+                    boolean empty = skipTag();
+                    depth++;
+                    if (depth == states.length) {
+                        states = Arrays.copyOf(states, depth * 2);
+                        starts = Arrays.copyOf(starts, depth * 2);
+                        contentStarts = Arrays.copyOf(contentStarts, depth * 2);
+                        names = Arrays.copyOf(names, depth * 2);
+                        owners = Arrays.copyOf(owners, depth * 2);
+                    }
+                    states[depth] = matcher.next(states[depth - 1], name);
+                    starts[depth] = tagStart;
+                    contentStarts[depth] = position;
+                    names[depth] = name;
+                    owners[depth] = matcher.isOwner(states[depth]) ? new Owner(name) : null;
+                    open(name, depth, tagStart, names, empty);
+                    if (empty) {
+                        close(name, states[depth], tagStart, position, position, owners[depth - 1], depth, names);
+                        owners[depth] = null;
+                        depth--;
+                    }
+                }
+            }
+            if (depth != 0) {
+                throw new Unsupported();
+            }
+        }
+
+        private void open(final String name, final int depth, final int tagStart, final String[] names,
+                          final boolean empty) {
+            if (depth == 2 && PROJECT.equals(names[1]) && PROPERTIES.equals(name)) {
+                propertiesStart = tagStart;
+                propertiesEmpty = empty;
+                if (empty) {
+                    propertiesEnd = position;
+                }
+            } else if (depth == 3 && PROJECT.equals(names[1]) && PROPERTIES.equals(names[2])) {
+                lastPropertyStart = tagStart;
+            }
+            if (depth == 2) {
+                sectionStart = tagStart;
+                if (firstSectionStart < 0) {
+                    firstSectionStart = tagStart;
+                }
+            }
+        }
+
+        private void close(final String name, final int state, final int tagStart, final int contentStart,
+                           final int endTagStart, final Owner owner, final int depth, final String[] names) {
+            if (depth == 2 && PROJECT.equals(names[1]) && PROPERTIES.equals(name) && !propertiesEmpty) {
+                propertiesEnd = endTagStart;
+            } else if (depth == 3 && PROJECT.equals(names[1]) && PROPERTIES.equals(names[2])) {
+                String text = plainText(contentStart, endTagStart);
+                properties.put(name, text == null ? "" : text.trim());
+            }
+            if (owner != null) {
+                if (owner.groupId == null && GROUP_ID.equals(name)) {
+                    owner.groupId = plainText(contentStart, endTagStart);
+                } else if (owner.artifactId == null && ARTIFACT_ID.equals(name)) {
+                    owner.artifactId = plainText(contentStart, endTagStart);
+                } else if (owner.type == null && TYPE.equals(name)) {
+                    owner.type = plainText(contentStart, endTagStart);
+                } else if (owner.classifier == null && CLASSIFIER.equals(name)) {
+                    owner.classifier = plainText(contentStart, endTagStart);
+                }
+            }
+            PomRule[] rules = matcher.keyOf(state);
+            if (rules == null) {
+                return;
+            }
+            String value = plainText(contentStart, endTagStart);
+            if (value == null || !violates(rules, value)) {
+                return;
+            }
+            if (violates(rules, PROPERTY_PLACEHOLDER)) {
+                // no version is allowed here at all, so it is removed if it is managed, which is only known
+                // once the owner has closed
+                Edit edit = removal(tagStart, position);
+                edit.removal = true;
+                edit.owner = owner;
+                edit.value = value.trim();
+                edits.add(edit);
+            } else if (isLiteral(value.trim())) {
+                Edit edit = new Edit(contentStart, endTagStart, null);
+                edit.owner = owner;
+                edit.value = value.trim();
+                edit.rules = rules;
+                edit.sectionStart = sectionStart;
+                edits.add(edit);
+            }
+        }
+
+        /**
+         * Name the property of every replaced version, add the new properties and assemble the pom.
+         */
+        Result result() {
+            Map<String, String> added = new LinkedHashMap<>();
+            List<String> unmanaged = new ArrayList<>();
+            int replaced = 0;
+            int removed = 0;
+            int section = -1;
+            for (Edit edit : edits) {
+                if (edit.removal) {
+                    Owner owner = edit.owner;
+                    if (owner != null && owner.artifactId != null && management.isManaged(owner.element,
+                            owner.groupId, owner.artifactId, owner.type, owner.classifier, edit.value)) {
+                        edit.replacement = new byte[0];
+                        removed++;
+                    } else if (owner != null) {
+                        unmanaged.add(owner + ":" + edit.value);
+                    }
+                    continue;
+                }
+                String property = propertyName(edit, added);
+                if (property == null) {
+                    continue;
+                }
+                edit.replacement = ("${" + property + "}").getBytes(StandardCharsets.UTF_8);
+                replaced++;
+                if (section < 0) {
+                    section = edit.sectionStart;
+                }
+            }
+            List<Edit> applied = new ArrayList<>(edits.size() + 1);
+            for (Edit edit : edits) {
+                if (edit.replacement != null) {
+                    applied.add(edit);
+                }
+            }
+            if (applied.isEmpty()) {
+                return new Result(null, 0, 0, added, unmanaged);
+            }
+            if (!added.isEmpty()) {
+                applied.add(propertiesInsertion(added, section));
+                applied.sort((a, b) -> Integer.compare(a.start, b.start));
+            }
+            return new Result(assemble(applied), replaced, removed, added, unmanaged);
+        }
+
+        /**
+         * @return "artifactId.version", or "groupId.artifactId.version" if that is already taken by another
+         *         value, reusing an existing property of the same value; or null if no name will do
+         */
+        private String propertyName(final Edit edit, final Map<String, String> added) {
+            if (edit.owner == null || edit.owner.artifactId == null) {
+                return null;
+            }
+            List<String> candidates = new ArrayList<>();
+            candidates.add(sanitize(edit.owner.artifactId) + VERSION_SUFFIX);
+            if (edit.owner.groupId != null) {
+                candidates.add(sanitize(edit.owner.groupId) + "." + sanitize(edit.owner.artifactId) + VERSION_SUFFIX);
+            }
+            for (String candidate : candidates) {
+                if (!Character.isLetter(candidate.charAt(0)) || violates(edit.rules, "${" + candidate + "}")) {
+                    continue;
+                }
+                String existing = properties.containsKey(candidate) ? properties.get(candidate) : added.get(candidate);
+                if (existing == null) {
+                    added.put(candidate, edit.value);
+                    return candidate;
+                }
+                if (existing.equals(edit.value)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the insertion of the new properties, at the end of the existing properties or as a new
+         *         properties section before the first section with a replaced version
+         */
+        private Edit propertiesInsertion(final Map<String, String> added, final int section) {
+            String newline = newline();
+            StringBuilder insertion = new StringBuilder();
+            if (propertiesStart >= 0 && !propertiesEmpty) {
+                int lineStart = lineStart(propertiesEnd);
+                if (lineStart < 0) {
+                    appendProperties(insertion, added, "", "");
+                    return new Edit(propertiesEnd, propertiesEnd, bytes(insertion.toString()));
+                }
+                String indent = lastPropertyStart >= 0 && lineStart(lastPropertyStart) >= 0
+                        ? indentOf(lastPropertyStart) : indentOf(propertiesEnd) + unit();
+                appendProperties(insertion, added, indent, newline);
+                return new Edit(lineStart, lineStart, bytes(insertion.toString()));
+            }
+            int at = propertiesStart >= 0 ? propertiesStart : section;
+            int lineStart = lineStart(at);
+            if (lineStart < 0) {
+                insertion.append('<').append(PROPERTIES).append('>');
+                appendProperties(insertion, added, "", "");
+                insertion.append("</").append(PROPERTIES).append('>');
+            } else {
+                String indent = indentOf(at);
+                insertion.append('<').append(PROPERTIES).append('>').append(newline);
+                appendProperties(insertion, added, indent + unit(), newline);
+                insertion.append(indent).append("</").append(PROPERTIES).append('>');
+            }
+            if (propertiesStart >= 0) {
+                // an empty "<properties/>" is replaced as a whole
+                return new Edit(propertiesStart, propertiesEnd, bytes(insertion.toString()));
+            }
+            if (lineStart >= 0) {
+                // a new section on its own lines, followed by a blank line and the indent of the next section
+                insertion.append(newline).append(newline).append(indentOf(at));
+            }
+            return new Edit(at, at, bytes(insertion.toString()));
+        }
+
+        private void appendProperties(final StringBuilder insertion, final Map<String, String> added,
+                                      final String indent, final String newline) {
+            for (Map.Entry<String, String> property : added.entrySet()) {
+                insertion.append(indent).append('<').append(property.getKey()).append('>').append(property.getValue())
+                        .append("</").append(property.getKey()).append('>').append(newline);
+            }
+        }
+
+        private byte[] assemble(final List<Edit> applied) {
+            int size = limit;
+            for (Edit edit : applied) {
+                size += edit.replacement.length - (edit.end - edit.start);
+            }
+            byte[] content = new byte[size];
+            int copied = 0;
+            int written = 0;
+            for (Edit edit : applied) {
+                System.arraycopy(pom, copied, content, written, edit.start - copied);
+                written += edit.start - copied;
+                System.arraycopy(edit.replacement, 0, content, written, edit.replacement.length);
+                written += edit.replacement.length;
+                copied = edit.end;
+            }
+            System.arraycopy(pom, copied, content, written, limit - copied);
+            return content;
+        }
+
+        /**
+         * @return the removal of an element, and of its whole line when nothing else is on it
+         */
+        private Edit removal(final int start, final int end) {
+            int lineStart = lineStart(start);
+            int lineEnd = end;
+            while (lineEnd < limit && (pom[lineEnd] == ' ' || pom[lineEnd] == '\t' || pom[lineEnd] == '\r')) {
+                lineEnd++;
+            }
+            if (lineStart >= 0 && lineEnd < limit && pom[lineEnd] == '\n') {
+                return new Edit(lineStart, lineEnd + 1, null);
+            }
+            return new Edit(start, end, null);
+        }
+
+        /**
+         * @return the start of the line holding the index, or -1 if anything but whitespace precedes it
+         */
+        private int lineStart(final int index) {
+            int i = index;
+            while (i > 0 && (pom[i - 1] == ' ' || pom[i - 1] == '\t')) {
+                i--;
+            }
+            return i == 0 || pom[i - 1] == '\n' ? i : -1;
+        }
+
+        private String indentOf(final int index) {
+            int lineStart = lineStart(index);
+            return new String(pom, lineStart, index - lineStart, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return the indent of one level, taken from the first section of the project
+         */
+        private String unit() {
+            if (firstSectionStart >= 0 && lineStart(firstSectionStart) >= 0
+                    && lineStart(firstSectionStart) < firstSectionStart) {
+                return indentOf(firstSectionStart);
+            }
+            return DEFAULT_INDENT;
+        }
+
+        /**
+         * @return the line ending of the pom, taken from its first line
+         */
+        private String newline() {
+            for (int i = 0; i < limit; i++) {
+                if (pom[i] == '\n') {
+                    return i > 0 && pom[i - 1] == '\r' ? "\r\n" : "\n";
+                }
+            }
+            return "\n";
+        }
+
+        /**
+         * @return the text between two indexes, or null if it holds anything but characters
+         */
+        private String plainText(final int from, final int to) {
+            for (int i = from; i < to; i++) {
+                if (pom[i] == '<' || pom[i] == '&') {
+                    return null;
+                }
+            }
+            return new String(pom, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        private byte byteAt(final int index) throws Unsupported {
+            if (index >= limit) {
+                throw new Unsupported();
+            }
+            return pom[index];
+        }
+
+        private boolean startsWith(final int at, final String prefix) {
+            return MappedPomScanner.startsWith(buffer, at, prefix);
+        }
+
+        private void skipPast(final String terminator) throws Unsupported {
+            int end = MappedPomScanner.indexOf(buffer, position, terminator);
+            if (end < 0) {
+                throw new Unsupported();
+            }
+            position = end + terminator.length();
+        }
+
+        /**
+         * @return the local name of the tag starting at the index
+         */
+        private String localName(final int from) {
+            int start = from;
+            int end = from;
+            while (end < limit && pom[end] != '>' && pom[end] != '/' && pom[end] != ' ' && pom[end] != '\t'
+                    && pom[end] != '\r' && pom[end] != '\n') {
+                if (pom[end] == ':') {
+                    start = end + 1;
+                }
+                end++;
+            }
+            return new String(pom, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Skip a start tag and its attributes, leaving the position after its closing bracket.
+         *
+         * @return true if the element is empty ("&lt;name/&gt;")
+         */
+        private boolean skipTag() throws Unsupported {
+            int index = position + 1;
+            while (true) {
+                byte b = byteAt(index);
+                if (b == '"' || b == '\'') {
+                    do {
+                        index++;
+                    } while (byteAt(index) != b);
+                } else if (b == '>') {
+                    position = index + 1;
+                    return pom[index - 1] == '/';
+                }
+                index++;
+            }
+        }
+    }
+
+    private static boolean violates(final PomRule[] rules, final String value) {
+        for (PomRule rule : rules) {
+            if (rule.isViolation(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the value is a plain version, with no property references to move
+     */
+    private static boolean isLiteral(final String value) {
+        int classification = VersionClassifier.classify(value);
+        return !value.isEmpty() && VersionKind.LITERAL.isIn(classification)
+                && !VersionKind.REFERENCE.isIn(classification);
+    }
+
+    /**
+     * @return the name with anything but letters, digits, '.' and '-' replaced by '-', so that a
+     *         reference to it is a property version
+     */
+    private static String sanitize(final String name) {
+        StringBuilder sanitized = new StringBuilder(name.trim());
+        for (int i = 0; i < sanitized.length(); i++) {
+            char c = sanitized.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '-') {
+                sanitized.setCharAt(i, '-');
+            }
+        }
+        return sanitized.length() == 0 ? "-" : sanitized.toString();
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
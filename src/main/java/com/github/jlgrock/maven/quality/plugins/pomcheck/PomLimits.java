@@ -0,0 +1,87 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+/**
+ * Hard limits on the shape of a pom, so that a malformed or malicious one - a huge text node, an
+ * expanding entity or deeply nested elements - fails its check with a clear message instead of exhausting
+ * the memory of the build.  Every parser and scanner checks the limits as it goes, so no more than a
+ * bounded amount of any pom is ever held, however large the file.
+ */
+public final class PomLimits {
+
+    /**
+     * Far beyond any real pom, while keeping the memory a single pom can take to tens of megabytes.
+     */
+    public static final PomLimits DEFAULT = new PomLimits(256, 1024 * 1024, 2000000, 10000);
+
+    private final int maxDepth;
+    private final int maxTextLength;
+    private final int maxElements;
+    private final int maxEntityExpansions;
+
+    /**
+     * @param maxDepthIn            the deepest elements may be nested
+     * @param maxTextLengthIn       the most characters of text a single element may hold
+     * @param maxElementsIn         the most elements a pom may have
+     * @param maxEntityExpansionsIn the most entity references a pom may expand
+     */
+    public PomLimits(final int maxDepthIn, final int maxTextLengthIn, final int maxElementsIn,
+                     final int maxEntityExpansionsIn) {
+        if (maxDepthIn <= 0 || maxTextLengthIn <= 0 || maxElementsIn <= 0 || maxEntityExpansionsIn <= 0) {
+            throw new IllegalArgumentException("Limits must be positive: " + maxDepthIn + ", " + maxTextLengthIn
+                    + ", " + maxElementsIn + ", " + maxEntityExpansionsIn);
+        }
+        maxDepth = maxDepthIn;
+        maxTextLength = maxTextLengthIn;
+        maxElements = maxElementsIn;
+        maxEntityExpansions = maxEntityExpansionsIn;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    public int getMaxEntityExpansions() {
+        return maxEntityExpansions;
+    }
+
+    String depthExceeded() {
+        return "The pom nests elements more than " + maxDepth + " deep (pomcheck.maxDepth)";
+    }
+
+    String textLengthExceeded() {
+        return "The pom has an element with more than " + maxTextLength + " characters of text (pomcheck.maxTextLength)";
+    }
+
+    String elementsExceeded() {
+        return "The pom has more than " + maxElements + " elements (pomcheck.maxElements)";
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof PomLimits)) {
+            return false;
+        }
+        PomLimits limits = (PomLimits) other;
+        return maxDepth == limits.maxDepth && maxTextLength == limits.maxTextLength && maxElements == limits.maxElements
+                && maxEntityExpansions == limits.maxEntityExpansions;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((maxDepth * 31 + maxTextLength) * 31 + maxElements) * 31 + maxEntityExpansions;
+    }
+
+    @Override
+    public String toString() {
+        return "maxDepth=" + maxDepth + ", maxTextLength=" + maxTextLength + ", maxElements=" + maxElements
+                + ", maxEntityExpansions=" + maxEntityExpansions;
+    }
+}
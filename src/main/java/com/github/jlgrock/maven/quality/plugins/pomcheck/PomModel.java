@@ -0,0 +1,384 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a single pom needed to work out its effective versions: its coordinates, its parent,
+ * its properties, and every version it declares for a dependency or plugin.  Nothing is inherited or
+ * interpolated here; see {@link EffectivePomResolver} for that.  Which profiles are active is not known
+ * outside of a build, so the versions of every profile are read along with the project's, and the
+ * dependencies of every profile are kept apart from the project's, in {@link #getProfileDependencies()}.
+ * What a profile manages is not taken to be managed, since it may not be active.
+ */
+public final class PomModel {
+
+    private static final String DEFAULT_RELATIVE_PATH = "../pom.xml";
+
+    private static final PomPathMatcher<Boolean> PROPERTIES = PomPathMatcher.compile(
+            Collections.singletonMap("/project/properties/*", Boolean.TRUE));
+
+    private static final PomPathMatcher<Boolean> ARTIFACTS;
+
+    static {
+        Map<String, Boolean> paths = new LinkedHashMap<>();
+        for (String prefix : new String[] {"/project", "/project/profiles/profile"}) {
+            paths.put(prefix + "/dependencyManagement/dependencies/dependency", Boolean.TRUE);
+            paths.put(prefix + "/dependencies/dependency", Boolean.TRUE);
+            paths.put(prefix + "/build/pluginManagement/plugins/plugin", Boolean.TRUE);
+            paths.put(prefix + "/build/plugins/plugin", Boolean.TRUE);
+            paths.put(prefix + "/build/pluginManagement/plugins/plugin/dependencies/dependency", Boolean.TRUE);
+            paths.put(prefix + "/build/plugins/plugin/dependencies/dependency", Boolean.TRUE);
+            paths.put(prefix + "/reporting/plugins/plugin", Boolean.TRUE);
+        }
+        // profiles can't declare extensions
+        paths.put("/project/build/extensions/extension", Boolean.TRUE);
+        ARTIFACTS = PomPathMatcher.compile(paths);
+    }
+
+    private final File file;
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final ArtifactCoordinates parent;
+    private final String parentRelativePath;
+    private final Map<String, Declaration> properties;
+    private final List<Declaration> versions;
+    private final List<Declaration> imports;
+    private final List<Dependency> dependencies;
+    private final List<Dependency> profileDependencies;
+    private final List<Dependency> managedDependencies;
+    private final List<Dependency> managedPlugins;
+
+    private PomModel(final File fileIn, final PomTree tree) {
+        file = fileIn;
+        int parentElement = tree.child(0, "parent");
+        if (parentElement == PomTree.NONE) {
+            parent = null;
+            parentRelativePath = null;
+        } else {
+            parent = ArtifactCoordinates.of(childText(tree, parentElement, "groupId"),
+                    childText(tree, parentElement, "artifactId"), childText(tree, parentElement, "version"));
+            String relativePath = childText(tree, parentElement, "relativePath");
+            if (relativePath == null && tree.child(parentElement, "relativePath") == PomTree.NONE) {
+                relativePath = DEFAULT_RELATIVE_PATH;
+            }
+            parentRelativePath = relativePath;
+        }
+        String ownGroupId = childText(tree, 0, "groupId");
+        String ownVersion = childText(tree, 0, "version");
+        groupId = ownGroupId != null || parent == null ? ownGroupId : parent.getGroupId();
+        artifactId = childText(tree, 0, "artifactId");
+        version = ownVersion != null || parent == null ? ownVersion : parent.getVersion();
+
+        Map<String, Declaration> propertiesIn = new LinkedHashMap<>();
+        for (int element : tree.select(PROPERTIES)) {
+            propertiesIn.put(tree.name(element), new Declaration(tree.name(element),
+                    tree.text(element) == null ? "" : tree.text(element), tree.line(element), null, fileIn));
+        }
+        properties = Collections.unmodifiableMap(propertiesIn);
+
+        List<Declaration> versionsIn = new ArrayList<>();
+        List<Declaration> importsIn = new ArrayList<>();
+        List<Dependency> dependenciesIn = new ArrayList<>();
+        List<Dependency> profileDependenciesIn = new ArrayList<>();
+        List<Dependency> managedDependenciesIn = new ArrayList<>();
+        List<Dependency> managedPluginsIn = new ArrayList<>();
+        for (int element : tree.select(ARTIFACTS)) {
+            String section = tree.name(tree.parent(tree.parent(element)));
+            boolean profile = inProfile(tree, element);
+            if ("project".equals(section) || "profile".equals(section)
+                    || (!profile && ("dependencyManagement".equals(section) || "pluginManagement".equals(section)))) {
+                Dependency dependency = new Dependency(childText(tree, element, "groupId"),
+                        childText(tree, element, "artifactId"), childText(tree, element, "version"),
+                        childText(tree, element, "type"), childText(tree, element, "classifier"),
+                        childText(tree, element, "scope"),
+                        childText(tree, element, "optional"), tree.line(element), fileIn);
+                ("project".equals(section) ? dependenciesIn : "profile".equals(section) ? profileDependenciesIn
+                        : "dependencyManagement".equals(section) ? managedDependenciesIn : managedPluginsIn)
+                        .add(dependency);
+            }
+            int versionElement = tree.child(element, "version");
+            if (versionElement == PomTree.NONE || tree.text(versionElement) == null) {
+                continue;
+            }
+            ArtifactCoordinates coordinates = ArtifactCoordinates.of(childText(tree, element, "groupId"),
+                    childText(tree, element, "artifactId"), tree.text(versionElement));
+            Declaration declaration = new Declaration(tree.name(element), tree.text(versionElement),
+                    tree.line(versionElement), coordinates, fileIn);
+            versionsIn.add(declaration);
+            if (!profile && "import".equals(childText(tree, element, "scope"))
+                    && "pom".equals(childText(tree, element, "type"))) {
+                importsIn.add(declaration);
+            }
+        }
+        versions = Collections.unmodifiableList(versionsIn);
+        imports = Collections.unmodifiableList(importsIn);
+        dependencies = Collections.unmodifiableList(dependenciesIn);
+        profileDependencies = Collections.unmodifiableList(profileDependenciesIn);
+        managedDependencies = Collections.unmodifiableList(managedDependenciesIn);
+        managedPlugins = Collections.unmodifiableList(managedPluginsIn);
+    }
+
+    /**
+     * @param pomFile the pom to read
+     * @return the model of the pom
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed
+     */
+    public static PomModel read(final File pomFile) throws IOException, SAXException {
+        return read(pomFile, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param pomFile the pom to read
+     * @param limits  the limits of the pom
+     * @return the model of the pom
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed, or breaks one of the limits
+     */
+    public static PomModel read(final File pomFile, final PomLimits limits) throws IOException, SAXException {
+        return new PomModel(pomFile, PomTree.read(pomFile, limits));
+    }
+
+    /**
+     * @return true when the element is declared in a profile rather than in the project itself
+     */
+    private static boolean inProfile(final PomTree tree, final int element) {
+        for (int ancestor = tree.parent(element); ancestor > 0; ancestor = tree.parent(ancestor)) {
+            if ("profile".equals(tree.name(ancestor))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String childText(final PomTree tree, final int element, final String name) {
+        int child = tree.child(element, name);
+        return child == PomTree.NONE ? null : tree.text(child);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the groupId, inherited from the parent declaration if the pom does not declare one
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * @return the version, inherited from the parent declaration if the pom does not declare one
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the coordinates of the parent, or null if there is no parent
+     */
+    public ArtifactCoordinates getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the relative path to look for the parent in, or null if it should only be looked up
+     *         in the repository
+     */
+    public String getParentRelativePath() {
+        return parentRelativePath == null || parentRelativePath.isEmpty() ? null : parentRelativePath;
+    }
+
+    /**
+     * @return the properties declared directly in this pom, in document order
+     */
+    public Map<String, Declaration> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return every dependency and plugin version declared in this pom, including managed ones
+     */
+    public List<Declaration> getVersions() {
+        return versions;
+    }
+
+    /**
+     * @return the boms imported into the dependency management of this pom, outside of its profiles
+     */
+    public List<Declaration> getImports() {
+        return imports;
+    }
+
+    /**
+     * @return the dependencies declared in this pom, with or without a version
+     */
+    public List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return the dependencies declared in the profiles of this pom, which are only added to the project's
+     *         when the profile is active
+     */
+    public List<Dependency> getProfileDependencies() {
+        return profileDependencies;
+    }
+
+    /**
+     * @return the dependencies managed in this pom, outside of its profiles, including imported boms
+     */
+    public List<Dependency> getManagedDependencies() {
+        return managedDependencies;
+    }
+
+    /**
+     * @return the plugins managed in this pom, outside of its profiles, which have no type, classifier,
+     *         scope or optional flag
+     */
+    public List<Dependency> getManagedPlugins() {
+        return managedPlugins;
+    }
+
+    /**
+     * A value declared in a pom: either a property, or the version of a dependency or plugin.
+     */
+    public static final class Declaration {
+        private final String name;
+        private final String value;
+        private final int line;
+        private final ArtifactCoordinates coordinates;
+        private final File file;
+
+        Declaration(final String nameIn, final String valueIn, final int lineIn,
+                    final ArtifactCoordinates coordinatesIn, final File fileIn) {
+            name = nameIn;
+            value = valueIn;
+            line = lineIn;
+            coordinates = coordinatesIn;
+            file = fileIn;
+        }
+
+        /**
+         * @return the property name, or the element name ("dependency" or "plugin") of a version
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the value as written, before interpolation
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the coordinates of the dependency or plugin, or null for a property
+         */
+        public ArtifactCoordinates getCoordinates() {
+            return coordinates;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+
+    /**
+     * A dependency as written in a pom, before interpolation or management.
+     */
+    public static final class Dependency {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String type;
+        private final String classifier;
+        private final String scope;
+        private final String optional;
+        private final int line;
+        private final File file;
+
+        Dependency(final String groupIdIn, final String artifactIdIn, final String versionIn, final String typeIn,
+                   final String classifierIn, final String scopeIn, final String optionalIn, final int lineIn,
+                   final File fileIn) {
+            groupId = groupIdIn;
+            artifactId = artifactIdIn;
+            version = versionIn;
+            type = typeIn;
+            classifier = classifierIn;
+            scope = scopeIn;
+            optional = optionalIn;
+            line = lineIn;
+            file = fileIn;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        /**
+         * @return the version, or null if it is managed
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the type, or null for the default "jar"
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the classifier, or null if there is none
+         */
+        public String getClassifier() {
+            return classifier;
+        }
+
+        /**
+         * @return the scope, or null for the default "compile"
+         */
+        public String getScope() {
+            return scope;
+        }
+
+        /**
+         * @return the optional flag, or null if it was not declared
+         */
+        public String getOptional() {
+            return optional;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+}
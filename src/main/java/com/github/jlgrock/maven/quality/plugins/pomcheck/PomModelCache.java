@@ -0,0 +1,148 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsed {@link PomModel}s shared by every mojo execution in the build, so that a pom is only parsed once
+ * however many goals read it, and the parent and boms shared by hundreds of sibling modules are only
+ * parsed once.  An entry is reused only while the file's modification time and size are unchanged, so a
+ * long-lived build process never sees a stale model, and only by reads within the same {@link PomLimits},
+ * so a pom read within generous limits is not handed to a goal whose limits it breaks.  As with
+ * {@link PomCheckService}, a pom read within {@link PomCheckService#MODIFICATION_RESOLUTION} of being
+ * modified is always read again, since a second edit in that window might not change either.
+ *
+ * The cache is bounded by the total size of the pom files it holds, which the size of their models
+ * follows.  Once it is full, the poms used least recently are dropped, so a huge reactor keeps its shared
+ * parents without pinning a model for every module.  Goals configured with the same size share a cache,
+ * and a goal configured with another size gets its own, rather than shrinking the cache under the goals
+ * already using it.
+ */
+public final class PomModelCache {
+
+    /**
+     * Enough for every pom of all but the very largest reactors.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final ConcurrentMap<Long, PomModelCache> SHARED = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long bytes;
+
+    PomModelCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytesIn the most bytes of pom files to hold the models of
+     */
+    PomModelCache(final long maxBytesIn) {
+        maxBytes = maxBytesIn;
+    }
+
+    /**
+     * @param maxBytes the most bytes of pom files to hold the models of
+     * @return the cache of that size shared by the whole build
+     */
+    public static PomModelCache shared(final long maxBytes) {
+        return SHARED.computeIfAbsent(maxBytes, PomModelCache::new);
+    }
+
+    /**
+     * @param pomFile the pom to read
+     * @return the model of the pom, parsed at most once while the file is unchanged
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed
+     */
+    public PomModel get(final File pomFile) throws IOException, SAXException {
+        return get(pomFile, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param pomFile the pom to read
+     * @param limits  the limits of the pom, if it has to be parsed
+     * @return the model of the pom, parsed at most once while the file is unchanged
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed, or breaks one of the limits
+     */
+    public PomModel get(final File pomFile, final PomLimits limits) throws IOException, SAXException {
+        File canonicalFile = pomFile.getCanonicalFile();
+        String key = canonicalFile.getPath() + '\n' + limits;
+        long lastModified = canonicalFile.lastModified();
+        long length = canonicalFile.length();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length
+                    && entry.readAt - entry.lastModified >= PomCheckService.MODIFICATION_RESOLUTION) {
+                return entry.model;
+            }
+        }
+        // parsed outside of the lock, so that poms are parsed concurrently; a pom parsed by two threads at
+        // once is simply held by whichever finishes last
+        long readAt = System.currentTimeMillis();
+        PomModel model = PomModel.read(canonicalFile, limits);
+        put(key, new Entry(model, lastModified, length, readAt));
+        return model;
+    }
+
+    /**
+     * @return the most bytes of pom files held
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of poms held
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the pom files held
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    private synchronized void put(final String key, final Entry entry) {
+        Entry replaced = entries.put(key, entry);
+        if (replaced != null) {
+            bytes -= replaced.length;
+        }
+        bytes += entry.length;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final PomModel model;
+        private final long lastModified;
+        private final long length;
+        private final long readAt;
+
+        Entry(final PomModel modelIn, final long lastModifiedIn, final long lengthIn, final long readAtIn) {
+            model = modelIn;
+            lastModified = lastModifiedIn;
+            length = lengthIn;
+            readAt = readAtIn;
+        }
+    }
+}
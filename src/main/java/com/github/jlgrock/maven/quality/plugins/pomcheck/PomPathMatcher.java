@@ -0,0 +1,236 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+
+/**
+ * A compiled set of absolute element paths (e.g. "/project/dependencies/dependency/version"), stored as
+ * a trie of states so that a streaming parser can track where it is in the document with a single
+ * lookup per element.  A path segment of "*" matches any element name.  Where a level has both an exact
+ * name and the wildcard, an element of that name follows both: the paths below the wildcard are merged
+ * into those below the name when the paths are compiled, so one path never hides another.
+ *
+ * Instances are immutable once compiled and can be shared between threads.
+ *
+ * @param <K> the key reported when a path is fully matched
+ */
+public final class PomPathMatcher<K> {
+
+    /**
+     * The state returned once an element can no longer lead to any of the compiled paths.
+     */
+    public static final int NO_MATCH = -1;
+
+    private static final String WILDCARD = "*";
+
+    private final Map<String, Integer>[] transitions;
+    private final int[] wildcards;
+    private final Object[] keys;
+    private final boolean[] owners;
+
+    @SuppressWarnings("unchecked")
+    private PomPathMatcher(final List<Map<String, Integer>> transitionsIn, final List<Integer> wildcardsIn,
+                           final List<K> keysIn) {
+        int size = transitionsIn.size();
+        transitions = transitionsIn.toArray(new Map[size]);
+        wildcards = new int[size];
+        keys = keysIn.toArray();
+        owners = new boolean[size];
+        for (int state = 0; state < size; state++) {
+            wildcards[state] = wildcardsIn.get(state);
+            for (int child : transitions[state].values()) {
+                owners[state] |= keys[child] != null;
+            }
+            if (wildcards[state] != NO_MATCH) {
+                owners[state] |= keys[wildcards[state]] != null;
+            }
+        }
+    }
+
+    /**
+     * Compile a set of paths into a matcher.  Where an element matches more than one path, the key of
+     * the path given first is reported.
+     *
+     * @param paths the absolute paths, mapped to the key that should be reported when they are matched
+     * @param <K>   the type of key
+     * @return the compiled matcher
+     */
+    public static <K> PomPathMatcher<K> compile(final Map<String, K> paths) {
+        return compile(paths, (first, second) -> first);
+    }
+
+    /**
+     * Compile a set of paths into a matcher.
+     *
+     * @param paths the absolute paths, mapped to the key that should be reported when they are matched
+     * @param merge combines the keys of the paths an element matches, in the order the paths were given
+     * @param <K>   the type of key
+     * @return the compiled matcher
+     */
+    public static <K> PomPathMatcher<K> compile(final Map<String, K> paths, final BinaryOperator<K> merge) {
+        List<Map<String, Integer>> transitions = new ArrayList<>();
+        List<Integer> wildcards = new ArrayList<>();
+        List<K> keys = new ArrayList<>();
+        newState(transitions, wildcards, keys);
+        // the trie state each path ends in, in the order the paths were given
+        List<Integer> ends = new ArrayList<>();
+        for (Map.Entry<String, K> entry : paths.entrySet()) {
+            int state = 0;
+            for (String segment : entry.getKey().split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (WILDCARD.equals(segment)) {
+                    if (wildcards.get(state) == NO_MATCH) {
+                        wildcards.set(state, newState(transitions, wildcards, keys));
+                    }
+                    state = wildcards.get(state);
+                } else {
+                    Integer next = transitions.get(state).get(segment);
+                    if (next == null) {
+                        next = newState(transitions, wildcards, keys);
+                        transitions.get(state).put(segment, next);
+                    }
+                    state = next;
+                }
+            }
+            if (state == 0) {
+                throw new IllegalArgumentException("Path must contain at least one element: " + entry.getKey());
+            }
+            if (keys.get(state) == null) {
+                keys.set(state, entry.getValue());
+                ends.add(state);
+            } else {
+                // the same path, written another way
+                keys.set(state, merge.apply(keys.get(state), entry.getValue()));
+            }
+        }
+        return determinize(transitions, wildcards, keys, ends, merge);
+    }
+
+    /**
+     * Turn the trie of paths into one where each element moves to a single state, by making every state
+     * stand for the set of trie states an element could be in: those below its name, and those below the
+     * wildcard.
+     */
+    private static <K> PomPathMatcher<K> determinize(final List<Map<String, Integer>> trieTransitions,
+                                                     final List<Integer> trieWildcards, final List<K> trieKeys,
+                                                     final List<Integer> ends, final BinaryOperator<K> merge) {
+        List<Map<String, Integer>> transitions = new ArrayList<>();
+        List<Integer> wildcards = new ArrayList<>();
+        List<K> keys = new ArrayList<>();
+        Map<List<Integer>, Integer> states = new HashMap<>();
+        List<List<Integer>> pending = new ArrayList<>();
+        List<Integer> root = Collections.singletonList(0);
+        states.put(root, newState(transitions, wildcards, keys));
+        pending.add(root);
+        for (int i = 0; i < pending.size(); i++) {
+            List<Integer> trieStates = pending.get(i);
+            int state = states.get(trieStates);
+            K key = null;
+            for (int end : ends) {
+                if (trieStates.contains(end)) {
+                    key = key == null ? trieKeys.get(end) : merge.apply(key, trieKeys.get(end));
+                }
+            }
+            Set<String> names = new TreeSet<>();
+            TreeSet<Integer> anyName = new TreeSet<>();
+            for (int trieState : trieStates) {
+                names.addAll(trieTransitions.get(trieState).keySet());
+                if (trieWildcards.get(trieState) != NO_MATCH) {
+                    anyName.add(trieWildcards.get(trieState));
+                }
+            }
+            keys.set(state, key);
+            for (String name : names) {
+                TreeSet<Integer> next = new TreeSet<>(anyName);
+                for (int trieState : trieStates) {
+                    Integer child = trieTransitions.get(trieState).get(name);
+                    if (child != null) {
+                        next.add(child);
+                    }
+                }
+                transitions.get(state).put(name, stateOf(new ArrayList<>(next), states, pending,
+                        transitions, wildcards, keys));
+            }
+            if (!anyName.isEmpty()) {
+                wildcards.set(state, stateOf(new ArrayList<>(anyName), states, pending, transitions, wildcards, keys));
+            }
+        }
+        return new PomPathMatcher<>(transitions, wildcards, keys);
+    }
+
+    private static <K> int stateOf(final List<Integer> trieStates, final Map<List<Integer>, Integer> states,
+                                   final List<List<Integer>> pending, final List<Map<String, Integer>> transitions,
+                                   final List<Integer> wildcards, final List<K> keys) {
+        Integer state = states.get(trieStates);
+        if (state == null) {
+            state = newState(transitions, wildcards, keys);
+            states.put(trieStates, state);
+            pending.add(trieStates);
+        }
+        return state;
+    }
+
+    private static <K> int newState(final List<Map<String, Integer>> transitions, final List<Integer> wildcards,
+                                    final List<K> keys) {
+        transitions.add(new HashMap<String, Integer>());
+        wildcards.add(NO_MATCH);
+        keys.add(null);
+        return transitions.size() - 1;
+    }
+
+    /**
+     * @return the state representing the document, before the root element has been read
+     */
+    public int root() {
+        return 0;
+    }
+
+    /**
+     * Move from one state to the next as an element is opened.
+     *
+     * @param state       the state of the parent element
+     * @param elementName the local name of the element being opened
+     * @return the state of the element, or {@link #NO_MATCH}
+     */
+    public int next(final int state, final String elementName) {
+        if (state == NO_MATCH) {
+            return NO_MATCH;
+        }
+        Integer next = transitions[state].get(elementName);
+        if (next != null) {
+            return next;
+        }
+        return wildcards[state];
+    }
+
+    /**
+     * @param state the state to look up
+     * @return the key of the path that ends in this state, or null if no path ends here
+     */
+    @SuppressWarnings("unchecked")
+    public K keyOf(final int state) {
+        if (state == NO_MATCH) {
+            return null;
+        }
+        return (K) keys[state];
+    }
+
+    /**
+     * An owner is the element directly enclosing a matched element, such as the "dependency" element
+     * around a "version".  Owners are what get reported as artifact coordinates.
+     *
+     * @param state the state to look up
+     * @return whether any of the direct children of this state end a path
+     */
+    public boolean isOwner(final int state) {
+        return state != NO_MATCH && owners[state];
+    }
+}
@@ -0,0 +1,308 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cheap pass over the raw bytes of a pom that proves, where it can, that none of a set of rules could
+ * be broken, so the pom does not need to be scanned at all.  A rule can only be broken by a pom with an
+ * element named after every segment of the rule's path and, if the rule has
+ * {@link PomRule#getRequiredText() required text}, with that text in its character data.
+ *
+ * Names are matched on the local name of each start tag.  Text is matched straight through comments,
+ * processing instructions, CDATA sections and tags, since any of them may fall inside the text of an
+ * element.  Anything the pass can't see through - a character reference, an entity other than the
+ * predefined ones or a DOCTYPE - means the pom may break a rule.
+ */
+final class PomPrefilter {
+
+    private static final String WILDCARD = "*";
+    private static final int MAX_TOKENS = 64;
+
+    private final byte[][] names;
+    private final byte[][] texts;
+    private final int[][] textFailures;
+    private final boolean[] textStarts = new boolean[256];
+    private final long[] ruleNames;
+    private final long[] ruleTexts;
+
+    private PomPrefilter(final List<String> namesIn, final List<String> textsIn,
+                         final long[] ruleNamesIn, final long[] ruleTextsIn) {
+        names = new byte[namesIn.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = namesIn.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        texts = new byte[textsIn.size()][];
+        textFailures = new int[textsIn.size()][];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = textsIn.get(i).getBytes(StandardCharsets.UTF_8);
+            textFailures[i] = failures(texts[i]);
+            textStarts[texts[i][0] & 0xff] = true;
+        }
+        ruleNames = ruleNamesIn;
+        ruleTexts = ruleTextsIn;
+    }
+
+    /**
+     * @param rules the rules to filter for
+     * @return the prefilter, or null if there is a rule it could never rule out
+     */
+    static PomPrefilter compile(final List<? extends PomRule> rules) {
+        List<String> names = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        long[] ruleNames = new long[rules.size()];
+        long[] ruleTexts = new long[rules.size()];
+        for (int r = 0; r < rules.size(); r++) {
+            for (String segment : rules.get(r).getPath().split("/")) {
+                if (!segment.isEmpty() && !WILDCARD.equals(segment)) {
+                    ruleNames[r] |= bit(names, segment);
+                }
+            }
+            String text = rules.get(r).getRequiredText();
+            if (text != null && !text.isEmpty()) {
+                ruleTexts[r] = bit(texts, text);
+            }
+            if (names.size() > MAX_TOKENS || texts.size() > MAX_TOKENS || (ruleNames[r] == 0 && ruleTexts[r] == 0)) {
+                return null;
+            }
+        }
+        return new PomPrefilter(names, texts, ruleNames, ruleTexts);
+    }
+
+    /**
+     * @param buffer a UTF-8 pom, from its current position to its limit.  The position is not changed.
+     * @return false if the pom can't break any of the rules, true if it might
+     */
+    boolean mayBreak(final ByteBuffer buffer) {
+        int limit = buffer.limit();
+        long foundNames = 0;
+        long foundTexts = 0;
+        // the progress of each text, followed by the number of texts partly matched
+        int[] matched = new int[texts.length + 1];
+        int i = buffer.position();
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '<') {
+                byte next = i + 1 < limit ? buffer.get(i + 1) : 0;
+                if (next == '/') {
+                    i = tagEnd(buffer, i + 2);
+                } else if (next == '?') {
+                    i = after(buffer, i + 2, "?>");
+                } else if (next == '!') {
+                    if (MappedPomScanner.startsWith(buffer, i, "<!--")) {
+                        i = after(buffer, i + 4, "-->");
+                    } else if (MappedPomScanner.startsWith(buffer, i, "<![CDATA[")) {
+                        int end = MappedPomScanner.indexOf(buffer, i + 9, "]]>");
+                        if (end < 0) {
+                            return true;
+                        }
+                        for (int j = i + 9; j < end; j++) {
+                            foundTexts |= match(buffer.get(j), matched);
+                        }
+                        i = end + 3;
+                    } else {
+                        return true;
+                    }
+                } else {
+                    int nameStart = i + 1;
+                    int nameEnd = nameStart;
+                    while (nameEnd < limit && !isNameEnd(buffer.get(nameEnd))) {
+                        if (buffer.get(nameEnd) == ':') {
+                            nameStart = nameEnd + 1;
+                        }
+                        nameEnd++;
+                    }
+                    long name = nameBit(buffer, nameStart, nameEnd);
+                    if ((foundNames | name) != foundNames) {
+                        foundNames |= name;
+                        if (satisfied(foundNames, foundTexts)) {
+                            return true;
+                        }
+                    }
+                    i = tagEnd(buffer, nameEnd);
+                }
+                if (i < 0) {
+                    return true;
+                }
+            } else if (b == '&') {
+                int end = i + 1;
+                while (end < limit && end - i < 6 && buffer.get(end) != ';') {
+                    end++;
+                }
+                byte decoded = predefinedEntity(buffer, i + 1, end);
+                if (decoded == 0) {
+                    return true;
+                }
+                foundTexts |= match(decoded, matched);
+                i = end + 1;
+            } else if (matched[texts.length] == 0 && !textStarts[b & 0xff]) {
+                i = skipText(buffer, i + 1, limit);
+            } else {
+                long text = match(b, matched);
+                if ((foundTexts & text) != text) {
+                    foundTexts |= text;
+                    if (satisfied(foundNames, foundTexts)) {
+                        return true;
+                    }
+                }
+                i++;
+            }
+        }
+        return satisfied(foundNames, foundTexts);
+    }
+
+    /**
+     * @return the index of the next byte that could start markup, an entity or one of the texts
+     */
+    private int skipText(final ByteBuffer buffer, final int from, final int limit) {
+        int i = from;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '<' || b == '&' || textStarts[b & 0xff]) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private boolean satisfied(final long foundNames, final long foundTexts) {
+        for (int r = 0; r < ruleNames.length; r++) {
+            if ((ruleNames[r] & ~foundNames) == 0 && (ruleTexts[r] & ~foundTexts) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advance the match of every required text by one byte.
+     *
+     * @return the bits of the texts the byte completes
+     */
+    private long match(final byte b, final int[] matched) {
+        long completed = 0;
+        int partial = 0;
+        for (int t = 0; t < texts.length; t++) {
+            byte[] text = texts[t];
+            int k = matched[t];
+            while (k > 0 && text[k] != b) {
+                k = textFailures[t][k - 1];
+            }
+            if (text[k] == b) {
+                k++;
+            }
+            if (k == text.length) {
+                completed |= 1L << t;
+                k = textFailures[t][k - 1];
+            }
+            matched[t] = k;
+            if (k > 0) {
+                partial++;
+            }
+        }
+        matched[texts.length] = partial;
+        return completed;
+    }
+
+    private long nameBit(final ByteBuffer buffer, final int start, final int end) {
+        for (int n = 0; n < names.length; n++) {
+            byte[] name = names[n];
+            if (name.length == end - start) {
+                int j = 0;
+                while (j < name.length && buffer.get(start + j) == name[j]) {
+                    j++;
+                }
+                if (j == name.length) {
+                    return 1L << n;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static long bit(final List<String> tokens, final String token) {
+        int index = tokens.indexOf(token);
+        if (index < 0) {
+            index = tokens.size();
+            tokens.add(token);
+        }
+        return index < MAX_TOKENS ? 1L << index : 0;
+    }
+
+    /**
+     * @return the Knuth-Morris-Pratt failure function of the text
+     */
+    private static int[] failures(final byte[] text) {
+        int[] failures = new int[text.length];
+        int k = 0;
+        for (int i = 1; i < text.length; i++) {
+            while (k > 0 && text[k] != text[i]) {
+                k = failures[k - 1];
+            }
+            if (text[k] == text[i]) {
+                k++;
+            }
+            failures[i] = k;
+        }
+        return failures;
+    }
+
+    private static int after(final ByteBuffer buffer, final int from, final String terminator) {
+        int end = MappedPomScanner.indexOf(buffer, from, terminator);
+        return end < 0 ? -1 : end + terminator.length();
+    }
+
+    private static boolean isNameEnd(final byte b) {
+        return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * @return the index after the '>' closing a start tag, skipping over quoted attribute values
+     */
+    private static int tagEnd(final ByteBuffer buffer, final int from) {
+        byte quote = 0;
+        for (int i = from; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the character of a predefined entity, or 0 for anything else
+     */
+    private static byte predefinedEntity(final ByteBuffer buffer, final int start, final int end) {
+        if (end >= buffer.limit() || buffer.get(end) != ';') {
+            return 0;
+        }
+        byte[] name = new byte[end - start];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.get(start + i);
+        }
+        switch (new String(name, StandardCharsets.US_ASCII)) {
+            case "lt":
+                return '<';
+            case "gt":
+                return '>';
+            case "amp":
+                return '&';
+            case "quot":
+                return '"';
+            case "apos":
+                return '\'';
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+/**
+ * A single check on the text of the elements at a path in the pom.  Rules are compiled together into a
+ * {@link RuleSet}, which evaluates every rule in one pass over the pom, however many there are.
+ *
+ * Implementations may be added to the plugin's dependencies and configured with
+ * {@code <rule implementation="com.example.MyRule">}.  They must be thread-safe.
+ */
+public interface PomRule {
+
+    /**
+     * @return the absolute path of the elements to check, such as "/project/dependencies/dependency/version".
+     *         A "*" segment matches any element.
+     */
+    String getPath();
+
+    /**
+     * @param value the text of a matched element
+     * @return true if the value breaks the rule
+     */
+    boolean isViolation(String value);
+
+    /**
+     * @return the description reported above the elements that break the rule
+     */
+    String getMessage();
+
+    /**
+     * The identity of the rule, used to share a compiled {@link RuleSet} between equivalent rules and to
+     * discard cached results when the configuration changes.  Two rules of the same class with the same
+     * description must break on exactly the same values and report the same message, and the description
+     * must be the same from one build to the next, so it must not depend on identity hash codes.
+     *
+     * @return everything configured that decides which values break the rule, and how they are reported
+     */
+    String describe();
+
+    /**
+     * @return text that every value breaking the rule contains, such as "-SNAPSHOT", or null if there is
+     *         none.  A pom without the text anywhere in it is passed without being parsed.
+     */
+    default String getRequiredText() {
+        return null;
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * A compact, read only tree of the elements of a pom, annotated with the line and column each element
+ * was declared on.  Elements are numbered in document order, and every property of an element is held
+ * in a primitive array indexed by that number, so an element costs a few dozen bytes rather than a
+ * DOM node, its user data and its whitespace text nodes.  Element names are held once per tree and
+ * referenced by index.  Whitespace-only text is not kept.
+ *
+ * Trees are read by {@link #read(File, PomLimits)}, which builds them with a {@link PomTreeHandler}.
+ */
+public final class PomTree {
+
+    /**
+     * Returned in place of an element that does not exist, such as the parent of the root element.
+     */
+    public static final int NONE = -1;
+
+    private final String[] symbols;
+    private final int[] names;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] lines;
+    private final int[] columns;
+    private final String[] texts;
+    private final int size;
+
+    PomTree(final String[] symbolsIn, final int[] namesIn, final int[] parentsIn, final int[] firstChildrenIn,
+            final int[] nextSiblingsIn, final int[] linesIn, final int[] columnsIn, final String[] textsIn,
+            final int sizeIn) {
+        symbols = symbolsIn;
+        names = namesIn;
+        parents = parentsIn;
+        firstChildren = firstChildrenIn;
+        nextSiblings = nextSiblingsIn;
+        lines = linesIn;
+        columns = columnsIn;
+        texts = textsIn;
+        size = sizeIn;
+    }
+
+    /**
+     * Read a pom into a tree, recording the time spent parsing it and its size.
+     *
+     * @param pomFile the pom to read
+     * @param limits  the limits of the pom
+     * @return the tree of elements
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed, or breaks one of the limits
+     */
+    public static PomTree read(final File pomFile, final PomLimits limits) throws IOException, SAXException {
+        PomTreeHandler handler = new PomTreeHandler(limits);
+        long start = System.nanoTime();
+        try (InputStream is = new FileInputStream(pomFile)) {
+            XmlParsers.saxParser(limits).parse(is, handler);
+        } finally {
+            PomCheckMetrics.time(PomCheckMetrics.Phase.PARSE, start);
+            PomCheckMetrics.bytes(pomFile.length());
+        }
+        return handler.getTree();
+    }
+
+    /**
+     * @return the number of elements in the tree.  The root element is element 0.
+     */
+    public int size() {
+        return size;
+    }
+
+    public String name(final int element) {
+        return symbols[names[element]];
+    }
+
+    public int parent(final int element) {
+        return parents[element];
+    }
+
+    public int firstChild(final int element) {
+        return firstChildren[element];
+    }
+
+    public int nextSibling(final int element) {
+        return nextSiblings[element];
+    }
+
+    /**
+     * @param element the element
+     * @return the line the start tag of the element ends on
+     */
+    public int line(final int element) {
+        return lines[element];
+    }
+
+    /**
+     * @param element the element
+     * @return the column the start tag of the element ends on
+     */
+    public int column(final int element) {
+        return columns[element];
+    }
+
+    /**
+     * @param element the element
+     * @return the text directly inside the element, or null if it has none other than whitespace
+     */
+    public String text(final int element) {
+        return texts[element];
+    }
+
+    /**
+     * @param element the element to search
+     * @param name    the name of the child
+     * @return the first direct child with the given name, or {@link #NONE}
+     */
+    public int child(final int element, final String name) {
+        for (int child = firstChildren[element]; child != NONE; child = nextSiblings[child]) {
+            if (symbols[names[child]].equals(name)) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Find the elements at an absolute path, such as "/project/properties/*".  This is a single linear
+     * pass over the tree, however many levels the path has.
+     *
+     * @param path the path to find
+     * @return the matching elements, in document order
+     */
+    public int[] select(final String path) {
+        return select(PomPathMatcher.compile(Collections.singletonMap(path, Boolean.TRUE)));
+    }
+
+    /**
+     * Find the elements that match any of the paths of a matcher.
+     *
+     * @param matcher the compiled paths
+     * @return the matching elements, in document order
+     */
+    public int[] select(final PomPathMatcher<?> matcher) {
+        int[] states = new int[size];
+        int[] matches = new int[16];
+        int matchCount = 0;
+        for (int element = 0; element < size; element++) {
+            int parent = parents[element];
+            int state = matcher.next(parent == NONE ? matcher.root() : states[parent], symbols[names[element]]);
+            states[element] = state;
+            if (matcher.keyOf(state) != null) {
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, matchCount * 2);
+                }
+                matches[matchCount++] = element;
+            }
+        }
+        return Arrays.copyOf(matches, matchCount);
+    }
+}
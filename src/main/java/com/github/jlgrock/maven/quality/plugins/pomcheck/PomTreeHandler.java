@@ -0,0 +1,167 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A SAX handler that builds a {@link PomTree}, recording the line and column each element starts on
+ * without creating any DOM nodes.  Parsing fails as soon as the document breaks
+ * one of its {@link PomLimits}, so the tree never holds more than they allow.
+ */
+public class PomTreeHandler extends DefaultHandler {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final PomLimits limits;
+
+    private Locator locator;
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private String[] symbols = new String[32];
+    private int symbolCount;
+
+    private int[] names = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private int[] elementStack = new int[32];
+    private int depth;
+    private final StringBuilder textBuffer = new StringBuilder();
+
+    public PomTreeHandler() {
+        this(PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param limitsIn the limits of the document
+     */
+    public PomTreeHandler(final PomLimits limitsIn) {
+        limits = limitsIn;
+    }
+
+    @Override
+    public void setDocumentLocator(final Locator locatorIn) {
+        locator = locatorIn;
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+                             final Attributes attributes) throws SAXException {
+        addTextIfNeeded();
+        if (size == limits.getMaxElements()) {
+            throw new SAXParseException(limits.elementsExceeded(), locator);
+        }
+        if (depth == limits.getMaxDepth()) {
+            throw new SAXParseException(limits.depthExceeded(), locator);
+        }
+        if (size == names.length) {
+            grow();
+        }
+        int element = size++;
+        int parent = depth == 0 ? PomTree.NONE : elementStack[depth - 1];
+        names[element] = symbol(qName);
+        parents[element] = parent;
+        firstChildren[element] = PomTree.NONE;
+        nextSiblings[element] = PomTree.NONE;
+        lastChildren[element] = PomTree.NONE;
+        lines[element] = locator == null ? 0 : locator.getLineNumber();
+        columns[element] = locator == null ? 0 : locator.getColumnNumber();
+        if (parent != PomTree.NONE) {
+            if (lastChildren[parent] == PomTree.NONE) {
+                firstChildren[parent] = element;
+            } else {
+                nextSiblings[lastChildren[parent]] = element;
+            }
+            lastChildren[parent] = element;
+        }
+        if (depth == elementStack.length) {
+            elementStack = Arrays.copyOf(elementStack, depth * 2);
+        }
+        elementStack[depth++] = element;
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+        addTextIfNeeded();
+        depth--;
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) throws SAXException {
+        if (depth > 0) {
+            if (textBuffer.length() + length > limits.getMaxTextLength()) {
+                throw new SAXParseException(limits.textLengthExceeded(), locator);
+            }
+            textBuffer.append(ch, start, length);
+        }
+    }
+
+    /**
+     * @return the tree built from the parsed document
+     */
+    public PomTree getTree() {
+        return new PomTree(Arrays.copyOf(symbols, symbolCount), names, parents, firstChildren, nextSiblings,
+                lines, columns, texts, size);
+    }
+
+    // Keeps the text accumulated under the current element, unless it is only whitespace
+    private void addTextIfNeeded() throws SAXException {
+        if (textBuffer.length() == 0) {
+            return;
+        }
+        if (!isWhitespace(textBuffer)) {
+            int element = elementStack[depth - 1];
+            if (texts[element] != null && texts[element].length() + textBuffer.length() > limits.getMaxTextLength()) {
+                throw new SAXParseException(limits.textLengthExceeded(), locator);
+            }
+            texts[element] = texts[element] == null ? textBuffer.toString() : texts[element] + textBuffer;
+        }
+        textBuffer.setLength(0);
+    }
+
+    private static boolean isWhitespace(final CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int symbol(final String name) {
+        Integer id = symbolIds.get(name);
+        if (id == null) {
+            if (symbolCount == symbols.length) {
+                symbols = Arrays.copyOf(symbols, symbolCount * 2);
+            }
+            id = symbolCount;
+            symbols[symbolCount++] = name;
+            symbolIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a set of poms and checks each one again as soon as it is saved, reporting only the violations
+ * introduced and resolved since it was last checked.
+ *
+ * The directory of each pom is registered with a {@link WatchService}, which is waited on by a single
+ * background thread.  A burst of saves, such as an editor writing a file in several steps or a search and
+ * replace across many poms, is gathered until no pom has changed for the debounce interval, and then each
+ * changed pom is checked once.  Violations are compared by their rule and element, not their line, so that
+ * lines moving in an edited pom don't show as violations resolved and introduced again.
+ */
+public final class PomWatcher implements Closeable {
+
+    /**
+     * Finds the violations of a single pom.
+     */
+    public interface Checker {
+        List<RuleViolations> check(File pomFile) throws Exception;
+    }
+
+    /**
+     * Told of every pom whose violations changed.
+     */
+    public interface Listener {
+        void changed(Diff diff);
+    }
+
+    private final Map<Path, File> pomFiles = new LinkedHashMap<>();
+    private final Map<File, Map<String, String>> violations = new HashMap<>();
+    private final long debounceMillis;
+    private final Checker checker;
+    private final Listener listener;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param pomFilesIn       the poms to watch
+     * @param debounceMillisIn how long no pom must have changed before the changed poms are checked
+     * @param checkerIn        finds the violations of a pom
+     * @param listenerIn       told of every pom whose violations changed
+     */
+    public PomWatcher(final List<File> pomFilesIn, final long debounceMillisIn, final Checker checkerIn,
+                      final Listener listenerIn) {
+        for (File pomFile : pomFilesIn) {
+            pomFiles.put(pomFile.toPath().toAbsolutePath().normalize(), pomFile);
+        }
+        debounceMillis = debounceMillisIn;
+        checker = checkerIn;
+        listener = listenerIn;
+    }
+
+    /**
+     * Check every pom, and start watching them on a background thread.
+     *
+     * @return the violations of every pom that has any, in the order the poms were provided
+     * @throws IOException if the directory of a pom could not be watched
+     */
+    public synchronized List<Diff> start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Already watching");
+        }
+        List<Diff> initial = new ArrayList<>();
+        for (File pomFile : pomFiles.values()) {
+            Diff diff = recheck(pomFile);
+            if (!diff.isEmpty()) {
+                initial.add(diff);
+            }
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path pomPath : pomFiles.keySet()) {
+            directories.add(pomPath.getParent());
+        }
+        for (Path directory : directories) {
+            // editors often save by writing a new file and renaming it over the old one
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        thread = new Thread(this::watch, "pomcheck-watch");
+        thread.setDaemon(true);
+        thread.start();
+        return initial;
+    }
+
+    /**
+     * Wait until the watcher is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        Thread watching;
+        synchronized (this) {
+            watching = thread;
+        }
+        if (watching != null) {
+            watching.join();
+        }
+    }
+
+    /**
+     * Stop watching.
+     *
+     * @throws IOException if the watch service could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<File> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                for (File pomFile : changed) {
+                    Diff diff = recheck(pomFile);
+                    if (!diff.isEmpty()) {
+                        listener.changed(diff);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed, stop watching
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<File> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost, so any of the poms may have changed
+                changed.addAll(pomFiles.values());
+                continue;
+            }
+            File pomFile = pomFiles.get(directory.resolve((Path) event.context()).toAbsolutePath().normalize());
+            if (pomFile != null) {
+                changed.add(pomFile);
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Check a pom, and compare its violations with those found when it was last checked.
+     */
+    private Diff recheck(final File pomFile) {
+        List<RuleViolations> failures;
+        try {
+            failures = checker.check(pomFile);
+        } catch (Exception e) {
+            failures = Collections.singletonList(RuleViolations.processingFailure(pomFile, e.getMessage()));
+        }
+        Map<String, String> current = new LinkedHashMap<>();
+        for (RuleViolations failure : failures) {
+            String rule = firstLine(failure.getDescription());
+            if (failure.getErrors().isEmpty()) {
+                current.put(rule, rule);
+            }
+            for (ErrorAndLocation error : failure.getErrors()) {
+                current.put(rule + '\n' + error.getOutput(), rule + ": " + error);
+            }
+        }
+        Map<String, String> previous = violations.put(pomFile, current);
+        if (previous == null) {
+            previous = Collections.emptyMap();
+        }
+        List<String> introduced = new ArrayList<>();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!previous.containsKey(entry.getKey())) {
+                introduced.add(entry.getValue());
+            }
+        }
+        List<String> resolved = new ArrayList<>();
+        for (Map.Entry<String, String> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                resolved.add(entry.getValue());
+            }
+        }
+        return new Diff(pomFile, introduced, resolved, current.size());
+    }
+
+    private static String firstLine(final String description) {
+        int end = description.indexOf('\n');
+        return end < 0 ? description : description.substring(0, end);
+    }
+
+    /**
+     * The violations of a pom introduced and resolved since it was last checked.
+     */
+    public static final class Diff {
+        private final File file;
+        private final List<String> introduced;
+        private final List<String> resolved;
+        private final int remaining;
+
+        Diff(final File fileIn, final List<String> introducedIn, final List<String> resolvedIn,
+             final int remainingIn) {
+            file = fileIn;
+            introduced = Collections.unmodifiableList(introducedIn);
+            resolved = Collections.unmodifiableList(resolvedIn);
+            remaining = remainingIn;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return each violation introduced, e.g. "Versions in dependencies sections must not be declared:
+         *         junit:junit:4.12 on line 12"
+         */
+        public List<String> getIntroduced() {
+            return introduced;
+        }
+
+        public List<String> getResolved() {
+            return resolved;
+        }
+
+        /**
+         * @return the number of violations the pom has now
+         */
+        public int getRemaining() {
+            return remaining;
+        }
+
+        public boolean isEmpty() {
+            return introduced.isEmpty() && resolved.isEmpty();
+        }
+    }
+}
@@ -1,21 +1,23 @@
 package com.github.jlgrock.maven.quality.plugins.pomcheck;
 
-import org.apache.maven.plugin.MojoExecutionException;
-import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.sonatype.plexus.build.incremental.BuildContext;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 /**
  * Verifies that you are only building using release versions.
@@ -26,20 +28,29 @@ import java.util.regex.Pattern;
  * This plugin then walks known properties (at any level) and
  * does this by verifying that nothing in the properties includes "*-SNAPSHOT"
  *
+ * With pomcheck.effective set, the parents of the pom and the boms it imports are also read, and
+ * every property and version is checked after interpolation, so that a snapshot set in a parent's
+ * property is caught in each child that uses it.
  */
 @Mojo(name = "release-check", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
 public class ReleaseVersionsMojo extends AbstractPomChecker {
 
-    private static final String VERSION_NOT_ALLOWED_STRING = "\\w*.*(-SNAPSHOT)\\w*";
-    private static final Pattern VERSION_NOT_ALLOWED_PATTERN = Pattern.compile(VERSION_NOT_ALLOWED_STRING);
-
-    private static final String PROJECT_XPATH_PREFIX = "/project";
-    private static final String PROFILE_XPATH_PREFIX = "/profiles/profile";
-    private static final String PROPERTIES_XPATH_PREFIX = "/properties/*";
-
     @Component
     private BuildContext buildContext;
 
+    /**
+     * When true, the inherited and interpolated properties and versions are checked as well, reading
+     * parents from their relative path or the local repository.
+     */
+    @Parameter(property = "pomcheck.effective", defaultValue = "false")
+    protected boolean effective;
+
+    /**
+     * The local repository, where parents and boms outside of the reactor are looked up.
+     */
+    @Parameter(defaultValue = "${settings.localRepository}", readonly = true)
+    protected File localRepository;
+
     /**
      * The Maven Project.
      */
@@ -64,93 +75,164 @@ public class ReleaseVersionsMojo extends AbstractPomChecker {
     }
 
     /**
-     * Will allow you to check a particular file.  It expects that this file follows the maven
-     * defined format.
+     * Both the project and profile properties are checked in a single pass over the file, along with any
+     * configured rules.
+     *
+     * When checking the effective pom, its errors follow those of the rules.
      *
      * @param pomFile the file to scan
-     * @throws MojoExecutionException if there are any errors in execution
-     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     * @return the errors of each rule broken, or an empty list if the file passes
+     * @throws IOException        if the file could not be read
+     * @throws XMLStreamException if the file could not be parsed
+     * @throws SAXException       if a parent or bom could not be parsed
      */
-    protected void checkFile(final File pomFile) throws MojoExecutionException, MojoFailureException {
-        try {
-            getLog().debug("file " + pomFile.getAbsolutePath() + " exists: " + pomFile.exists());
-            Document doc = readXML(pomFile);
-            checkProperties(doc);
-            checkProfileProperties(doc);
-        } catch (Exception e) {
-            buildContext.addMessage(pomFile, 0, 0, e.getMessage(), BuildContext.SEVERITY_ERROR, e);
-            throw new MojoFailureException("Exception processing", e);
-        }
-    }
-
     @Override
-    protected MavenProject getMavenProject() {
-        return mavenProject;
+    protected List<RuleViolations> findAllErrors(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        List<RuleViolations> failures = super.findAllErrors(pomFile);
+        if (effective && (failures.isEmpty() || !failFast)) {
+            long start = System.nanoTime();
+            RuleViolations effectiveErrors = findEffectiveErrors(pomFile);
+            PomCheckMetrics.time(PomCheckMetrics.Phase.EFFECTIVE, start);
+            if (effectiveErrors != null) {
+                failures = new ArrayList<>(failures);
+                failures.add(effectiveErrors);
+            }
+        }
+        return failures;
     }
 
     @Override
-    protected BuildContext getBuildContext() {
-        return buildContext;
+    protected List<PomRule> getBuiltInRules() {
+        return BuiltInRules.RELEASE_CHECK;
     }
 
     /**
-     * Using an xpath expression, gather the appropriate collection of tags and pass it to checkVersions.
+     * Check the properties and versions the pom inherits from its parents and boms, after interpolation.
+     * A snapshot property written as it is in the pom itself has already been reported by the rules, so
+     * it is not reported again.
      *
-     * @param doc  the document to search
-     * @param path the path to find the dependencies collection
-     * @throws MojoExecutionException if there are any errors in execution
-     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     * @param pomFile the file to check
+     * @return the snapshots found, or null if there are none
+     * @throws IOException  if a pom could not be read
+     * @throws SAXException if a pom could not be parsed
      */
-    private void findAndCheckVersions(final Document doc, final String path)
-            throws MojoExecutionException, MojoFailureException {
-        try {
-            NodeList nodeCollection = findByPath(doc, path);
-            checkVersions(nodeCollection);
-        } catch (ErrorAndLocationCollectionException ealc) {
-            throw new MojoExecutionException(ealc.getMessage());
+    private RuleViolations findEffectiveErrors(final File pomFile)
+            throws IOException, SAXException {
+        EffectivePomResolver resolver = new EffectivePomResolver(getModelCache(), localRepository,
+                getLimits());
+        EffectivePom pom = resolve(resolver, pomFile);
+        List<ErrorAndLocation> artifacts = new ArrayList<ErrorAndLocation>();
+        for (PomModel.Declaration property : pom.getProperties().values()) {
+            String value = pom.interpolate(property.getValue());
+            if (VersionClassifier.isSnapshot(value) && !isCheckedByRules(pomFile, property, value)) {
+                artifacts.add(effectiveError(pomFile, "property " + property.getName() + "=" + value, property));
+            }
+        }
+        for (PomModel.Declaration version : pom.getVersions()) {
+            checkEffectiveVersion(pomFile, pom, version, "", artifacts);
         }
-    }
 
-    /**
-     * Check the versions in the properties section and make sure that none of them end in "-SNAPSHOT"
-     *
-     * @param nodeCollection the collection of objects to check
-     * @throws ErrorAndLocationCollectionException
-     */
-    public void checkVersions(final NodeList nodeCollection) throws ErrorAndLocationCollectionException {
-        List<ErrorAndLocation> artifacts = new ArrayList<ErrorAndLocation>();
-        for (int i = 0; i < nodeCollection.getLength(); i++) {
-            Node node = nodeCollection.item(i);
-            String version = node.getTextContent();
-            Matcher m = VERSION_NOT_ALLOWED_PATTERN.matcher(version);
-            if (m.matches()) {
-                artifacts.add(new ErrorAndLocation(artifactBuilder(node.getParentNode()), getLineNumber(node), null));
+        Deque<EffectivePom> boms = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        boms.add(pom);
+        while (!boms.isEmpty()) {
+            EffectivePom importer = boms.poll();
+            for (PomModel.Declaration bomImport : importer.getImports()) {
+                ArtifactCoordinates bom = ArtifactCoordinates.of(
+                        importer.interpolate(bomImport.getCoordinates().getGroupId()),
+                        importer.interpolate(bomImport.getCoordinates().getArtifactId()),
+                        importer.interpolate(bomImport.getValue()));
+                if (!seen.add(bom.toString())) {
+                    continue;
+                }
+                File bomFile = resolver.repositoryPom(bom.getGroupId(), bom.getArtifactId(), bom.getVersion());
+                if (bomFile == null) {
+                    getLog().warn("Unable to find the bom " + bom + " in the local repository, it will not be checked");
+                    continue;
+                }
+                EffectivePom bomPom = resolve(resolver, bomFile);
+                for (PomModel.Declaration version : bomPom.getVersions()) {
+                    checkEffectiveVersion(pomFile, bomPom, version, " managed by " + bom, artifacts);
+                }
+                boms.add(bomPom);
             }
         }
         if (artifacts.size() > 0) {
-            throw new ErrorAndLocationCollectionException(getMavenProject().getFile(), "You must not use snapshots in properties", artifacts);
+            return new RuleViolations(pomFile, BuiltInRules.SNAPSHOT_DESCRIPTION, artifacts);
+        }
+        return null;
+    }
+
+    private EffectivePom resolve(final EffectivePomResolver resolver, final File pomFile)
+            throws IOException, SAXException {
+        EffectivePom pom = resolver.resolve(pomFile);
+        for (ArtifactCoordinates parent : pom.getUnresolvedParents()) {
+            getLog().warn("Unable to find the parent " + parent + " of " + pomFile
+                    + ", inherited properties will not be checked");
+        }
+        return pom;
+    }
+
+    private void checkEffectiveVersion(final File pomFile, final EffectivePom pom,
+                                       final PomModel.Declaration version, final String suffix,
+                                       final List<ErrorAndLocation> artifacts) {
+        String value = pom.interpolate(version.getValue());
+        if (VersionClassifier.isSnapshot(value)) {
+            ArtifactCoordinates coordinates = version.getCoordinates();
+            artifacts.add(effectiveError(pomFile, coordinates.getGroupId() + ":" + coordinates.getArtifactId()
+                    + ":" + value + suffix, version));
         }
     }
 
     /**
-     * Check the properties section of the project.
-     *
-     * @param doc the document to check
-     * @throws MojoExecutionException if there are any errors in execution
-     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     * @return true if the property is declared by the pom itself with the value it has after interpolation
      */
-    public void checkProperties(Document doc) throws MojoExecutionException, MojoFailureException {
-        findAndCheckVersions(doc, PROJECT_XPATH_PREFIX + PROPERTIES_XPATH_PREFIX);
+    private static boolean isCheckedByRules(final File pomFile, final PomModel.Declaration property,
+                                            final String value) {
+        return value.equals(property.getValue()) && sameFile(pomFile, property.getFile());
     }
 
     /**
-     * Check the profile properties section of the project.
-     *
-     * @param doc the document to check
-     * @throws MojoExecutionException if there are any errors in execution
-     * @throws MojoFailureException   if there are any properties invalidly used or where they shouldn't be
+     * Describe a snapshot, naming the file it was declared in when that is not the pom being checked.
      */
-    public void checkProfileProperties(Document doc) throws MojoExecutionException, MojoFailureException {
-        findAndCheckVersions(doc, PROJECT_XPATH_PREFIX + PROFILE_XPATH_PREFIX + PROPERTIES_XPATH_PREFIX);
+    private static ErrorAndLocation effectiveError(final File pomFile, final String output,
+                                                   final PomModel.Declaration declaration) {
+        if (sameFile(pomFile, declaration.getFile())) {
+            return new ErrorAndLocation(output, String.valueOf(declaration.getLine()), null);
+        }
+        return new ErrorAndLocation(output + " (declared on line " + declaration.getLine() + " of "
+                + declaration.getFile() + ")", null, null);
+    }
+
+    private static boolean sameFile(final File first, final File second) {
+        try {
+            return first.getCanonicalFile().equals(second.getCanonicalFile());
+        } catch (IOException e) {
+            return first.getAbsoluteFile().equals(second.getAbsoluteFile());
+        }
+    }
+
+    @Override
+    protected String getRuleConfiguration() {
+        return super.getRuleConfiguration() + "effective=" + effective;
+    }
+
+    /**
+     * The effective result depends on parents and boms as well as the pom, so it is never cached.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return !effective;
+    }
+
+    @Override
+    protected MavenProject getMavenProject() {
+        return mavenProject;
+    }
+
+    @Override
+    protected BuildContext getBuildContext() {
+        return buildContext;
     }
 }
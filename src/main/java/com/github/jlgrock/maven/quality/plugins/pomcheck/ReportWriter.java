@@ -0,0 +1,41 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the results of a check to a machine readable report, for CI tooling to annotate.
+ */
+public interface ReportWriter {
+
+    /**
+     * @return the extension of the report file, without the dot
+     */
+    String getExtension();
+
+    /**
+     * @param toolVersion the version of the plugin
+     * @param results     the result of every pom checked, in reactor order
+     * @param out         the writer to stream the report to
+     * @throws IOException if the report could not be written
+     */
+    void write(String toolVersion, List<PomCheckResult> results, Writer out) throws IOException;
+
+    /**
+     * @param format "json" or "sarif"
+     * @return the writer for the format
+     * @throws IllegalArgumentException if the format is not known
+     */
+    static ReportWriter forFormat(final String format) {
+        switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "json":
+                return new JsonReportWriter();
+            case "sarif":
+                return new SarifReportWriter();
+            default:
+                throw new IllegalArgumentException("Unknown report format \"" + format + "\", expected json or sarif");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent cache of check results, keyed by the content hash of each pom.  A pom whose contents
+ * have not changed since it was last checked does not need to be parsed again.  The cache is thrown
+ * away whenever the fingerprint changes, which covers the plugin version and rule configuration.
+ *
+ * The cache may be read and updated from several threads at once.
+ */
+public class ResultCache {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final File cacheFile;
+    private final String fingerprint;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    /**
+     * @param cacheFileIn   the file the cache is persisted to
+     * @param fingerprintIn identifies the plugin version and rule configuration the results were produced with
+     */
+    public ResultCache(final File cacheFileIn, final String fingerprintIn) {
+        cacheFile = cacheFileIn;
+        fingerprint = fingerprintIn;
+    }
+
+    /**
+     * Load the results persisted by a previous build.  A missing cache, or one produced by a different
+     * plugin version or rule configuration, is treated as empty.
+     *
+     * @throws IOException if the cache exists but could not be read
+     */
+    public void load() throws IOException {
+        entries.clear();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+                return;
+            }
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String path = in.readUTF();
+                String hash = in.readUTF();
+                int failureCount = in.readInt();
+                List<String> descriptions = new ArrayList<>(failureCount);
+                List<List<ErrorAndLocation>> errors = new ArrayList<>(failureCount);
+                for (int j = 0; j < failureCount; j++) {
+                    descriptions.add(in.readUTF());
+                    int errorCount = in.readInt();
+                    List<ErrorAndLocation> failureErrors = new ArrayList<>(errorCount);
+                    for (int k = 0; k < errorCount; k++) {
+                        failureErrors.add(new ErrorAndLocation(in.readUTF(), readNullable(in), readNullable(in)));
+                    }
+                    errors.add(failureErrors);
+                }
+                entries.put(path, new Entry(hash, descriptions, errors));
+            }
+        }
+    }
+
+    /**
+     * Persist the cache, if anything has changed since it was loaded.
+     *
+     * @throws IOException if the cache could not be written
+     */
+    public void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create directory " + parent);
+        }
+        File tempFile = new File(parent, cacheFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(fingerprint);
+            List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> mapEntry : snapshot) {
+                Entry entry = mapEntry.getValue();
+                out.writeUTF(mapEntry.getKey());
+                out.writeUTF(entry.hash);
+                out.writeInt(entry.descriptions.size());
+                for (int i = 0; i < entry.descriptions.size(); i++) {
+                    out.writeUTF(entry.descriptions.get(i));
+                    out.writeInt(entry.errors.get(i).size());
+                    for (ErrorAndLocation error : entry.errors.get(i)) {
+                        out.writeUTF(error.getOutput());
+                        writeNullable(out, error.getLine());
+                        writeNullable(out, error.getColumn());
+                    }
+                }
+            }
+        }
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    /**
+     * @param pomFile the file to look up
+     * @return whether any result has been recorded for this file, regardless of its contents
+     */
+    public boolean contains(final File pomFile) {
+        return entries.containsKey(key(pomFile));
+    }
+
+    /**
+     * Look up the last result recorded for a file, without checking whether its contents have changed.
+     * Only use this when something else, such as the build context, knows the file is unchanged.
+     *
+     * @param pomFile the file to look up
+     * @return the failures recorded for the file, which are empty if it passed
+     */
+    public List<RuleViolations> getUnchecked(final File pomFile) {
+        Entry entry = entries.get(key(pomFile));
+        return entry == null ? Collections.<RuleViolations>emptyList() : entry.toFailures(pomFile);
+    }
+
+    /**
+     * @param pomFile the file to look up
+     * @param hash    the current content hash of the file
+     * @return the recorded result, or null if the file has not been checked with these contents
+     */
+    public Result get(final File pomFile, final String hash) {
+        Entry entry = entries.get(key(pomFile));
+        if (entry == null || !entry.hash.equals(hash)) {
+            return null;
+        }
+        return new Result(entry.toFailures(pomFile));
+    }
+
+    /**
+     * Record the result of checking a file.
+     *
+     * @param pomFile  the file that was checked
+     * @param hash     the content hash of the file when it was checked
+     * @param failures the errors of every rule broken, which are empty if the file passed
+     */
+    public void putAll(final File pomFile, final String hash, final List<RuleViolations> failures) {
+        List<String> descriptions = new ArrayList<>(failures.size());
+        List<List<ErrorAndLocation>> errors = new ArrayList<>(failures.size());
+        for (RuleViolations failure : failures) {
+            descriptions.add(failure.getDescription());
+            errors.add(failure.getErrors());
+        }
+        entries.put(key(pomFile), new Entry(hash, descriptions, errors));
+        dirty = true;
+    }
+
+    /**
+     * Hash a file through a fixed buffer, so that hashing takes the same memory however large the file is.
+     *
+     * @param pomFile the file to hash
+     * @return the hash of the file contents
+     * @throws IOException if the file could not be read
+     */
+    public static String hash(final File pomFile) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+            long length = 0;
+            try (FileChannel channel = FileChannel.open(pomFile.toPath(), StandardOpenOption.READ)) {
+                for (int read = channel.read(buffer); read >= 0; read = channel.read(buffer)) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                    length += read;
+                }
+            }
+            PomCheckMetrics.bytes(length);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is required by every Java platform", e);
+        }
+    }
+
+    private static String key(final File pomFile) {
+        return pomFile.getAbsolutePath();
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * The result of a cache hit.  The failures are empty when the file passed.
+     */
+    public static final class Result {
+        private final List<RuleViolations> failures;
+
+        Result(final List<RuleViolations> failuresIn) {
+            failures = failuresIn;
+        }
+
+        public List<RuleViolations> getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return the errors of the first rule broken, or null if the file passed
+         */
+        public RuleViolations getErrors() {
+            return failures.isEmpty() ? null : failures.get(0);
+        }
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final List<String> descriptions;
+        private final List<List<ErrorAndLocation>> errors;
+
+        Entry(final String hashIn, final List<String> descriptionsIn, final List<List<ErrorAndLocation>> errorsIn) {
+            hash = hashIn;
+            descriptions = descriptionsIn;
+            errors = errorsIn;
+        }
+
+        List<RuleViolations> toFailures(final File pomFile) {
+            List<RuleViolations> failures = new ArrayList<>(descriptions.size());
+            for (int i = 0; i < descriptions.size(); i++) {
+                failures.add(new RuleViolations(pomFile, descriptions.get(i), errors.get(i)));
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of {@link PomRule}s compiled into a single {@link PomPathMatcher}, so that every rule is
+ * evaluated in one pass over the pom.  Rules that share a path are tested together against the text
+ * of each matched element.  A compiled set is immutable and may be shared between threads.  Poms are
+ * scanned within its {@link PomLimits}, which don't change the errors found, only which poms can be read,
+ * so the limits are part of its {@link #describe() description}.
+ */
+public final class RuleSet {
+
+    private final List<PomRule> rules;
+    private final PomPathMatcher<PomRule[]> matcher;
+    private final PomPrefilter prefilter;
+    private final String rulesDescription;
+    private final String description;
+    private final PomLimits limits;
+
+    private RuleSet(final List<PomRule> rulesIn, final PomPathMatcher<PomRule[]> matcherIn,
+                    final PomPrefilter prefilterIn, final String rulesDescriptionIn, final PomLimits limitsIn) {
+        rules = rulesIn;
+        matcher = matcherIn;
+        prefilter = prefilterIn;
+        rulesDescription = rulesDescriptionIn;
+        description = describe(rulesDescriptionIn, limitsIn);
+        limits = limitsIn;
+    }
+
+    /**
+     * @param rules the rules to check, in the order that they are reported
+     * @return the compiled rules
+     * @throws IllegalArgumentException if a rule has no path, or a path that does not name an element
+     *                                  within the root element, whose errors would have nothing to belong to
+     */
+    public static RuleSet compile(final List<? extends PomRule> rules) {
+        Map<String, List<PomRule>> byPath = new LinkedHashMap<>();
+        for (PomRule rule : rules) {
+            if (rule.getPath() == null) {
+                throw new IllegalArgumentException("A rule must have a path: " + rule);
+            }
+            if (steps(rule.getPath()) < 2) {
+                throw new IllegalArgumentException("A rule must match elements within the root element, such as "
+                        + "/project/version: " + rule.getPath());
+            }
+            List<PomRule> pathRules = byPath.get(rule.getPath());
+            if (pathRules == null) {
+                pathRules = new ArrayList<>();
+                byPath.put(rule.getPath(), pathRules);
+            }
+            pathRules.add(rule);
+        }
+        Map<String, PomRule[]> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, List<PomRule>> entry : byPath.entrySet()) {
+            paths.put(entry.getKey(), entry.getValue().toArray(new PomRule[0]));
+        }
+        List<PomRule> compiledRules = Collections.unmodifiableList(new ArrayList<PomRule>(rules));
+        return new RuleSet(compiledRules, PomPathMatcher.compile(paths, RuleSet::merge),
+                PomPrefilter.compile(compiledRules), describe(compiledRules), PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param limitsIn the limits to scan poms within
+     * @return the same rules, scanning poms within the limits
+     */
+    public RuleSet withLimits(final PomLimits limitsIn) {
+        return limitsIn.equals(limits) ? this : new RuleSet(rules, matcher, prefilter, rulesDescription, limitsIn);
+    }
+
+    public List<PomRule> getRules() {
+        return rules;
+    }
+
+    public PomLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Check every rule against a pom in a single pass.
+     *
+     * @param pomFile the pom to check
+     * @return the errors found, grouped by rule, in document order
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public Map<PomRule, List<ErrorAndLocation>> scan(final File pomFile) throws IOException, XMLStreamException {
+        return new MappedPomScanner<>(matcher, prefilter, false, limits).scanViolations(pomFile, RuleSet::violations);
+    }
+
+    /**
+     * Check every rule against a pom in a single pass, reporting the first rule (in the order the rules
+     * were given) that the pom breaks.
+     *
+     * @param pomFile the pom to check
+     * @return the errors of the first rule broken, or null if the pom passes
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public RuleViolations check(final File pomFile) throws IOException, XMLStreamException {
+        List<RuleViolations> failures = checkAll(pomFile);
+        return failures.isEmpty() ? null : failures.get(0);
+    }
+
+    /**
+     * Check every rule against a pom in a single pass, reporting every rule that the pom breaks.
+     *
+     * @param pomFile the pom to check
+     * @return the errors of each rule broken, in the order the rules were given, or an empty list if
+     *         the pom passes
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public List<RuleViolations> checkAll(final File pomFile)
+            throws IOException, XMLStreamException {
+        return failures(pomFile, scan(pomFile));
+    }
+
+    /**
+     * Check the rules against a pom only until the first element in error is found, for when all that
+     * matters is whether the pom passes.  Parsing stops as soon as the element's owner has closed, and a
+     * pom that can be shown not to break any rule from its raw bytes alone is not parsed at all.
+     *
+     * @param pomFile the pom to check
+     * @return the errors of the first element in error, or an empty list if the pom passes
+     * @throws IOException        if the pom could not be read
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public List<RuleViolations> checkFirst(final File pomFile)
+            throws IOException, XMLStreamException {
+        return failures(pomFile, new MappedPomScanner<>(matcher, prefilter, true, limits)
+                .scanViolations(pomFile, RuleSet::violations));
+    }
+
+    private List<RuleViolations> failures(final File pomFile,
+                                                               final Map<PomRule, List<ErrorAndLocation>> errors) {
+        if (errors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RuleViolations> failures = new ArrayList<>();
+        for (PomRule rule : rules) {
+            List<ErrorAndLocation> artifacts = errors.get(rule);
+            if (artifacts != null && !artifacts.isEmpty()) {
+                failures.add(new RuleViolations(pomFile, rule.getMessage(), artifacts));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return a description of every rule and of the limits, which changes whenever either does
+     */
+    public String describe() {
+        return description;
+    }
+
+    /**
+     * @param rules  the rules to describe
+     * @param limits the limits poms are scanned within
+     * @return the description a set compiled from the rules, with the limits, would have
+     */
+    static String describe(final List<? extends PomRule> rules, final PomLimits limits) {
+        return describe(describe(rules), limits);
+    }
+
+    private static String describe(final List<? extends PomRule> rules) {
+        StringBuilder description = new StringBuilder();
+        for (PomRule rule : rules) {
+            description.append(rule.getClass().getName()).append(' ').append(rule.describe()).append('\n');
+        }
+        return description.toString();
+    }
+
+    private static String describe(final String rulesDescription, final PomLimits limits) {
+        return rulesDescription + "limits: " + limits + "\n";
+    }
+
+    /**
+     * @return the rules of two paths that match the same element, such as "/project/properties/*" and
+     *         "/project/properties/junit.version", each rule once
+     */
+    static PomRule[] merge(final PomRule[] first, final PomRule[] second) {
+        Set<PomRule> merged = new LinkedHashSet<>(Arrays.asList(first));
+        merged.addAll(Arrays.asList(second));
+        return merged.toArray(new PomRule[0]);
+    }
+
+    private static int steps(final String path) {
+        int steps = 0;
+        for (String step : path.split("/")) {
+            if (!step.isEmpty()) {
+                steps++;
+            }
+        }
+        return steps;
+    }
+
+    private static List<PomRule> violations(final PomRule[] pathRules, final String value) {
+        if (pathRules.length == 1) {
+            return pathRules[0].isViolation(value) ? Collections.singletonList(pathRules[0])
+                    : Collections.<PomRule>emptyList();
+        }
+        List<PomRule> broken = null;
+        for (PomRule rule : pathRules) {
+            if (rule.isViolation(value)) {
+                if (broken == null) {
+                    broken = new ArrayList<>();
+                }
+                broken.add(rule);
+            }
+        }
+        return broken == null ? Collections.<PomRule>emptyList() : broken;
+    }
+}
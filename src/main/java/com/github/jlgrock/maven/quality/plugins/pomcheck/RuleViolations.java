@@ -0,0 +1,80 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The errors of a single rule broken by a pom.  This is an immutable value, and never thrown; the mojos
+ * gather these into a {@link ViolationReport} and fail once, with its message, at the end of the check.
+ */
+public final class RuleViolations {
+    private static final String PROCESSING_DESCRIPTION = "Exception processing";
+
+    private final File file;
+    private final List<ErrorAndLocation> errors;
+    private final String description;
+
+    /**
+     * @param fileIn        The file that has the errors that we are tracking.
+     * @param descriptionIn the description of the failure.
+     * @param errorsIn      the errors that are received
+     */
+    public RuleViolations(
+            final File fileIn,
+            final String descriptionIn,
+            final List<ErrorAndLocation> errorsIn) {
+        file = fileIn;
+        description = descriptionIn;
+        errors = Collections.unmodifiableList(errorsIn);
+    }
+
+    /**
+     * @param fileIn  the file that could not be checked
+     * @param message why it could not be checked
+     * @return the failure of a file that could not be checked at all
+     */
+    public static RuleViolations processingFailure(final File fileIn, final String message) {
+        return new RuleViolations(fileIn, PROCESSING_DESCRIPTION,
+                Collections.singletonList(new ErrorAndLocation(message, null, null)));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<ErrorAndLocation> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the description followed by each error and where it is, one per line
+     */
+    public String getMessage() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(description).append(":\n");
+        for (ErrorAndLocation error : errors) {
+            stringBuilder.append(error.getOutput());
+            if (error.getLine() != null && !error.getLine().isEmpty()) {
+                stringBuilder.append(" on line ").append(error.getLine());
+            }
+            if (error.getColumn() != null && !error.getColumn().isEmpty()) {
+                stringBuilder.append(" in column ").append(error.getColumn());
+            }
+            if (file != null) {
+                stringBuilder.append(" in file ").append(file.getAbsolutePath());
+            }
+            stringBuilder.append("\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
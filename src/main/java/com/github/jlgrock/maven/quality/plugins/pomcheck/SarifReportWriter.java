@@ -0,0 +1,104 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results as a SARIF 2.1.0 log, which code scanning tools can show as annotations on the poms.
+ * Each distinct failure description becomes a rule of the run.
+ */
+public class SarifReportWriter implements ReportWriter {
+
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String TOOL_NAME = "pom-check-maven-plugin";
+
+    @Override
+    public String getExtension() {
+        return "sarif";
+    }
+
+    @Override
+    public void write(final String toolVersion, final List<PomCheckResult> results, final Writer out)
+            throws IOException {
+        Map<String, String> ruleIds = new LinkedHashMap<>();
+        for (PomCheckResult result : results) {
+            for (RuleViolations failure : result.getFailures()) {
+                if (!ruleIds.containsKey(failure.getDescription())) {
+                    ruleIds.put(failure.getDescription(), "POMCHECK" + (ruleIds.size() + 1));
+                }
+            }
+        }
+
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("$schema").value(SCHEMA);
+        json.name("version").value("2.1.0");
+        json.name("runs").beginArray().beginObject();
+        json.name("tool").beginObject().name("driver").beginObject();
+        json.name("name").value(TOOL_NAME);
+        json.name("version").value(toolVersion);
+        json.name("rules").beginArray();
+        for (Map.Entry<String, String> rule : ruleIds.entrySet()) {
+            json.beginObject();
+            json.name("id").value(rule.getValue());
+            json.name("shortDescription").beginObject().name("text").value(rule.getKey()).endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject().endObject();
+
+        json.name("results").beginArray();
+        for (PomCheckResult result : results) {
+            String uri = result.getFile().getAbsoluteFile().toURI().toString();
+            for (RuleViolations failure : result.getFailures()) {
+                for (ErrorAndLocation error : failure.getErrors()) {
+                    json.beginObject();
+                    json.name("ruleId").value(ruleIds.get(failure.getDescription()));
+                    json.name("level").value("error");
+                    json.name("message").beginObject()
+                            .name("text").value(failure.getDescription() + ": " + error.getOutput()).endObject();
+                    json.name("locations").beginArray().beginObject();
+                    json.name("physicalLocation").beginObject();
+                    json.name("artifactLocation").beginObject().name("uri").value(uri).endObject();
+                    writeRegion(json, error);
+                    json.endObject();
+                    json.endObject().endArray();
+                    json.endObject();
+                }
+            }
+        }
+        json.endArray();
+        json.endObject().endArray();
+        json.endObject();
+        out.flush();
+    }
+
+    private static void writeRegion(final JsonWriter json, final ErrorAndLocation error) throws IOException {
+        Integer line = parse(error.getLine());
+        if (line == null) {
+            return;
+        }
+        json.name("region").beginObject();
+        json.name("startLine").value(line);
+        Integer column = parse(error.getColumn());
+        if (column != null) {
+            json.name("startColumn").value(column);
+        }
+        json.endObject();
+    }
+
+    private static Integer parse(final String number) {
+        if (number == null || number.isEmpty()) {
+            return null;
+        }
+        try {
+            int value = Integer.parseInt(number);
+            return value > 0 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
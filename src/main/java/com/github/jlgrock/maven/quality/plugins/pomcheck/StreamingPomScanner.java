@@ -0,0 +1,260 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * Checks a pom file in a single forward pass using StAX.  Rather than building a DOM and running an
+ * xpath expression per section, the scanner tracks its position with a {@link PomPathMatcher} and
+ * only buffers the text of the elements that are being checked, along with the coordinates of the
+ * element that owns them.  A pom breaking any of its {@link PomLimits} fails as soon as the limit is
+ * reached.
+ *
+ * @param <K> the key of the paths being checked, used to group the errors that are found
+ */
+public class StreamingPomScanner<K> {
+
+    private static final String GROUP_ID = "groupId";
+    private static final String ARTIFACT_ID = "artifactId";
+    private static final String VERSION = "version";
+
+    private final PomPathMatcher<K> matcher;
+    private final boolean firstOnly;
+    private final PomLimits limits;
+
+    /**
+     * @param matcherIn the compiled paths to check
+     */
+    public StreamingPomScanner(final PomPathMatcher<K> matcherIn) {
+        this(matcherIn, PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param matcherIn the compiled paths to check
+     * @param limitsIn  the limits of the poms scanned
+     */
+    public StreamingPomScanner(final PomPathMatcher<K> matcherIn, final PomLimits limitsIn) {
+        this(matcherIn, false, limitsIn);
+    }
+
+    /**
+     * @param matcherIn   the compiled paths to check
+     * @param firstOnlyIn true to stop at the first element in error, once its owner has closed
+     * @param limitsIn    the limits of the poms scanned
+     */
+    StreamingPomScanner(final PomPathMatcher<K> matcherIn, final boolean firstOnlyIn, final PomLimits limitsIn) {
+        matcher = matcherIn;
+        firstOnly = firstOnlyIn;
+        limits = limitsIn;
+    }
+
+    /**
+     * Scan a pom, testing the text of every element that matches one of the compiled paths.
+     *
+     * @param is          the pom contents
+     * @param isViolation tests the key and text of a matched element, returning true when it is in error
+     * @return the errors found, grouped by the key of the path that was matched, in document order
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public Map<K, List<ErrorAndLocation>> scan(final InputStream is, final BiPredicate<K, String> isViolation)
+            throws XMLStreamException {
+        return scanViolations(is, asViolations(isViolation));
+    }
+
+    /**
+     * Scan a pom, where each matched element may break any number of rules.
+     *
+     * @param is         the pom contents
+     * @param violations given the key and text of a matched element, returns the rules it breaks
+     * @param <R>        the type of rule
+     * @return the errors found, grouped by rule, in document order
+     * @throws XMLStreamException if the pom could not be parsed, or breaks one of the limits
+     */
+    public <R> Map<R, List<ErrorAndLocation>> scanViolations(final InputStream is,
+                                                             final BiFunction<K, String, List<R>> violations)
+            throws XMLStreamException {
+        long start = System.nanoTime();
+        XMLStreamReader reader = XmlParsers.inputFactory().createXMLStreamReader(is);
+        try {
+            return scan(reader, violations);
+        } catch (RuntimeException e) {
+            // woodstox reports malformed text, such as a character reference beyond unicode, lazily from
+            // the text accessors, wrapped in an unchecked exception
+            if (e.getCause() instanceof XMLStreamException) {
+                throw (XMLStreamException) e.getCause();
+            }
+            throw e;
+        } finally {
+            reader.close();
+            PomCheckMetrics.time(PomCheckMetrics.Phase.SCAN, start);
+        }
+    }
+
+    /**
+     * @return a function reporting the key itself whenever the predicate finds a violation
+     */
+    static <K> BiFunction<K, String, List<K>> asViolations(final BiPredicate<K, String> isViolation) {
+        return (key, value) -> isViolation.test(key, value) ? Collections.singletonList(key) : Collections.<K>emptyList();
+    }
+
+    private <R> Map<R, List<ErrorAndLocation>> scan(final XMLStreamReader reader,
+                                                    final BiFunction<K, String, List<R>> violations)
+            throws XMLStreamException {
+        Map<R, List<ErrorAndLocation>> errors = new HashMap<>();
+        int[] states = new int[16];
+        Owner<R>[] owners = newOwners(16);
+        states[0] = matcher.root();
+        int depth = 0;
+
+        StringBuilder text = new StringBuilder();
+        int captureDepth = 0;
+        int captureLine = 0;
+        int captureColumn = 0;
+        int elements = 0;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    elements++;
+                    if (elements > limits.getMaxElements()) {
+                        throw new XMLStreamException(limits.elementsExceeded(), reader.getLocation());
+                    }
+                    String name = reader.getLocalName();
+                    int state = matcher.next(states[depth], name);
+                    depth++;
+                    if (depth > limits.getMaxDepth()) {
+                        throw new XMLStreamException(limits.depthExceeded(), reader.getLocation());
+                    }
+                    if (depth == states.length) {
+                        states = Arrays.copyOf(states, depth * 2);
+                        owners = Arrays.copyOf(owners, depth * 2);
+                    }
+                    states[depth] = state;
+                    owners[depth] = matcher.isOwner(state) ? new Owner<R>() : null;
+                    if (captureDepth == 0
+                            && (matcher.keyOf(state) != null || (owners[depth - 1] != null && isCoordinate(name)))) {
+                        captureDepth = depth;
+                        captureLine = reader.getLocation().getLineNumber();
+                        captureColumn = reader.getLocation().getColumnNumber();
+                        text.setLength(0);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (captureDepth != 0) {
+                        if (text.length() + reader.getTextLength() > limits.getMaxTextLength()) {
+                            throw new XMLStreamException(limits.textLengthExceeded(), reader.getLocation());
+                        }
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth == captureDepth) {
+                        captureDepth = 0;
+                        Owner<R> owner = owners[depth - 1];
+                        K key = matcher.keyOf(states[depth]);
+                        String value = text.toString();
+                        if (owner != null) {
+                            owner.setCoordinate(reader.getLocalName(), value);
+                        }
+                        if (key != null && !(firstOnly && owner.hasViolations())) {
+                            owner.addViolations(violations.apply(key, value), captureLine, captureColumn);
+                        }
+                    }
+                    if (owners[depth] != null) {
+                        owners[depth].report(errors);
+                        owners[depth] = null;
+                        if (firstOnly && !errors.isEmpty()) {
+                            PomCheckMetrics.elements(elements);
+                            return errors;
+                        }
+                    }
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+        PomCheckMetrics.elements(elements);
+        return errors;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> Owner<K>[] newOwners(final int size) {
+        return new Owner[size];
+    }
+
+    private static boolean isCoordinate(final String name) {
+        return GROUP_ID.equals(name) || ARTIFACT_ID.equals(name) || VERSION.equals(name);
+    }
+
+    /**
+     * The element enclosing one or more checked elements.  Violations are held here until the owner is
+     * closed, since its coordinates may be declared after the element in error.
+     */
+    static final class Owner<K> {
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private List<K> violationKeys;
+        private List<Integer> violationLines;
+        private List<Integer> violationColumns;
+
+        void setCoordinate(final String name, final String value) {
+            if (groupId == null && GROUP_ID.equals(name)) {
+                groupId = value;
+            } else if (artifactId == null && ARTIFACT_ID.equals(name)) {
+                artifactId = value;
+            } else if (version == null && VERSION.equals(name)) {
+                version = value;
+            }
+        }
+
+        void addViolations(final List<K> keys, final int line, final int column) {
+            if (keys.isEmpty()) {
+                return;
+            }
+            if (violationKeys == null) {
+                violationKeys = new ArrayList<>();
+                violationLines = new ArrayList<>();
+                violationColumns = new ArrayList<>();
+            }
+            for (K key : keys) {
+                violationKeys.add(key);
+                violationLines.add(line);
+                violationColumns.add(column);
+            }
+        }
+
+        boolean hasViolations() {
+            return violationKeys != null;
+        }
+
+        void report(final Map<K, List<ErrorAndLocation>> errors) {
+            if (violationKeys == null) {
+                return;
+            }
+            ArtifactCoordinates coordinates = ArtifactCoordinates.of(groupId, artifactId, version);
+            for (int i = 0; i < violationKeys.size(); i++) {
+                List<ErrorAndLocation> keyErrors = errors.get(violationKeys.get(i));
+                if (keyErrors == null) {
+                    keyErrors = new ArrayList<>();
+                    errors.put(violationKeys.get(i), keyErrors);
+                }
+                keyErrors.add(new ErrorAndLocation(coordinates, String.valueOf(violationLines.get(i)),
+                        String.valueOf(violationColumns.get(i))));
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies that nothing a project depends on is, or itself depends on, a snapshot.  release-check only
+ * finds the snapshots a pom declares, so a release dependency that depends on a snapshot passes it; this
+ * goal checks every artifact maven resolved for the project, in any scope, and fails if any is a snapshot.
+ * Since the graph is the one maven resolved, the project's dependency management, exclusions and version
+ * mediation all apply, version ranges are resolved, and a pom that can't be found fails the resolution.
+ *
+ * Dependencies on the other modules of the reactor, and whatever is reached through them, are not
+ * reported, since they are released together and each is checked on its own.  Only the current project's
+ * dependencies are resolved, so each project is checked by itself, even with pomcheck.aggregate set.
+ */
+@Mojo(name = "transitive-release-check", defaultPhase = LifecyclePhase.VALIDATE,
+        requiresDependencyResolution = ResolutionScope.TEST, threadSafe = true)
+public class TransitiveReleaseMojo extends AbstractPomChecker {
+
+    private static final String SNAPSHOT_DESCRIPTION = "You must not depend on snapshots, however indirectly.\n"
+            + "The following dependencies reach a snapshot:\n";
+
+    @Component
+    private BuildContext buildContext;
+
+    /**
+     * The Maven Project.
+     */
+    @Component
+    protected MavenProject mavenProject;
+
+    /**
+     * Default constructor (for when not testing).
+     */
+    public TransitiveReleaseMojo() {
+    }
+
+    /**
+     * Constructor used for testing.
+     *
+     * @param buildContextIn the buildContext for logging and such.
+     * @param mavenProjectIn the maven mavenProject to execute on.
+     */
+    TransitiveReleaseMojo(final BuildContext buildContextIn, final MavenProject mavenProjectIn) {
+        buildContext = buildContextIn;
+        mavenProject = mavenProjectIn;
+    }
+
+    @Override
+    protected MavenProject getMavenProject() {
+        return mavenProject;
+    }
+
+    @Override
+    protected BuildContext getBuildContext() {
+        return buildContext;
+    }
+
+    /**
+     * Nothing is checked by rules; see {@link #findAllErrors(File)}.
+     */
+    @Override
+    protected List<PomRule> getBuiltInRules() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The result depends on the resolved dependencies as well as the pom, so it is never cached.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Only the current project's dependencies are resolved, so each project checks its own.
+     */
+    @Override
+    protected boolean isAggregate() {
+        return false;
+    }
+
+    /**
+     * Find every resolved artifact of the project that is a snapshot, with the dependencies leading to it.
+     *
+     * @param pomFile the pom of the project
+     * @return the dependencies reaching a snapshot, or an empty list if there are none
+     * @throws IOException  if the pom could not be read
+     * @throws SAXException if the pom could not be parsed
+     */
+    @Override
+    protected List<RuleViolations> findAllErrors(final File pomFile)
+            throws IOException, XMLStreamException, SAXException {
+        Set<String> reactor = reactorArtifacts();
+        Map<String, PomModel.Dependency> declared = null;
+        List<ErrorAndLocation> errors = new ArrayList<>();
+        for (Object resolved : getMavenProject().getArtifacts()) {
+            Artifact artifact = (Artifact) resolved;
+            List<String> trail = artifact.getDependencyTrail();
+            if (!artifact.isSnapshot() || trail == null || trail.size() < 2 || throughReactor(trail, reactor)) {
+                continue;
+            }
+            if (declared == null) {
+                declared = declaredDependencies(pomFile);
+            }
+            String path = String.join(" -> ", trail.subList(1, trail.size()));
+            PomModel.Dependency dependency = declared.get(groupAndArtifact(trail.get(1)));
+            if (dependency == null) {
+                errors.add(new ErrorAndLocation(path, null, null));
+            } else if (pomFile.getCanonicalFile().equals(dependency.getFile().getCanonicalFile())) {
+                errors.add(new ErrorAndLocation(path, String.valueOf(dependency.getLine()), null));
+            } else {
+                errors.add(new ErrorAndLocation(path + " (declared on line " + dependency.getLine() + " of "
+                        + dependency.getFile() + ")", null, null));
+            }
+        }
+        if (errors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new RuleViolations(pomFile, SNAPSHOT_DESCRIPTION, errors));
+    }
+
+    /**
+     * @return true when the trail passes through a module of the reactor, other than the project itself
+     */
+    private static boolean throughReactor(final List<String> trail, final Set<String> reactor) {
+        for (String id : trail.subList(1, trail.size())) {
+            if (reactor.contains(groupAndArtifact(id))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the dependencies declared by the pom and its parents, by "groupId:artifactId", so that the
+     *         line of the dependency leading to a snapshot can be reported
+     */
+    private Map<String, PomModel.Dependency> declaredDependencies(final File pomFile)
+            throws IOException, SAXException {
+        EffectivePom pom = new EffectivePomResolver(getModelCache(), null, getLimits()).resolve(pomFile);
+        Map<String, PomModel.Dependency> declared = new HashMap<>();
+        for (PomModel model : pom.getChain()) {
+            for (PomModel.Dependency dependency : model.getDependencies()) {
+                declared.putIfAbsent(pom.interpolate(dependency.getGroupId()) + ':'
+                        + pom.interpolate(dependency.getArtifactId()), dependency);
+            }
+        }
+        return declared;
+    }
+
+    /**
+     * @param id the id of an artifact in a dependency trail, "groupId:artifactId:type:version"
+     * @return its "groupId:artifactId"
+     */
+    private static String groupAndArtifact(final String id) {
+        int groupEnd = id.indexOf(':');
+        int artifactEnd = groupEnd < 0 ? -1 : id.indexOf(':', groupEnd + 1);
+        return artifactEnd < 0 ? id : id.substring(0, artifactEnd);
+    }
+
+    /**
+     * @return the "groupId:artifactId" of every project in the reactor
+     */
+    private Set<String> reactorArtifacts() {
+        Set<String> artifacts = new HashSet<>();
+        List<MavenProject> projects = reactorProjects == null || reactorProjects.isEmpty()
+                ? Collections.singletonList(getMavenProject()) : reactorProjects;
+        for (MavenProject project : projects) {
+            artifacts.add(project.getGroupId() + ':' + project.getArtifactId());
+        }
+        return artifacts;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+/**
+ * Classifies version and property values in a single pass over their characters, without regular
+ * expressions and without allocating.  Most property values are not versions at all, and some are very
+ * long, so the backtracking patterns this replaces were the most expensive part of a check.
+ *
+ * {@link VersionKind#SNAPSHOT} and {@link VersionKind#PROPERTY_VERSION} give exactly the same answers as
+ * the patterns {@code \w*.*(-SNAPSHOT)\w*} and {@code (\w*)(\$\{[a-zA-Z0-9\-.]*\})(.*)} they replace.
+ */
+public final class VersionClassifier {
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private VersionClassifier() {
+    }
+
+    /**
+     * @param value the value to classify
+     * @return the bitset of the {@link VersionKind#mask()}s of every kind the value is
+     */
+    public static int classify(final CharSequence value) {
+        int classification = 0;
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == '$' && i + 1 < length && value.charAt(i + 1) == '{') {
+                int end = indexOf(value, '}', i + 2);
+                if (end >= 0) {
+                    classification |= VersionKind.REFERENCE.mask();
+                    i = end + 1;
+                    continue;
+                }
+            }
+            classification |= VersionKind.LITERAL.mask();
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                classification |= VersionKind.QUALIFIER.mask();
+            }
+            i++;
+        }
+        if (length > 1 && (value.charAt(0) == '[' || value.charAt(0) == '(')
+                && (value.charAt(length - 1) == ']' || value.charAt(length - 1) == ')')) {
+            classification |= VersionKind.RANGE.mask();
+        }
+        if (isSnapshot(value)) {
+            classification |= VersionKind.SNAPSHOT.mask();
+        }
+        if (isPropertyVersion(value)) {
+            classification |= VersionKind.PROPERTY_VERSION.mask();
+        }
+        return classification;
+    }
+
+    /**
+     * Matches {@code \w*.*(-SNAPSHOT)\w*}.  Since '-' is not a word character, the value can only match
+     * if it ends in a run of word characters that starts with "SNAPSHOT" and follows a '-'.
+     *
+     * @param value the value to check
+     * @return true if the value is a snapshot
+     */
+    public static boolean isSnapshot(final CharSequence value) {
+        int wordStart = value.length();
+        while (wordStart > 0 && isWordCharacter(value.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        int dash = wordStart - 1;
+        if (dash < 0 || value.charAt(dash) != '-' || value.length() - wordStart < SNAPSHOT.length()) {
+            return false;
+        }
+        for (int i = 0; i < SNAPSHOT.length(); i++) {
+            if (value.charAt(wordStart + i) != SNAPSHOT.charAt(i)) {
+                return false;
+            }
+        }
+        return !hasLineTerminator(value, 0, dash);
+    }
+
+    /**
+     * Matches {@code (\w*)(\$\{[a-zA-Z0-9\-.]*\})(.*)}.
+     *
+     * @param value the value to check
+     * @return true if the version is given by a property
+     */
+    public static boolean isPropertyVersion(final CharSequence value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && isWordCharacter(value.charAt(i))) {
+            i++;
+        }
+        if (i + 1 >= length || value.charAt(i) != '$' || value.charAt(i + 1) != '{') {
+            return false;
+        }
+        i += 2;
+        while (i < length && isPropertyNameCharacter(value.charAt(i))) {
+            i++;
+        }
+        return i < length && value.charAt(i) == '}' && !hasLineTerminator(value, i + 1, length);
+    }
+
+    private static int indexOf(final CharSequence value, final char c, final int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordCharacter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isPropertyNameCharacter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.';
+    }
+
+    /**
+     * @return true if the range holds a character that '.' does not match in a pattern
+     */
+    private static boolean hasLineTerminator(final CharSequence value, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+/**
+ * The kinds of value found in a version or property, as worked out by {@link VersionClassifier}.
+ * A value may be of several kinds at once, so a classification is a bitset of {@link #mask()}s.
+ */
+public enum VersionKind {
+    /**
+     * Has text outside of any property reference, such as "1.0" or "1.0-${suffix}".
+     */
+    LITERAL,
+    /**
+     * Has at least one property reference, such as "${junit.version}".
+     */
+    REFERENCE,
+    /**
+     * A snapshot, such as "1.0-SNAPSHOT": "-SNAPSHOT" followed by nothing but word characters.
+     */
+    SNAPSHOT,
+    /**
+     * A version range, such as "[1.0,2.0)".
+     */
+    RANGE,
+    /**
+     * Has letters in its literal text, such as "1.0-beta-1" or "1.0.RELEASE".
+     */
+    QUALIFIER,
+    /**
+     * A version given by a property, as the version-check goal requires: optional word characters,
+     * then a reference to a property named with letters, digits, '.' and '-', then anything.
+     */
+    PROPERTY_VERSION;
+
+    private final int mask = 1 << ordinal();
+
+    /**
+     * @return the bit of this kind in a classification
+     */
+    public int mask() {
+        return mask;
+    }
+
+    /**
+     * @param classification a classification from {@link VersionClassifier#classify(CharSequence)}
+     * @return true if the classification includes this kind
+     */
+    public boolean isIn(final int classification) {
+        return (classification & mask) != 0;
+    }
+
+    /**
+     * @param classification a classification
+     * @return true if the value has both literal text and property references
+     */
+    public static boolean isMixed(final int classification) {
+        return LITERAL.isIn(classification) && REFERENCE.isIn(classification);
+    }
+
+    /**
+     * @param kinds a comma separated list of kind names, such as "SNAPSHOT, RANGE"
+     * @return the combined mask of the kinds, or 0 if there are none
+     * @throws IllegalArgumentException if a name is not a kind
+     */
+    public static int maskOf(final String kinds) {
+        int mask = 0;
+        if (kinds == null) {
+            return mask;
+        }
+        for (String kind : kinds.split(",")) {
+            if (!kind.trim().isEmpty()) {
+                mask |= valueOf(kind.trim()).mask();
+            }
+        }
+        return mask;
+    }
+}
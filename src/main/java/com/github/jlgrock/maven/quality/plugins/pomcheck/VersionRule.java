@@ -0,0 +1,153 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.util.regex.Pattern;
+
+/**
+ * A rule configured in the pom, checking the elements at a path against regular expressions.
+ *
+ * <pre>
+ * &lt;rules&gt;
+ *   &lt;versionRule&gt;
+ *     &lt;path&gt;/project/build/plugins/plugin/version&lt;/path&gt;
+ *     &lt;forbidden&gt;.*-(alpha|beta).*&lt;/forbidden&gt;
+ *     &lt;message&gt;Pre-release plugins are not allowed&lt;/message&gt;
+ *   &lt;/versionRule&gt;
+ * &lt;/rules&gt;
+ * </pre>
+ *
+ * A value is in error if it does not match the allowed pattern or does match the forbidden pattern.
+ * Values may also be checked against the {@link VersionKind}s, without a regular expression: a value is
+ * in error if it lacks any of the required kinds or has any of the forbidden ones, given as comma
+ * separated names such as {@code <forbiddenKinds>SNAPSHOT, RANGE</forbiddenKinds>}.  When nothing is
+ * given, every element at the path is in error.
+ */
+public class VersionRule implements PomRule {
+
+    private String path;
+    private String allowed;
+    private String forbidden;
+    private String requiredKinds;
+    private String forbiddenKinds;
+    private String message;
+
+    private transient volatile int requiredMask = -1;
+    private transient volatile int forbiddenMask = -1;
+    private transient volatile Pattern allowedPattern;
+    private transient volatile Pattern forbiddenPattern;
+
+    /**
+     * Default constructor, for maven to configure.
+     */
+    public VersionRule() {
+    }
+
+    /**
+     * @param pathIn      the path of the elements to check
+     * @param allowedIn   the pattern every value must match, or null
+     * @param forbiddenIn the pattern no value may match, or null
+     * @param messageIn   the description of the errors
+     */
+    public VersionRule(final String pathIn, final String allowedIn, final String forbiddenIn, final String messageIn) {
+        this(pathIn, allowedIn, forbiddenIn, null, null, messageIn);
+    }
+
+    /**
+     * @param pathIn           the path of the elements to check
+     * @param allowedIn        the pattern every value must match, or null
+     * @param forbiddenIn      the pattern no value may match, or null
+     * @param requiredKindsIn  the kinds every value must be, or null
+     * @param forbiddenKindsIn the kinds no value may be, or null
+     * @param messageIn        the description of the errors
+     */
+    public VersionRule(final String pathIn, final String allowedIn, final String forbiddenIn,
+                       final String requiredKindsIn, final String forbiddenKindsIn, final String messageIn) {
+        path = pathIn;
+        allowed = allowedIn;
+        forbidden = forbiddenIn;
+        requiredKinds = requiredKindsIn;
+        forbiddenKinds = forbiddenKindsIn;
+        message = messageIn;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    public String getAllowed() {
+        return allowed;
+    }
+
+    public String getForbidden() {
+        return forbidden;
+    }
+
+    public String getRequiredKinds() {
+        return requiredKinds;
+    }
+
+    public String getForbiddenKinds() {
+        return forbiddenKinds;
+    }
+
+    @Override
+    public String getMessage() {
+        return message == null ? "The following artifacts break the rule for " + path + ":" : message;
+    }
+
+    @Override
+    public boolean isViolation(final String value) {
+        int required = requiredMask;
+        int forbiddenIn = forbiddenMask;
+        if (required < 0 || forbiddenIn < 0) {
+            required = VersionKind.maskOf(requiredKinds);
+            forbiddenIn = VersionKind.maskOf(forbiddenKinds);
+            requiredMask = required;
+            forbiddenMask = forbiddenIn;
+        }
+        if (required != 0 || forbiddenIn != 0) {
+            int classification = VersionClassifier.classify(value);
+            if ((classification & required) != required || (classification & forbiddenIn) != 0) {
+                return true;
+            }
+        }
+        Pattern allowedIn = allowedPattern;
+        if (allowedIn == null && allowed != null) {
+            allowedIn = Pattern.compile(allowed);
+            allowedPattern = allowedIn;
+        }
+        Pattern forbiddenPatternIn = forbiddenPattern;
+        if (forbiddenPatternIn == null && forbidden != null) {
+            forbiddenPatternIn = Pattern.compile(forbidden);
+            forbiddenPattern = forbiddenPatternIn;
+        }
+        if (allowedIn == null && forbiddenPatternIn == null) {
+            return required == 0 && forbiddenIn == 0;
+        }
+        return (allowedIn != null && !allowedIn.matcher(value).matches())
+                || (forbiddenPatternIn != null && forbiddenPatternIn.matcher(value).matches());
+    }
+
+    /**
+     * @return "-SNAPSHOT" when the rule only forbids snapshots, since every snapshot contains it
+     */
+    @Override
+    public String getRequiredText() {
+        if (allowed == null && forbidden == null && VersionKind.maskOf(requiredKinds) == 0
+                && VersionKind.maskOf(forbiddenKinds) == VersionKind.SNAPSHOT.mask()) {
+            return "-SNAPSHOT";
+        }
+        return null;
+    }
+
+    @Override
+    public String describe() {
+        return path + " allowed=" + allowed + " forbidden=" + forbidden + " requiredKinds=" + requiredKinds
+                + " forbiddenKinds=" + forbiddenKinds + " message=" + message;
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Accumulates the result of each pom checked, in the order they are added, so that every failure can be
+ * reported together once the check is over.  Only the thread collecting the results adds to a report.
+ */
+public final class ViolationReport {
+    private final List<PomCheckResult> results = new ArrayList<>();
+    private final List<RuleViolations> failures = new ArrayList<>();
+    private final Set<File> failedFiles = new HashSet<>();
+
+    /**
+     * @param result the result of the next pom checked
+     */
+    public void add(final PomCheckResult result) {
+        results.add(result);
+        for (RuleViolations failure : result.getFailures()) {
+            failures.add(failure);
+            failedFiles.add(failure.getFile());
+        }
+    }
+
+    /**
+     * @return the result of every pom checked, in the order they were added
+     */
+    public List<PomCheckResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return the errors of every rule broken, in the order they were added
+     */
+    public List<RuleViolations> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean isPassed() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return e.g. "2 of 5 pom files failed:", followed by the message of every failure
+     */
+    public String getMessage() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(failedFiles.size()).append(" of ").append(results.size()).append(" pom files failed:\n");
+        for (RuleViolations failure : failures) {
+            stringBuilder.append(failure.getMessage());
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Checks every pom in the reactor with the rules of version-check, then keeps watching them, checking
+ * each pom again as soon as it is saved and logging only the violations introduced and resolved.  This
+ * is for sweeps across many poms, such as upgrading dependencies, where running version-check again by
+ * hand after each change is slow.  See {@link PomWatcher} for how the poms are watched.
+ *
+ * The goal never fails; it runs until the build is stopped.
+ */
+@Mojo(name = "watch", threadSafe = true)
+public class WatchVersionsMojo extends AbstractPomChecker {
+
+    /**
+     * How long, in milliseconds, no pom must have been saved before the saved poms are checked again.
+     */
+    @Parameter(property = "pomcheck.debounce", defaultValue = "200")
+    protected long debounce = 200;
+
+    @Component
+    private BuildContext buildContext;
+
+    /**
+     * The Maven Project.
+     */
+    @Component
+    protected MavenProject mavenProject;
+
+    /**
+     * Default constructor (for when not testing).
+     */
+    public WatchVersionsMojo() {
+    }
+
+    /**
+     * Constructor used for testing.
+     *
+     * @param buildContextIn the buildContext for logging and such.
+     * @param mavenProjectIn the maven mavenProject to execute on.
+     */
+    WatchVersionsMojo(final BuildContext buildContextIn, final MavenProject mavenProjectIn) {
+        buildContext = buildContextIn;
+        mavenProject = mavenProjectIn;
+    }
+
+    @Override
+    protected MavenProject getMavenProject() {
+        return mavenProject;
+    }
+
+    @Override
+    protected BuildContext getBuildContext() {
+        return buildContext;
+    }
+
+    @Override
+    protected List<PomRule> getBuiltInRules() {
+        return BuiltInRules.VERSION_CHECK;
+    }
+
+    /**
+     * Every pom is watched, since any of them may be saved next.
+     */
+    @Override
+    protected boolean isChangedOnlySupported() {
+        return false;
+    }
+
+    /**
+     * The whole reactor is always watched.
+     */
+    @Override
+    protected boolean isAggregate() {
+        return true;
+    }
+
+    /**
+     * A watched pom is always read as it is now.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Watch every pom of the reactor until the build is stopped.
+     *
+     * @param pomFiles the pom of every project in the reactor
+     * @throws MojoExecutionException if the poms could not be watched
+     */
+    @Override
+    protected void checkFiles(final List<File> pomFiles) throws MojoExecutionException {
+        try (PomWatcher watcher = watch(pomFiles)) {
+            getLog().info("Watching " + pomFiles.size() + " pom files for changes, stop the build to finish");
+            watcher.await();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to watch pom files: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while watching pom files", e);
+        }
+    }
+
+    /**
+     * Check every pom, and start watching them.
+     *
+     * @param pomFiles the poms to watch
+     * @return the watcher, which must be closed
+     * @throws IOException if the poms could not be watched
+     */
+    PomWatcher watch(final List<File> pomFiles) throws IOException {
+        PomWatcher watcher = new PomWatcher(pomFiles, debounce, this::findAllErrors, this::log);
+        List<PomWatcher.Diff> initial;
+        try {
+            initial = watcher.start();
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        for (PomWatcher.Diff diff : initial) {
+            log(diff);
+        }
+        return watcher;
+    }
+
+    private void log(final PomWatcher.Diff diff) {
+        getLog().info(diff.getFile() + ": " + diff.getIntroduced().size() + " new, " + diff.getResolved().size()
+                + " resolved, " + diff.getRemaining() + " remaining");
+        for (String violation : diff.getIntroduced()) {
+            getLog().warn("  + " + violation);
+        }
+        for (String violation : diff.getResolved()) {
+            getLog().info("  - " + violation);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * Shared parsing infrastructure.  Looking up a parser factory scans the classpath, which costs far
+ * more than checking a small pom, so each factory is looked up once per class loader.  The parsers
+ * and stream factories themselves are not thread safe, so each thread gets its own, which it reuses
+ * for every pom it checks.  This keeps the mojos safe to run in parallel builds.
+ *
+ * Every parser processes securely: external entities and DTDs are never loaded, and the entities a pom
+ * declares itself may only be expanded as many times as its {@link PomLimits} allow.  StAX
+ * implementations don't agree on how to limit expansion, so StAX readers ignore the DTD altogether, and
+ * a pom using an entity it declares fails to parse, as it would in maven itself.
+ */
+public final class XmlParsers {
+
+    /**
+     * Understood by the JDK's own parsers; other parsers are left to their secure processing defaults.
+     */
+    static final String ENTITY_EXPANSION_LIMIT = "http://www.oracle.com/xml/jaxp/properties/entityExpansionLimit";
+
+    private static final SAXParserFactory SAX_PARSER_FACTORY = newSaxParserFactory();
+
+    private static final ThreadLocal<SAXParser> SAX_PARSER = ThreadLocal.withInitial(XmlParsers::newSaxParser);
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+            ThreadLocal.withInitial(XmlParsers::newInputFactory);
+
+    private XmlParsers() {
+    }
+
+    /**
+     * @return the SAX parser of the current thread, reset and ready for a new document
+     */
+    public static SAXParser saxParser() {
+        return saxParser(PomLimits.DEFAULT);
+    }
+
+    /**
+     * @param limits the limits of the documents it parses
+     * @return the SAX parser of the current thread, reset and ready for a new document
+     */
+    public static SAXParser saxParser(final PomLimits limits) {
+        SAXParser parser = SAX_PARSER.get();
+        parser.reset();
+        try {
+            parser.setProperty(ENTITY_EXPANSION_LIMIT, String.valueOf(limits.getMaxEntityExpansions()));
+        } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
+            // not the JDK's parser
+        }
+        return parser;
+    }
+
+    /**
+     * @return the StAX factory of the current thread
+     */
+    public static XMLInputFactory inputFactory() {
+        return INPUT_FACTORY.get();
+    }
+
+    private static SAXParserFactory newSaxParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Can't configure SAX parser securely.", e);
+        }
+        return factory;
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static SAXParser newSaxParser() {
+        try {
+            synchronized (SAX_PARSER_FACTORY) {
+                return SAX_PARSER_FACTORY.newSAXParser();
+            }
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Can't create SAX parser.", e);
+        }
+    }
+}
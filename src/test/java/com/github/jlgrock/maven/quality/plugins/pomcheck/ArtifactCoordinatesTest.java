@@ -0,0 +1,41 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class ArtifactCoordinatesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRendering() {
+        Assertions.assertEquals("g:a:1.0", ArtifactCoordinates.of("g", "a", "1.0").toString());
+        Assertions.assertEquals("g:[unknown-artifactid]:[unknown-version]", ArtifactCoordinates.of("g", null, null).toString());
+    }
+
+    @Test
+    public void testUnknownIsShared() {
+        Assertions.assertSame(ArtifactCoordinates.UNKNOWN, ArtifactCoordinates.of(null, null, null));
+    }
+
+    @Test
+    public void testOnlyDirectChildrenAreUsed() throws Exception {
+        String xml = "<project><dependencies><dependency>"
+                + "<exclusions><exclusion><groupId>excluded</groupId><artifactId>other</artifactId></exclusion></exclusions>"
+                + "<groupId>g</groupId><artifactId>a</artifactId><version>1.0</version>"
+                + "</dependency></dependencies></project>";
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        PomModel.Dependency dependency = PomModel.read(pomFile).getDependencies().get(0);
+        Assertions.assertEquals("g", dependency.getGroupId());
+        Assertions.assertEquals("a", dependency.getArtifactId());
+        Assertions.assertEquals("1.0", dependency.getVersion());
+    }
+}
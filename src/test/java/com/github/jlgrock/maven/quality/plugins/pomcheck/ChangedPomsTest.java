@@ -0,0 +1,106 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ChangedPomsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File root;
+    private File parent;
+    private File child;
+    private File other;
+
+    @Before
+    public void setUp() throws Exception {
+        root = folder.getRoot().getCanonicalFile();
+        parent = write("pom.xml", "<project/>");
+        child = write("child/pom.xml", "<project/>");
+        other = write("other/pom.xml", "<project/>");
+        git("init", "-q");
+        git("symbolic-ref", "HEAD", "refs/heads/master");
+        git("add", ".");
+        git("commit", "-q", "-m", "initial");
+    }
+
+    @Test
+    public void testNothingChanged() throws Exception {
+        ChangedPoms changes = ChangedPoms.find(root, null);
+        Assertions.assertTrue(changes.getFiles().isEmpty());
+        Assertions.assertFalse(changes.isChanged(project(child, project(parent, null))));
+    }
+
+    @Test
+    public void testChangedParentSelectsItsModules() throws Exception {
+        write("pom.xml", "<project><modules/></project>");
+        write("child/src/Main.java", "class Main {}");
+        ChangedPoms changes = ChangedPoms.find(new File(root, "child"), "");
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(parent,
+                new File(root, "child/src/Main.java"))), changes.getFiles());
+        MavenProject parentProject = project(parent, null);
+        Assertions.assertTrue(changes.isChanged(parentProject));
+        Assertions.assertTrue(changes.isChanged(project(child, parentProject)));
+        Assertions.assertFalse(changes.isChanged(project(other, null)));
+    }
+
+    @Test
+    public void testChangesSinceBaseRef() throws Exception {
+        git("checkout", "-q", "-b", "feature");
+        write("other/pom.xml", "<project><modules/></project>");
+        git("commit", "-q", "-am", "change other");
+        git("checkout", "-q", "master");
+        write("pom.xml", "<project><modules/></project>");
+        git("commit", "-q", "-am", "change parent");
+        git("checkout", "-q", "feature");
+
+        ChangedPoms changes = ChangedPoms.find(root, "master");
+        Assertions.assertEquals(Collections.singleton(other), changes.getFiles());
+        Assertions.assertTrue(changes.isChanged(project(other, null)));
+        Assertions.assertFalse(changes.isChanged(project(child, project(parent, null))));
+    }
+
+    @Test
+    public void testUnknownBaseRef() {
+        IOException e = Assertions.assertThrows(IOException.class, () -> ChangedPoms.find(root, "no-such-ref"));
+        Assertions.assertTrue(e.getMessage().startsWith("git merge-base no-such-ref HEAD failed"));
+    }
+
+    private static MavenProject project(final File pomFile, final MavenProject parentProject) {
+        MavenProject project = Mockito.mock(MavenProject.class);
+        Mockito.when(project.getFile()).thenReturn(pomFile);
+        Mockito.when(project.getParent()).thenReturn(parentProject);
+        return project;
+    }
+
+    private File write(final String path, final String content) throws IOException {
+        File file = new File(root, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private void git(final String... arguments) throws Exception {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-c", "user.name=test",
+                "-c", "user.email=test@example.org", "-c", "commit.gpgsign=false"));
+        command.addAll(Arrays.asList(arguments));
+        Process process = new ProcessBuilder(command).directory(root).inheritIO().start();
+        Assertions.assertEquals(0, process.waitFor());
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class ConsistentVersionsMojoTest extends AbstractPomCheckTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    ConsistentVersionsMojo consistentVersionsMojo = new ConsistentVersionsMojo(buildContext, mavenProject);
+
+    private File pom(final String name, final String junitVersion) throws Exception {
+        File pomFile = folder.newFile(name + ".xml");
+        Files.write(pomFile.toPath(), ("<project>\n<properties><junit.version>" + junitVersion
+                + "</junit.version></properties>\n<dependencyManagement><dependencies><dependency>\n"
+                + "<groupId>junit</groupId><artifactId>junit</artifactId><version>${junit.version}</version>\n"
+                + "</dependency></dependencies></dependencyManagement>\n</project>\n").getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    @Test
+    public void testConsistentReactorPasses() throws Exception {
+        consistentVersionsMojo.checkFiles(Arrays.asList(pom("a", "4.1"), pom("b", "4.1"), loadFile("good.xml")));
+    }
+
+    @Test
+    public void testConflictIsReportedAgainstEveryModule() throws Exception {
+        File a = pom("a", "4.12");
+        File b = pom("b", "4.13");
+        MojoFailureException e = Assertions.assertThrows(MojoFailureException.class,
+                () -> consistentVersionsMojo.checkFiles(Arrays.asList(a, b, pom("c", "4.13"))));
+        Assertions.assertTrue(e.getMessage().startsWith("3 of 3 pom files failed:\n"
+                + "junit:junit is declared at versions 4.12, 4.13:\n"
+                + "junit:junit:4.12 from ${junit.version} on line 4 in file " + a.getAbsolutePath() + "\n"),
+                e.getMessage());
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class DependencyVersionIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final EffectivePomResolver resolver = new EffectivePomResolver(new PomModelCache(), null);
+
+    private File pom(final String directory, final String parent, final String properties, final String dependencies)
+            throws Exception {
+        File pomFile = new File(folder.getRoot(), directory + "/pom.xml");
+        Files.createDirectories(pomFile.getParentFile().toPath());
+        String xml = "<project>\n"
+                + (parent == null ? "" : "<parent><groupId>org.example</groupId><artifactId>" + parent
+                + "</artifactId><version>1.0</version></parent>\n")
+                + "<groupId>org.example</groupId><artifactId>" + directory + "</artifactId><version>1.0</version>\n"
+                + "<properties>" + properties + "</properties>\n"
+                + "<dependencyManagement><dependencies>\n" + dependencies + "</dependencies></dependencyManagement>\n"
+                + "</project>\n";
+        Files.write(pomFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    private static String dependency(final String artifactId, final String version) {
+        return "<dependency><groupId>org.example</groupId><artifactId>" + artifactId + "</artifactId><version>"
+                + version + "</version></dependency>\n";
+    }
+
+    private List<DependencyVersionIndex.Conflict> conflicts(final File... pomFiles) throws Exception {
+        DependencyVersionIndex index = new DependencyVersionIndex(Arrays.asList(pomFiles));
+        for (int i = pomFiles.length - 1; i >= 0; i--) {
+            index.add(i, resolver.resolve(pomFiles[i]));
+        }
+        return index.conflicts();
+    }
+
+    @Test
+    public void testConsistentVersionsPass() throws Exception {
+        File a = pom("a", null, "<lib.version>1.0</lib.version>", dependency("lib", "${lib.version}"));
+        File b = pom("b", null, "<lib.version>1.0</lib.version>",
+                dependency("lib", "${lib.version}") + dependency("other", "${unknown.version}"));
+        Assertions.assertTrue(conflicts(a, b).isEmpty());
+    }
+
+    @Test
+    public void testVersionsAreComparedAfterInterpolationAgainstParents() throws Exception {
+        File parent = pom("parent", null, "<lib.version>1.0</lib.version>", dependency("lib", "${lib.version}"));
+        File child = pom("child", "parent", "<lib.version>2.0</lib.version>", dependency("lib", "${lib.version}"));
+        File grandchild = pom("grandchild", null, "", "");
+        List<DependencyVersionIndex.Conflict> conflicts = conflicts(parent, child, grandchild);
+
+        Assertions.assertEquals(1, conflicts.size());
+        DependencyVersionIndex.Conflict conflict = conflicts.get(0);
+        Assertions.assertEquals("org.example:lib is declared at versions 1.0, 2.0", conflict.getDescription());
+        Assertions.assertEquals(parent, conflict.getDeclarations().get(0).getFile());
+        Assertions.assertEquals("2.0", conflict.getDeclarations().get(1).getVersion());
+        Assertions.assertEquals("lib.version", conflict.getDeclarations().get(1).getProperty());
+        Assertions.assertEquals(6, conflict.getDeclarations().get(1).getLine());
+    }
+
+    @Test
+    public void testDifferentPropertiesConflict() throws Exception {
+        File a = pom("a", null, "<lib.version>1.0</lib.version>", dependency("lib", "${lib.version}"));
+        File b = pom("b", null, "<example-lib.version>1.0</example-lib.version>",
+                dependency("lib", "${example-lib.version}"));
+        List<DependencyVersionIndex.Conflict> conflicts = conflicts(a, b);
+
+        Assertions.assertEquals(1, conflicts.size());
+        Assertions.assertEquals(Arrays.asList("example-lib.version", "lib.version"), conflicts.get(0).getProperties());
+        Assertions.assertEquals("org.example:lib is declared through properties example-lib.version, lib.version",
+                conflicts.get(0).getDescription());
+    }
+
+    @Test
+    public void testPropertyOf() {
+        Assertions.assertEquals("lib.version", DependencyVersionIndex.propertyOf("${lib.version}"));
+        Assertions.assertNull(DependencyVersionIndex.propertyOf("1.0"));
+        Assertions.assertNull(DependencyVersionIndex.propertyOf("${major}.${minor}"));
+        Assertions.assertNull(DependencyVersionIndex.propertyOf("${}"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EffectivePomResolverTest {
+
+    private final PomModelCache cache = new PomModelCache();
+    private final EffectivePomResolver resolver = new EffectivePomResolver(cache,
+            new File("src/test/resources/effective/repo"));
+
+    @Test
+    public void testParentFoundByRelativePath() throws Exception {
+        EffectivePom pom = resolver.resolve(new File("src/test/resources/effective/child/pom.xml"));
+        assertEquals(2, pom.getChain().size());
+        assertEquals("example-parent", pom.getChain().get(1).getArtifactId());
+        assertTrue(pom.getUnresolvedParents().isEmpty());
+        assertEquals("1.0", pom.getPom().getVersion());
+        assertEquals("org.example", pom.getPom().getGroupId());
+    }
+
+    @Test
+    public void testChildPropertiesOverrideParents() throws Exception {
+        EffectivePom pom = resolver.resolve(new File("src/test/resources/effective/child/pom.xml"));
+        assertEquals("4.13", pom.interpolate("${junit.version}"));
+        assertEquals("2.0-SNAPSHOT", pom.interpolate("${library.version}"));
+        assertEquals("1.0/example-child", pom.interpolate("${project.version}/${project.artifactId}"));
+        assertEquals("${missing}", pom.interpolate("${missing}"));
+    }
+
+    @Test
+    public void testParentIsParsedOnce() throws Exception {
+        EffectivePom first = resolver.resolve(new File("src/test/resources/effective/child/pom.xml"));
+        EffectivePom second = resolver.resolve(new File("src/test/resources/effective/child/pom.xml"));
+        assertSame(first.getChain().get(1), second.getChain().get(1));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testUnresolvedParent() throws Exception {
+        EffectivePom pom = resolver.resolve(new File("src/test/resources/good.xml"));
+        assertEquals(1, pom.getChain().size());
+        assertEquals("bla.bla.morebla:maven-plugins:0.1.27-SNAPSHOT", pom.getUnresolvedParents().get(0).toString());
+    }
+
+    @Test
+    public void testRepositoryPom() {
+        assertNotNull(resolver.repositoryPom("org.example", "example-bom", "1.0"));
+        assertNull(resolver.repositoryPom("org.example", "example-bom", "2.0"));
+    }
+
+    @Test
+    public void testProfileDependenciesAreRead() throws Exception {
+        EffectivePom pom = resolver.resolve(new File("src/test/resources/version-not-allowed-in-profile-deps.xml"));
+        List<PomModel.Dependency> dependencies = pom.getPom().getProfileDependencies();
+        PomModel.Dependency profileDependency = dependencies.get(dependencies.size() - 1);
+        assertEquals("maven-archiver", profileDependency.getArtifactId());
+        assertEquals(113, profileDependency.getLine());
+        for (PomModel.Dependency dependency : pom.getPom().getDependencies()) {
+            assertNotEquals("maven-archiver", dependency.getArtifactId());
+        }
+        List<PomModel.Declaration> versions = pom.getVersions();
+        assertEquals("3.1.1", versions.get(versions.size() - 1).getValue());
+        assertEquals(116, versions.get(versions.size() - 1).getLine());
+    }
+
+    @Test
+    public void testProfileManagementIsIgnored() throws Exception {
+        File pomFile = File.createTempFile("profile-management", ".xml");
+        pomFile.deleteOnExit();
+        Files.write(pomFile.toPath(), ("<project><profiles><profile><dependencyManagement><dependencies>"
+                + "<dependency><groupId>junit</groupId><artifactId>junit</artifactId><version>4.13</version>"
+                + "</dependency></dependencies></dependencyManagement><build><pluginManagement><plugins><plugin>"
+                + "<artifactId>maven-jar-plugin</artifactId><version>3.3.0</version></plugin></plugins>"
+                + "</pluginManagement></build></profile></profiles></project>").getBytes("UTF-8"));
+        EffectivePom pom = resolver.resolve(pomFile);
+        assertTrue(pom.getPom().getManagedDependencies().isEmpty());
+        assertTrue(pom.getPom().getManagedPlugins().isEmpty());
+        assertTrue(resolver.managedVersions(pom).isEmpty());
+        assertEquals(2, pom.getVersions().size());
+    }
+
+    @Test
+    public void testCyclicInterpolationTerminates() throws Exception {
+        File pomFile = File.createTempFile("cyclic", ".xml");
+        pomFile.deleteOnExit();
+        Files.write(pomFile.toPath(), ("<project><properties><a>${b}</a><b>${a}</b></properties>"
+                + "</project>").getBytes("UTF-8"));
+        EffectivePom pom = resolver.resolve(pomFile);
+        assertNotNull(pom.interpolate("${a}"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+public class FixVersionsMojoTest extends AbstractPomCheckTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    FixVersionsMojo fixVersionsMojo = new FixVersionsMojo(buildContext, mavenProject);
+
+    private File write(final String path, final String content) throws Exception {
+        File pomFile = new File(folder.getRoot(), path);
+        pomFile.getParentFile().mkdirs();
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    private File copy(final String fixture) throws Exception {
+        File pomFile = folder.newFile(fixture);
+        Files.copy(loadFile(fixture).toPath(), pomFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return pomFile;
+    }
+
+    @Test
+    public void testEveryPomIsFixed() throws Exception {
+        File managed = copy("non-prop-not-allowed-in-depmgmt.xml");
+        File dependencies = copy("version-not-allowed-in-deps.xml");
+        File plugins = copy("version-not-allowed-in-plugins.xml");
+        File good = copy("good.xml");
+        fixVersionsMojo.checkFiles(Arrays.asList(managed, dependencies, plugins, good));
+
+        VerifyVersionsMojo verifyVersionsMojo = new VerifyVersionsMojo(buildContext, mavenProject);
+        verifyVersionsMojo.checkFiles(Arrays.asList(managed, good));
+        Assertions.assertArrayEquals(Files.readAllBytes(loadFile("good.xml").toPath()), Files.readAllBytes(good.toPath()));
+        // nothing manages the version of its plugin, so it is left
+        Assertions.assertArrayEquals(Files.readAllBytes(loadFile("version-not-allowed-in-plugins.xml").toPath()),
+                Files.readAllBytes(plugins.toPath()));
+        // junit is managed at ${junit.version}, which is never defined, so it is not known to be 4.1
+        Assertions.assertArrayEquals(Files.readAllBytes(loadFile("version-not-allowed-in-deps.xml").toPath()),
+                Files.readAllBytes(dependencies.toPath()));
+        Mockito.verify(buildContext).refresh(managed);
+        Mockito.verify(buildContext, Mockito.never()).refresh(dependencies);
+        Mockito.verify(buildContext, Mockito.never()).refresh(plugins);
+        Mockito.verify(buildContext, Mockito.never()).refresh(good);
+    }
+
+    @Test
+    public void testOnlyManagedVersionsAreRemoved() throws Exception {
+        write("pom.xml", "<project><groupId>org.example</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<properties><example.group>org.example</example.group><jar.version>3.3.0</jar.version></properties>"
+                + "<dependencyManagement><dependencies><dependency><groupId>junit</groupId>"
+                + "<artifactId>junit</artifactId><version>4.13</version></dependency></dependencies>"
+                + "</dependencyManagement><build><pluginManagement><plugins><plugin>"
+                + "<groupId>org.apache.maven.plugins</groupId><artifactId>maven-jar-plugin</artifactId>"
+                + "<version>${jar.version}</version></plugin></plugins></pluginManagement></build></project>");
+        File child = write("child/pom.xml", "<project><parent><groupId>org.example</groupId>"
+                + "<artifactId>parent</artifactId><version>1</version></parent><artifactId>child</artifactId>"
+                + "<dependencies><dependency><groupId>junit</groupId><artifactId>junit</artifactId>"
+                + "<version>4.12</version></dependency><dependency><groupId>${example.group}</groupId>"
+                + "<artifactId>lib</artifactId><version>1.0</version></dependency></dependencies><build><plugins>"
+                + "<plugin><artifactId>maven-jar-plugin</artifactId><version>3.3.0</version></plugin>"
+                + "</plugins></build></project>");
+        fixVersionsMojo.checkFile(child);
+        String fixed = new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8);
+        // a different version than the managed one is kept, since removing it would change the build
+        Assertions.assertTrue(fixed.contains("<artifactId>junit</artifactId><version>4.12</version>"), fixed);
+        Assertions.assertFalse(fixed.contains("3.3.0"), fixed);
+        Assertions.assertTrue(fixed.contains("<artifactId>lib</artifactId><version>1.0</version>"), fixed);
+    }
+
+    @Test
+    public void testManagementIsKeyedByTypeAndClassifier() throws Exception {
+        File pom = write("pom.xml", "<project><groupId>org.example</groupId><artifactId>app</artifactId>"
+                + "<version>1</version><dependencyManagement><dependencies><dependency><groupId>org.example</groupId>"
+                + "<artifactId>lib</artifactId><version>2.0</version></dependency><dependency>"
+                + "<groupId>org.example</groupId><artifactId>lib</artifactId><version>3.0</version>"
+                + "<classifier>tests</classifier></dependency></dependencies></dependencyManagement>"
+                + "<dependencies><dependency><groupId>org.example</groupId><artifactId>lib</artifactId>"
+                + "<version>1.0</version><type>test-jar</type></dependency><dependency><groupId>org.example</groupId>"
+                + "<artifactId>lib</artifactId><version>3.0</version><classifier>tests</classifier></dependency>"
+                + "</dependencies></project>");
+        fixVersionsMojo.checkFile(pom);
+        String fixed = new String(Files.readAllBytes(pom.toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(fixed.contains("<version>1.0</version><type>test-jar</type>"), fixed);
+        Assertions.assertTrue(fixed.contains("<artifactId>lib</artifactId><classifier>tests</classifier>"
+                + "</dependency></dependencies></project>"), fixed);
+    }
+
+    @Test
+    public void testDryRunWritesNothing() throws Exception {
+        File managed = copy("non-prop-not-allowed-in-depmgmt.xml");
+        fixVersionsMojo.dryRun = true;
+        fixVersionsMojo.checkFile(managed);
+        Assertions.assertArrayEquals(Files.readAllBytes(loadFile("non-prop-not-allowed-in-depmgmt.xml").toPath()),
+                Files.readAllBytes(managed.toPath()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.StringWriter;
+
+public class JsonWriterTest {
+
+    @Test
+    public void testNestingAndSeparators() throws Exception {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("a").value(1);
+        json.name("b").beginArray().value("x").value((String) null).beginObject().endObject().endArray();
+        json.name("c").value(true);
+        json.endObject();
+        Assertions.assertEquals("{\"a\":1,\"b\":[\"x\",null,{}],\"c\":true}", out.toString());
+    }
+
+    @Test
+    public void testEscaping() throws Exception {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).value("q\"b\\n\nt\tc\u0001");
+        Assertions.assertEquals("\"q\\\"b\\\\n\\nt\\tc\\u0001\"", out.toString());
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+public class MappedPomScannerTest {
+
+    private static final String DEPENDENCIES = "/project/dependencies/dependency/version";
+    private static final String PROFILE_DEPENDENCIES = "/project/profiles/profile/dependencies/dependency/version";
+    private static final String PLUGINS = "/project/build/plugins/plugin/version";
+    private static final String PROPERTIES = "/project/properties/*";
+    private static final String PROFILE_PROPERTIES = "/project/profiles/profile/properties/*";
+
+    private static final PomPathMatcher<String> MATCHER = compile(DEPENDENCIES, PROFILE_DEPENDENCIES, PLUGINS,
+            PROPERTIES, PROFILE_PROPERTIES);
+
+    private static final BiPredicate<String, String> NOT_A_PROPERTY = (path, value) -> !value.startsWith("${");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PomPathMatcher<String> compile(final String... paths) {
+        Map<String, String> pathMap = new LinkedHashMap<>();
+        for (String path : paths) {
+            pathMap.put(path, path);
+        }
+        return PomPathMatcher.compile(pathMap);
+    }
+
+    private static void assertSameAsStreaming(final File pomFile) throws Exception {
+        Map<String, List<ErrorAndLocation>> expected;
+        try (InputStream is = new FileInputStream(pomFile)) {
+            expected = new StreamingPomScanner<>(MATCHER).scan(is, NOT_A_PROPERTY);
+        }
+        Map<String, List<ErrorAndLocation>> actual = new MappedPomScanner<>(MATCHER).scan(pomFile, NOT_A_PROPERTY);
+        Assertions.assertEquals(expected.keySet(), actual.keySet(), pomFile.getName());
+        for (Map.Entry<String, List<ErrorAndLocation>> entry : expected.entrySet()) {
+            List<ErrorAndLocation> actualErrors = actual.get(entry.getKey());
+            Assertions.assertEquals(entry.getValue().size(), actualErrors.size(), pomFile.getName());
+            for (int i = 0; i < actualErrors.size(); i++) {
+                Assertions.assertEquals(entry.getValue().get(i).getOutput(), actualErrors.get(i).getOutput());
+                Assertions.assertEquals(entry.getValue().get(i).getLine(), actualErrors.get(i).getLine());
+            }
+        }
+    }
+
+    private File write(final String contents, final Charset charset) throws Exception {
+        File pomFile = folder.newFile();
+        Files.write(pomFile.toPath(), contents.getBytes(charset));
+        return pomFile;
+    }
+
+    @Test
+    public void testMatchesStreamingScannerOnEveryFixture() throws Exception {
+        File[] fixtures = new File("src/test/resources").listFiles((dir, name) -> name.endsWith(".xml"));
+        Assertions.assertTrue(fixtures.length > 0);
+        for (File fixture : fixtures) {
+            assertSameAsStreaming(fixture);
+        }
+    }
+
+    @Test
+    public void testLineAndColumn() throws Exception {
+        Map<String, List<ErrorAndLocation>> errors = new MappedPomScanner<>(MATCHER)
+                .scan(new File("src/test/resources/version-not-allowed-in-deps.xml"), NOT_A_PROPERTY);
+        ErrorAndLocation error = errors.get(DEPENDENCIES).get(0);
+        Assertions.assertEquals("junit:junit:4.1", error.getOutput());
+        Assertions.assertEquals("79", error.getLine());
+        Assertions.assertEquals("13", error.getColumn());
+    }
+
+    @Test
+    public void testEntitiesCommentsAndCdata() throws Exception {
+        File pomFile = write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!-- <project> -->\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <properties>\n"
+                + "    <a>&#x31;.0&amp;b</a>\n"
+                + "    <b><![CDATA[<2.0>]]></b>\n"
+                + "    <c attr=\"x > y\"/>\n"
+                + "    <d>${d}</d>\n"
+                + "  </properties>\n"
+                + "</project>\n", StandardCharsets.UTF_8);
+        List<ErrorAndLocation> errors = new MappedPomScanner<>(MATCHER)
+                .scan(pomFile, (path, value) -> value.equals("1.0&b") || value.equals("<2.0>") || value.isEmpty())
+                .get(PROPERTIES);
+        Assertions.assertEquals(3, errors.size());
+        Assertions.assertEquals("5", errors.get(0).getLine());
+        Assertions.assertEquals("6", errors.get(1).getLine());
+        Assertions.assertEquals("7", errors.get(2).getLine());
+        assertSameAsStreaming(pomFile);
+    }
+
+    @Test
+    public void testInvalidCharacterReferencesFallBackToTheParser() throws Exception {
+        for (String reference : new String[] {"&#x110000;", "&#4294967297;", "&#0;", "&#xD800;", "&#-1;", "&#x;"}) {
+            File pomFile = write("<project><properties><a>1.0" + reference + "</a></properties></project>\n",
+                    StandardCharsets.UTF_8);
+            Assertions.assertThrows(XMLStreamException.class,
+                    () -> new MappedPomScanner<>(MATCHER).scan(pomFile, NOT_A_PROPERTY), reference);
+        }
+        File pomFile = write("<project><properties><a>&#x1F600;&#10;</a></properties></project>\n",
+                StandardCharsets.UTF_8);
+        Assertions.assertEquals(1, new MappedPomScanner<>(MATCHER)
+                .scan(pomFile, (path, value) -> value.equals("\uD83D\uDE00\n")).get(PROPERTIES).size());
+        assertSameAsStreaming(pomFile);
+    }
+
+    @Test
+    public void testTruncatedPomsAreParseErrors() throws Exception {
+        byte[] pom = Files.readAllBytes(new File("src/test/resources/version-not-allowed-in-deps.xml").toPath());
+        File pomFile = folder.newFile();
+        for (int length = 1; length < pom.length; length++) {
+            Files.write(pomFile.toPath(), Arrays.copyOf(pom, length));
+            try {
+                new MappedPomScanner<>(MATCHER).scan(pomFile, NOT_A_PROPERTY);
+            } catch (XMLStreamException e) {
+                // the parser found the end of the pom, as it should
+            }
+        }
+    }
+
+    @Test
+    public void testOtherEncodingsFallBackToTheParser() throws Exception {
+        File pomFile = write("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+                + "<project><properties><café>1.0-é</café></properties></project>\n",
+                StandardCharsets.ISO_8859_1);
+        List<ErrorAndLocation> errors = new MappedPomScanner<>(MATCHER)
+                .scan(pomFile, (path, value) -> value.equals("1.0-é")).get(PROPERTIES);
+        Assertions.assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void testIsUtf8() {
+        Assertions.assertTrue(MappedPomScanner.isUtf8(buffer("<project/>")));
+        Assertions.assertTrue(MappedPomScanner.isUtf8(buffer("<?xml version=\"1.0\"?><project/>")));
+        Assertions.assertTrue(MappedPomScanner.isUtf8(buffer("<?xml version='1.0' encoding='us-ascii'?><project/>")));
+        Assertions.assertFalse(MappedPomScanner.isUtf8(buffer("<?xml version=\"1.0\" encoding=\"windows-1252\"?>")));
+        Assertions.assertFalse(MappedPomScanner.isUtf8(ByteBuffer.wrap(
+                "<project/>".getBytes(StandardCharsets.UTF_16))));
+    }
+
+    private static ByteBuffer buffer(final String contents) {
+        return ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLargeFilesAreMapped() throws Exception {
+        StringBuilder pom = new StringBuilder("<project><dependencies>\n");
+        int count = 0;
+        while (pom.length() < MappedPomScanner.MAP_THRESHOLD * 2) {
+            pom.append("<dependency><groupId>g</groupId><artifactId>a").append(count)
+                    .append("</artifactId><version>1.").append(count++).append("</version></dependency>\n");
+        }
+        pom.append("</dependencies></project>\n");
+        File pomFile = write(pom.toString(), StandardCharsets.UTF_8);
+        Map<String, List<ErrorAndLocation>> errors = new MappedPomScanner<>(MATCHER).scan(pomFile, NOT_A_PROPERTY);
+        Assertions.assertEquals(count, errors.get(DEPENDENCIES).size());
+        Assertions.assertEquals("g:a" + (count - 1) + ":1." + (count - 1),
+                errors.get(DEPENDENCIES).get(count - 1).getOutput());
+        assertSameAsStreaming(pomFile);
+    }
+
+    @Test
+    public void testLimitsAreReachedByBothScanners() throws Exception {
+        PomLimits limits = new PomLimits(4, 8, 10, 1);
+        String[][] poms = {
+                {"<project><a><b><c><d/></c></b></a></project>", "pomcheck.maxDepth"},
+                {"<project><dependencies><dependency><version>123456789</version></dependency></dependencies></project>",
+                        "pomcheck.maxTextLength"},
+                {"<project><a/><a/><a/><a/><a/><a/><a/><a/><a/><a/></project>", "pomcheck.maxElements"}};
+        for (String[] pom : poms) {
+            for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.UTF_16}) {
+                File pomFile = write("<?xml version=\"1.0\" encoding=\"" + charset.name() + "\"?>" + pom[0], charset);
+                String message = Assertions.assertThrows(XMLStreamException.class,
+                        () -> new MappedPomScanner<>(MATCHER, limits).scan(pomFile, NOT_A_PROPERTY)).getMessage();
+                Assertions.assertTrue(message.contains(pom[1]), message);
+                Assertions.assertTrue(message.contains("[row,col]:[1,"), message);
+            }
+        }
+        // only the text of the elements being checked is held
+        File pomFile = write("<project><description>123456789</description></project>", StandardCharsets.UTF_8);
+        Assertions.assertTrue(new MappedPomScanner<>(MATCHER, limits).scan(pomFile, NOT_A_PROPERTY).isEmpty());
+    }
+
+    @Test
+    public void testTextLengthIsCountedInCharactersByBothScanners() throws Exception {
+        PomLimits limits = new PomLimits(4, 8, 10, 1);
+        // eight characters in sixteen bytes, and eight characters of which two are surrogate pairs
+        for (String version : new String[] {"\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9",
+                "1.0-\uD83D\uDE00\uD83D\uDE00", "&#xe9;&#xe9;&#xe9;&#xe9;&#xe9;&#xe9;&#xe9;&#xe9;"}) {
+            for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.UTF_16}) {
+                File pomFile = write("<?xml version=\"1.0\" encoding=\"" + charset.name() + "\"?><project><dependencies>"
+                        + "<dependency><version>" + version + "</version></dependency></dependencies></project>", charset);
+                Assertions.assertEquals(1, new MappedPomScanner<>(MATCHER, limits).scan(pomFile, NOT_A_PROPERTY)
+                        .get(DEPENDENCIES).size(), version);
+            }
+        }
+        File pomFile = write("<project><dependencies><dependency><version>1.0-\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00"
+                + "</version></dependency></dependencies></project>", StandardCharsets.UTF_8);
+        String message = Assertions.assertThrows(XMLStreamException.class,
+                () -> new MappedPomScanner<>(MATCHER, limits).scan(pomFile, NOT_A_PROPERTY)).getMessage();
+        Assertions.assertTrue(message.contains("pomcheck.maxTextLength"), message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+public class PomCheckCliTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File module(final String directory, final String fixture) throws Exception {
+        File pomFile = new File(folder.getRoot(), directory + "/pom.xml");
+        Files.createDirectories(pomFile.getParentFile().toPath());
+        Files.copy(new File("src/test/resources/" + fixture).toPath(), pomFile.toPath());
+        return pomFile;
+    }
+
+    @Test
+    public void testEveryModuleIsChecked() throws Exception {
+        File good = module("a", "good.xml");
+        File versioned = module("b", "version-not-allowed-in-deps.xml");
+        module("b/c", "good.xml");
+        module("c/target/classes", "version-not-allowed-in-deps.xml");
+        module(".git/d", "version-not-allowed-in-deps.xml");
+
+        List<PomCheckResult> results = PomCheckCli.scan(Collections.singletonList(folder.getRoot().toPath()),
+                RuleSet.compile(PomCheckCli.rulesFor("all")), 2, true, false);
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertEquals(good, results.get(0).getFile());
+        Assertions.assertTrue(results.get(0).isPassed());
+        Assertions.assertEquals(versioned, results.get(2).getFile());
+        Assertions.assertEquals(2, results.get(2).getFailures().size());
+        Assertions.assertEquals("You must not use snapshots in properties",
+                results.get(2).getFailures().get(1).getDescription());
+    }
+
+    @Test
+    public void testExitStatusAndReport() throws Exception {
+        module("a", "good.xml");
+        module("b", "version-not-allowed-in-deps.xml");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+
+        int status = PomCheckCli.run(new String[] {"--goal", "version-check", new File(folder.getRoot(), "a").getPath()},
+                new PrintStream(out, true, "UTF-8"), err);
+        Assertions.assertEquals(PomCheckCli.PASSED, status);
+        Assertions.assertEquals("All 1 pom files passed\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        out.reset();
+        status = PomCheckCli.run(new String[] {"--format", "json", folder.getRoot().getPath()},
+                new PrintStream(out, true, "UTF-8"), err);
+        Assertions.assertEquals(PomCheckCli.FAILED, status);
+        Assertions.assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).contains("\"fileCount\":2"));
+    }
+
+    @Test
+    public void testUnknownOption() throws Exception {
+        PrintStream ignored = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+        Assertions.assertEquals(PomCheckCli.USAGE, PomCheckCli.run(new String[] {"--bogus"}, ignored, ignored));
+        Assertions.assertEquals(PomCheckCli.USAGE, PomCheckCli.run(new String[0], ignored, ignored));
+    }
+
+    @Test
+    public void testUnwritableReport() throws Exception {
+        module("a", "good.xml");
+        PrintStream ignored = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+        String output = new File(folder.getRoot(), "missing/report.txt").getPath();
+        Assertions.assertEquals(PomCheckCli.REPORT_FAILED, PomCheckCli.run(
+                new String[] {"--output", output, folder.getRoot().getPath()}, ignored, ignored));
+    }
+}
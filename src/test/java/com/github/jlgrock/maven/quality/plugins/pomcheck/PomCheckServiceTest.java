@@ -0,0 +1,85 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+
+public class PomCheckServiceTest {
+
+    private static final List<PomRule> RULES = Collections.<PomRule>singletonList(
+            new VersionRule("/project/dependencies/dependency/version", null, null, "no versions"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PomCheckService service = new PomCheckService();
+
+    private File copy(final String fixture, final long age) throws Exception {
+        File pomFile = new File(folder.getRoot(), "pom.xml");
+        Files.copy(new File("src/test/resources/" + fixture).toPath(), pomFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        Assertions.assertTrue(pomFile.setLastModified(System.currentTimeMillis() - age));
+        return pomFile;
+    }
+
+    @Test
+    public void testEquivalentRulesShareACompiledSet() {
+        RuleSet first = service.ruleSet(RULES);
+        RuleSet second = service.ruleSet(Collections.<PomRule>singletonList(
+                new VersionRule("/project/dependencies/dependency/version", null, null, "no versions")));
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    public void testLimitsAreAPartOfTheCompiledSet() throws Exception {
+        PomLimits limits = new PomLimits(8, 1024, 1000, 10);
+        RuleSet unlimited = service.ruleSet(RULES);
+        RuleSet limited = service.ruleSet(RULES, limits);
+        Assertions.assertNotEquals(unlimited.describe(), limited.describe());
+        Assertions.assertSame(limits, limited.getLimits());
+        Assertions.assertSame(limited, service.ruleSet(RULES, new PomLimits(8, 1024, 1000, 10)));
+
+        File pomFile = copy("version-not-allowed-in-deps.xml", 60000);
+        service.check(pomFile, unlimited);
+        Assertions.assertNull(service.peek(pomFile, limited));
+    }
+
+    @Test
+    public void testUnchangedPomIsNotReadAgain() throws Exception {
+        File pomFile = copy("version-not-allowed-in-deps.xml", 60000);
+        RuleSet ruleSet = service.ruleSet(RULES);
+        List<RuleViolations> first = service.check(pomFile, ruleSet);
+        List<RuleViolations> second = service.check(pomFile, ruleSet);
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, service.getMisses());
+        Assertions.assertEquals(1, service.getHits());
+    }
+
+    @Test
+    public void testChangedPomIsCheckedAgain() throws Exception {
+        File pomFile = copy("version-not-allowed-in-deps.xml", 60000);
+        RuleSet ruleSet = service.ruleSet(RULES);
+        Assertions.assertEquals(1, service.check(pomFile, ruleSet).size());
+        copy("good.xml", 30000);
+        Assertions.assertTrue(service.check(pomFile, ruleSet).isEmpty());
+        Assertions.assertEquals(2, service.getMisses());
+    }
+
+    @Test
+    public void testRecentlyModifiedPomIsNotTrusted() throws Exception {
+        File pomFile = copy("good.xml", 0);
+        RuleSet ruleSet = service.ruleSet(RULES);
+        service.check(pomFile, ruleSet);
+        Assertions.assertNull(service.peek(pomFile, ruleSet));
+        service.check(pomFile, ruleSet);
+        Assertions.assertEquals(2, service.getMisses());
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PomFixerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final PomFixer.Management ALL_MANAGED = (element, groupId, artifactId, type, classifier, version) -> true;
+
+    private final PomFixer fixer = PomFixer.compile(BuiltInRules.VERSION_CHECK);
+
+    private String fix(final String pom) {
+        PomFixer.Result result = fixer.fix(pom.getBytes(StandardCharsets.UTF_8), ALL_MANAGED);
+        return result.isChanged() ? new String(result.getContent(), StandardCharsets.UTF_8) : pom;
+    }
+
+    @Test
+    public void testLiteralManagedVersionIsMovedIntoTheProperties() {
+        String pom = "<?xml version=\"1.0\"?>\n"
+                + "<project>\n"
+                + "  <properties>\n"
+                + "    <junit.version>4.13</junit.version>\n"
+                + "  </properties>\n"
+                + "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency>\n"
+                + "        <!-- the logging facade -->\n"
+                + "        <version>1.7.36</version>\n"
+                + "        <groupId>org.slf4j</groupId>\n"
+                + "        <artifactId>slf4j-api</artifactId>\n"
+                + "      </dependency>\n"
+                + "      <dependency><groupId>junit</groupId><artifactId>junit</artifactId><version>4.13</version></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n"
+                + "</project>\n";
+        Assertions.assertEquals("<?xml version=\"1.0\"?>\n"
+                + "<project>\n"
+                + "  <properties>\n"
+                + "    <junit.version>4.13</junit.version>\n"
+                + "    <slf4j-api.version>1.7.36</slf4j-api.version>\n"
+                + "  </properties>\n"
+                + "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency>\n"
+                + "        <!-- the logging facade -->\n"
+                + "        <version>${slf4j-api.version}</version>\n"
+                + "        <groupId>org.slf4j</groupId>\n"
+                + "        <artifactId>slf4j-api</artifactId>\n"
+                + "      </dependency>\n"
+                + "      <dependency><groupId>junit</groupId><artifactId>junit</artifactId><version>${junit.version}</version></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n"
+                + "</project>\n", fix(pom));
+    }
+
+    @Test
+    public void testForbiddenVersionsAreRemoved() {
+        String pom = "<project>\r\n"
+                + "\t<dependencies>\r\n"
+                + "\t\t<dependency>\r\n"
+                + "\t\t\t<groupId>junit</groupId>\r\n"
+                + "\t\t\t<artifactId>junit</artifactId>\r\n"
+                + "\t\t\t<version>${junit.version}</version>\r\n"
+                + "\t\t</dependency>\r\n"
+                + "\t</dependencies>\r\n"
+                + "\t<build><plugins><plugin><artifactId>maven-jar-plugin</artifactId><version>3.3.0</version>"
+                + "</plugin></plugins></build>\r\n"
+                + "</project>\r\n";
+        PomFixer.Result result = fixer.fix(pom.getBytes(StandardCharsets.UTF_8), ALL_MANAGED);
+        Assertions.assertEquals(2, result.getRemoved());
+        Assertions.assertEquals("<project>\r\n"
+                + "\t<dependencies>\r\n"
+                + "\t\t<dependency>\r\n"
+                + "\t\t\t<groupId>junit</groupId>\r\n"
+                + "\t\t\t<artifactId>junit</artifactId>\r\n"
+                + "\t\t</dependency>\r\n"
+                + "\t</dependencies>\r\n"
+                + "\t<build><plugins><plugin><artifactId>maven-jar-plugin</artifactId></plugin></plugins></build>\r\n"
+                + "</project>\r\n", new String(result.getContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testManagementIsGivenTheTypeClassifierAndVersion() {
+        String pom = "<project><dependencies><dependency><groupId>org.example</groupId><artifactId>lib</artifactId>"
+                + "<version>1.0</version><type>test-jar</type><classifier>tests</classifier></dependency>"
+                + "</dependencies></project>";
+        PomFixer.Result result = fixer.fix(pom.getBytes(StandardCharsets.UTF_8),
+                (element, groupId, artifactId, type, classifier, version) -> "test-jar".equals(type)
+                        && "tests".equals(classifier) && "1.0".equals(version));
+        Assertions.assertEquals(1, result.getRemoved());
+        result = fixer.fix(pom.getBytes(StandardCharsets.UTF_8),
+                (element, groupId, artifactId, type, classifier, version) -> type == null);
+        Assertions.assertEquals(Collections.singletonList("org.example:lib:test-jar:tests:1.0"), result.getUnmanaged());
+    }
+
+    @Test
+    public void testUnmanagedVersionsAreLeft() {
+        String pom = "<project><dependencies>"
+                + "<dependency><version>4.13</version><groupId>junit</groupId><artifactId>junit</artifactId></dependency>"
+                + "<dependency><groupId>org.example</groupId><artifactId>lib</artifactId><version>1.0</version></dependency>"
+                + "</dependencies><build><plugins>"
+                + "<plugin><artifactId>maven-jar-plugin</artifactId><version>3.3.0</version></plugin>"
+                + "</plugins></build></project>";
+        PomFixer.Result result = fixer.fix(pom.getBytes(StandardCharsets.UTF_8),
+                (element, groupId, artifactId, type, classifier, version) -> "dependency".equals(element)
+                        && "junit".equals(groupId));
+        Assertions.assertEquals(1, result.getRemoved());
+        Assertions.assertEquals(Arrays.asList("org.example:lib:1.0", "maven-jar-plugin:3.3.0"), result.getUnmanaged());
+        Assertions.assertEquals(pom.replace("<version>4.13</version>", ""),
+                new String(result.getContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPropertiesAreAddedBeforeTheFirstFixedSection() {
+        String pom = "<project>\n"
+                + "    <artifactId>example</artifactId>\n"
+                + "    <dependencyManagement><dependencies>\n"
+                + "        <dependency><groupId>a</groupId><artifactId>lib</artifactId><version>1.0</version></dependency>\n"
+                + "        <dependency><groupId>b</groupId><artifactId>lib</artifactId><version>2.0</version></dependency>\n"
+                + "        <dependency><groupId>c</groupId><artifactId>lib</artifactId><version>1.0</version></dependency>\n"
+                + "    </dependencies></dependencyManagement>\n"
+                + "</project>\n";
+        Assertions.assertEquals("<project>\n"
+                + "    <artifactId>example</artifactId>\n"
+                + "    <properties>\n"
+                + "        <lib.version>1.0</lib.version>\n"
+                + "        <b.lib.version>2.0</b.lib.version>\n"
+                + "    </properties>\n"
+                + "\n"
+                + "    <dependencyManagement><dependencies>\n"
+                + "        <dependency><groupId>a</groupId><artifactId>lib</artifactId><version>${lib.version}</version></dependency>\n"
+                + "        <dependency><groupId>b</groupId><artifactId>lib</artifactId><version>${b.lib.version}</version></dependency>\n"
+                + "        <dependency><groupId>c</groupId><artifactId>lib</artifactId><version>${lib.version}</version></dependency>\n"
+                + "    </dependencies></dependencyManagement>\n"
+                + "</project>\n", fix(pom));
+    }
+
+    @Test
+    public void testUnfixableVersionsAreLeftAlone() {
+        String pom = "<project><dependencyManagement><dependencies>"
+                + "<dependency><artifactId>lib</artifactId><version>1.0&#45;beta</version></dependency>"
+                + "<dependency><version>1.0</version></dependency>"
+                + "</dependencies></dependencyManagement></project>";
+        Assertions.assertFalse(fixer.fix(pom.getBytes(StandardCharsets.UTF_8), ALL_MANAGED).isChanged());
+        Assertions.assertNotNull(fixer.fix("<!DOCTYPE project><project/>".getBytes(StandardCharsets.UTF_8), ALL_MANAGED)
+                .getSkippedReason());
+    }
+
+    @Test
+    public void testTruncatedPomsAreNotFixed() throws Exception {
+        byte[] pom = Files.readAllBytes(new File("src/test/resources/non-prop-not-allowed-in-depmgmt.xml").toPath());
+        for (int length = 1; length < pom.length; length++) {
+            Assertions.assertFalse(fixer.fix(Arrays.copyOf(pom, length), ALL_MANAGED).isChanged());
+        }
+    }
+
+    @Test
+    public void testFixedFixturesPassVersionCheck() throws Exception {
+        RuleSet ruleSet = RuleSet.compile(BuiltInRules.VERSION_CHECK);
+        for (String fixture : new String[] {"non-prop-not-allowed-in-depmgmt.xml", "version-not-allowed-in-deps.xml",
+                "prop-not-allowed-in-deps.xml", "version-not-allowed-in-plugins.xml",
+                "version-not-allowed-in-profile-deps.xml", "version-not-allowed-in-profile-plugins.xml"}) {
+            File pomFile = folder.newFile(fixture);
+            Files.copy(new File("src/test/resources/" + fixture).toPath(), pomFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Assertions.assertFalse(ruleSet.checkAll(pomFile).isEmpty(), fixture);
+            Assertions.assertTrue(fixer.fix(pomFile, true, ALL_MANAGED).isChanged(), fixture);
+            Assertions.assertEquals(0, ruleSet.checkAll(pomFile).size(), fixture);
+        }
+    }
+
+    @Test
+    public void testPomIsReplacedThroughItsLink() throws Exception {
+        File pomFile = folder.newFile("real.xml");
+        Files.copy(new File("src/test/resources/version-not-allowed-in-deps.xml").toPath(), pomFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.setPosixFilePermissions(pomFile.toPath(), PosixFilePermissions.fromString("rw-rw-r--"));
+        Path link = Files.createSymbolicLink(new File(folder.getRoot(), "pom.xml").toPath(), pomFile.toPath());
+
+        Assertions.assertTrue(fixer.fix(link.toFile(), true, ALL_MANAGED).isChanged());
+        Assertions.assertTrue(Files.isSymbolicLink(link));
+        Assertions.assertFalse(fixer.fix(pomFile, false, ALL_MANAGED).isChanged());
+        Assertions.assertEquals("rw-rw-r--",
+                PosixFilePermissions.toString(Files.getPosixFilePermissions(pomFile.toPath())));
+        Assertions.assertEquals(2, folder.getRoot().list().length);
+    }
+}
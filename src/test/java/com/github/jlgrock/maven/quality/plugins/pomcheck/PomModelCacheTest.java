@@ -0,0 +1,103 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PomModelCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnchangedPomIsParsedOnce() throws Exception {
+        PomModelCache cache = new PomModelCache();
+        File pomFile = pom("a", "1.0");
+        assertSame(cache.get(pomFile), cache.get(new File(pomFile.getParentFile(), "./a.xml")));
+        assertEquals(1, cache.size());
+        assertEquals(pomFile.length(), cache.bytes());
+    }
+
+    @Test
+    public void testPomIsParsedAgainWithinOtherLimits() throws Exception {
+        PomModelCache cache = new PomModelCache();
+        File pomFile = pom("a", "1.0");
+        PomModel model = cache.get(pomFile);
+        try {
+            cache.get(pomFile, new PomLimits(1, 1024, 1000, 10));
+            fail("the pom nests elements more than 1 deep");
+        } catch (SAXException e) {
+            assertTrue(e.getMessage().contains("pomcheck.maxDepth"));
+        }
+        assertSame(model, cache.get(pomFile));
+    }
+
+    @Test
+    public void testChangedPomIsParsedAgain() throws Exception {
+        PomModelCache cache = new PomModelCache();
+        File pomFile = pom("a", "1.0");
+        PomModel first = cache.get(pomFile);
+        pom("a", "1.0.1");
+        PomModel second = cache.get(pomFile);
+        assertNotSame(first, second);
+        assertEquals("1.0.1", second.getVersion());
+        assertEquals(1, cache.size());
+        assertEquals(pomFile.length(), cache.bytes());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPomsAreEvicted() throws Exception {
+        File a = pom("a", "1.0");
+        File b = pom("b", "1.0");
+        File c = pom("c", "1.0");
+        PomModelCache cache = new PomModelCache(a.length() + b.length());
+        PomModel modelA = cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertEquals(a.length() + c.length(), cache.bytes());
+        assertSame(modelA, cache.get(a));
+    }
+
+    @Test
+    public void testRecentlyModifiedPomIsParsedAgain() throws Exception {
+        PomModelCache cache = new PomModelCache();
+        File pomFile = pom("a", "1.0");
+        assertTrue(pomFile.setLastModified(System.currentTimeMillis()));
+        // a second edit within the resolution of the modification time might not change it
+        assertNotSame(cache.get(pomFile), cache.get(pomFile));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCachesAreSharedBySize() {
+        PomModelCache shared = PomModelCache.shared(PomModelCache.DEFAULT_MAX_BYTES);
+        assertSame(shared, PomModelCache.shared(PomModelCache.DEFAULT_MAX_BYTES));
+        // another size gets its own cache, leaving the size of the shared one alone
+        PomModelCache small = PomModelCache.shared(1024);
+        assertNotSame(shared, small);
+        assertEquals(1024, small.getMaxBytes());
+        assertEquals(PomModelCache.DEFAULT_MAX_BYTES, shared.getMaxBytes());
+    }
+
+    private File pom(final String artifactId, final String version) throws Exception {
+        File pomFile = new File(folder.getRoot(), artifactId + ".xml");
+        Files.write(pomFile.toPath(), ("<project><groupId>org.example</groupId><artifactId>" + artifactId
+                + "</artifactId><version>" + version + "</version></project>").getBytes(StandardCharsets.UTF_8));
+        // old enough for the cache to trust its modification time
+        assertTrue(pomFile.setLastModified(System.currentTimeMillis() - 60000));
+        return pomFile;
+    }
+}
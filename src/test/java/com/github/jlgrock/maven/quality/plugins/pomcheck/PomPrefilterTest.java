@@ -0,0 +1,56 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PomPrefilterTest {
+
+    private static final PomPrefilter SNAPSHOTS = PomPrefilter.compile(Collections.<PomRule>singletonList(
+            new VersionRule("/project/properties/*", null, null, null, "SNAPSHOT", null)));
+
+    private static final PomPrefilter VERSIONS = PomPrefilter.compile(Collections.<PomRule>singletonList(
+            new VersionRule("/project/dependencies/dependency/version", null, null, null)));
+
+    private static boolean mayBreak(final PomPrefilter prefilter, final String pom) {
+        return prefilter.mayBreak(ByteBuffer.wrap(pom.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testPomWithoutTheRequiredTextPasses() {
+        Assertions.assertFalse(mayBreak(SNAPSHOTS, "<project><properties><a>1.0</a></properties></project>"));
+        Assertions.assertTrue(mayBreak(SNAPSHOTS, "<project><properties><a>1.0-SNAPSHOT</a></properties></project>"));
+        // the text is there, but not the properties
+        Assertions.assertFalse(mayBreak(SNAPSHOTS, "<project><version>1.0-SNAPSHOT</version></project>"));
+    }
+
+    @Test
+    public void testTextIsMatchedThroughMarkup() {
+        Assertions.assertTrue(mayBreak(SNAPSHOTS,
+                "<project><properties><a>1.0-SNAP<!-- split -->SHOT</a></properties></project>"));
+        Assertions.assertTrue(mayBreak(SNAPSHOTS,
+                "<project><properties><a>1.0-<![CDATA[SNAPSHOT]]></a></properties></project>"));
+        Assertions.assertTrue(mayBreak(SNAPSHOTS,
+                "<project><properties><a>1.0&#45;SNAPSHOT</a></properties></project>"));
+        Assertions.assertTrue(mayBreak(SNAPSHOTS,
+                "<!DOCTYPE project [<!ENTITY s \"-SNAPSHOT\">]><project><properties><a>1.0&s;</a></properties></project>"));
+    }
+
+    @Test
+    public void testEveryElementOfThePathIsRequired() {
+        Assertions.assertFalse(mayBreak(VERSIONS, "<project><version>1.0</version><build><plugins><plugin>"
+                + "<version>1.0</version></plugin></plugins></build></project>"));
+        Assertions.assertTrue(mayBreak(VERSIONS, "<p:project xmlns:p=\"x\"><p:dependencies><p:dependency a=\"<version>\">"
+                + "<p:version>1.0</p:version></p:dependency></p:dependencies></p:project>"));
+    }
+
+    @Test
+    public void testRulesWithoutAnythingToLookForAreNotFiltered() {
+        Assertions.assertNull(PomPrefilter.compile(Arrays.<PomRule>asList(
+                new VersionRule("/*", null, null, null))));
+    }
+}
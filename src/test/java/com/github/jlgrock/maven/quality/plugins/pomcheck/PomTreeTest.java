@@ -0,0 +1,33 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+public class PomTreeTest extends AbstractPomCheckTest {
+
+    private PomTree read(final String filename) throws Exception {
+        return PomTree.read(loadFile(filename), PomLimits.DEFAULT);
+    }
+
+    @Test
+    public void testStructure() throws Exception {
+        PomTree tree = read("good.xml");
+        Assertions.assertEquals("project", tree.name(0));
+        Assertions.assertEquals(PomTree.NONE, tree.parent(0));
+        Assertions.assertNull(tree.text(0), "whitespace only text is not kept");
+        int modelVersion = tree.child(0, "modelVersion");
+        Assertions.assertEquals("4.0.0", tree.text(modelVersion));
+        Assertions.assertEquals(0, tree.parent(modelVersion));
+    }
+
+    @Test
+    public void testSelectWithLinesAndColumns() throws Exception {
+        PomTree tree = read("good.xml");
+        int[] properties = tree.select("/project/properties/*");
+        Assertions.assertEquals(4, properties.length);
+        Assertions.assertEquals("maven.maven-plugin-annotations.version", tree.name(properties[0]));
+        Assertions.assertEquals(19, tree.line(properties[0]));
+        Assertions.assertEquals(49, tree.column(properties[0]));
+        Assertions.assertEquals("1.5", tree.text(properties[0]));
+    }
+}
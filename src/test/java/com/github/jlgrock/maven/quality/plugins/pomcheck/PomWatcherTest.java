@@ -0,0 +1,78 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PomWatcherTest extends AbstractPomCheckTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BlockingQueue<PomWatcher.Diff> diffs = new LinkedBlockingQueue<>();
+
+    @Test
+    public void testSavedPomIsCheckedAgain() throws Exception {
+        File pomFile = copy("non-prop-not-allowed-in-depmgmt.xml", folder.newFile("pom.xml"));
+        VerifyVersionsMojo mojo = new VerifyVersionsMojo(buildContext, mavenProject);
+        try (PomWatcher watcher = new PomWatcher(Collections.singletonList(pomFile), 50, mojo::findAllErrors,
+                diffs::add)) {
+            List<PomWatcher.Diff> initial = watcher.start();
+            Assertions.assertEquals(1, initial.size());
+            Assertions.assertTrue(initial.get(0).getResolved().isEmpty());
+            Assertions.assertTrue(initial.get(0).getIntroduced().get(0).startsWith(
+                    "dependencyManagment sections must use variables."));
+
+            copy("good.xml", pomFile);
+            PomWatcher.Diff diff = diffs.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(diff);
+            Assertions.assertEquals(pomFile, diff.getFile());
+            Assertions.assertTrue(diff.getIntroduced().isEmpty());
+            Assertions.assertEquals(initial.get(0).getIntroduced(), diff.getResolved());
+            Assertions.assertEquals(0, diff.getRemaining());
+        }
+    }
+
+    @Test
+    public void testBurstOfSavesIsCheckedOnce() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        File other = folder.newFile("other.xml");
+        AtomicInteger checks = new AtomicInteger();
+        PomWatcher.Checker checker = file -> {
+            checks.incrementAndGet();
+            return Collections.singletonList(RuleViolations.processingFailure(file,
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)));
+        };
+        try (PomWatcher watcher = new PomWatcher(Collections.singletonList(pomFile), 500, checker, diffs::add)) {
+            watcher.start();
+            Assertions.assertEquals(1, checks.get());
+            for (int i = 0; i < 5; i++) {
+                Files.write(pomFile.toPath(), ("save " + i).getBytes(StandardCharsets.UTF_8));
+                Files.write(other.toPath(), ("save " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            PomWatcher.Diff diff = diffs.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(diff);
+            Assertions.assertEquals(1, diff.getIntroduced().size());
+            Assertions.assertTrue(diff.getIntroduced().get(0).contains("save 4"));
+            Assertions.assertNull(diffs.poll(1, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, checks.get());
+        }
+    }
+
+    private File copy(final String fixture, final File target) throws Exception {
+        Files.copy(loadFile(fixture).toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+}
@@ -4,6 +4,13 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class ReleaseVersionsMojoTest extends AbstractPomCheckTest {
 
     ReleaseVersionsMojo releaseVersionsMojo = new ReleaseVersionsMojo(buildContext, mavenProject);
@@ -23,4 +30,53 @@ public class ReleaseVersionsMojoTest extends AbstractPomCheckTest {
         releaseVersionsMojo.checkFile(loadFile("bad-profile-property.xml"));
     }
 
+    @Test
+    public void testInheritedSnapshotPassesWithoutEffective() throws MojoFailureException, MojoExecutionException {
+        releaseVersionsMojo.checkFile(loadFile("effective/child/pom.xml"));
+    }
+
+    @Test
+    public void testInheritedSnapshotFailsWhenEffective() throws Exception {
+        releaseVersionsMojo.effective = true;
+        RuleViolations errors = releaseVersionsMojo.findErrors(loadFile("effective/child/pom.xml"));
+        String message = errors.getMessage();
+        assertTrue(message, message.contains("property library.version=2.0-SNAPSHOT"));
+        assertTrue(message, message.contains("org.example:library:2.0-SNAPSHOT"));
+        assertTrue(message, !message.contains("junit"));
+    }
+
+    @Test
+    public void testSnapshotsFoundByTheRulesAreNotReportedAgainWhenEffective() throws Exception {
+        releaseVersionsMojo.effective = true;
+        List<RuleViolations> failures = releaseVersionsMojo.findAllErrors(loadFile("bad-property.xml"));
+        assertEquals(2, failures.size());
+        assertEquals("19", failures.get(0).getErrors().get(0).getLine());
+        String effective = failures.get(1).getMessage();
+        assertTrue(effective, !effective.contains("property maven.maven-plugin-annotations.version"));
+        // the version interpolated from the property is still reported, since no rule checks it
+        assertTrue(effective, effective.contains("maven-plugin-annotations:1.5-SNAPSHOT"));
+    }
+
+    @Test
+    public void testBomSnapshotFailsWhenEffective() throws Exception {
+        releaseVersionsMojo.effective = true;
+        releaseVersionsMojo.localRepository = loadFile("effective/repo");
+        RuleViolations errors = releaseVersionsMojo.findErrors(loadFile("effective/bom-child/pom.xml"));
+        assertTrue(errors.getMessage(), errors.getMessage().contains("org.example:managed:3.1-SNAPSHOT managed by org.example:example-bom:1.0"));
+    }
+
+    @Test
+    public void testMissingBomIsSkippedWhenEffective() throws Exception {
+        releaseVersionsMojo.effective = true;
+        assertNull(releaseVersionsMojo.findErrors(loadFile("effective/bom-child/pom.xml")));
+    }
+
+    @Test
+    public void testConfiguredRulesAreCheckedInTheSamePass() throws Exception {
+        releaseVersionsMojo.rules = Collections.<PomRule>singletonList(
+                new VersionRule("/project/properties/*", null, ".*-alpha", "No alpha versions"));
+        RuleViolations errors = releaseVersionsMojo.findErrors(loadFile("good.xml"));
+        assertEquals("No alpha versions", errors.getDescription());
+        assertEquals("20", errors.getErrors().get(0).getLine());
+    }
 }
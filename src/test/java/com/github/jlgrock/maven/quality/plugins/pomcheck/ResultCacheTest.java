@@ -0,0 +1,73 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+
+public class ResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final File pomFile = new File("src/test/resources/good.xml");
+
+    @Test
+    public void testResultsSurviveReload() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "pom-check/test.cache");
+        ResultCache cache = new ResultCache(cacheFile, "1.0");
+        String hash = ResultCache.hash(pomFile);
+        cache.putAll(pomFile, hash, Collections.singletonList(new RuleViolations(pomFile, "description",
+                Collections.singletonList(new ErrorAndLocation("g:a:v", "12", null)))));
+        cache.save();
+
+        ResultCache reloaded = new ResultCache(cacheFile, "1.0");
+        reloaded.load();
+        ResultCache.Result result = reloaded.get(pomFile, hash);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals("description", result.getErrors().getDescription());
+        Assertions.assertEquals("g:a:v", result.getErrors().getErrors().get(0).getOutput());
+        Assertions.assertEquals("12", result.getErrors().getErrors().get(0).getLine());
+        Assertions.assertNull(result.getErrors().getErrors().get(0).getColumn());
+    }
+
+    @Test
+    public void testPassingResultIsCached() throws Exception {
+        ResultCache cache = new ResultCache(new File(folder.getRoot(), "test.cache"), "1.0");
+        cache.putAll(pomFile, "hash", Collections.<RuleViolations>emptyList());
+        Assertions.assertNull(cache.get(pomFile, "hash").getErrors());
+        Assertions.assertNull(cache.get(pomFile, "other-hash"));
+    }
+
+    @Test
+    public void testFingerprintChangeDiscardsResults() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "test.cache");
+        ResultCache cache = new ResultCache(cacheFile, "1.0");
+        cache.putAll(pomFile, "hash", Collections.<RuleViolations>emptyList());
+        cache.save();
+
+        ResultCache reloaded = new ResultCache(cacheFile, "1.1");
+        reloaded.load();
+        Assertions.assertFalse(reloaded.contains(pomFile));
+    }
+
+    @Test
+    public void testHashIsOfTheWholeFile() throws Exception {
+        // larger than the buffer the file is hashed through
+        File large = folder.newFile("large.xml");
+        byte[] contents = new byte[200 * 1024 + 17];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = (byte) i;
+        }
+        Files.write(large.toPath(), contents);
+        String expected = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(contents));
+        Assertions.assertEquals(expected, ResultCache.hash(large));
+    }
+}
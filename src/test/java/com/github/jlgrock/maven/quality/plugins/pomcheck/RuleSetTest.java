@@ -0,0 +1,136 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RuleSetTest {
+
+    private static final String PROPERTIES = "/project/properties/*";
+    private static final String DEPENDENCY_MANAGEMENT = "/project/dependencyManagement/dependencies/dependency/version";
+
+    private final File good = new File("src/test/resources/good.xml");
+
+    @Test
+    public void testRulesSharingAPathAreAllEvaluated() throws Exception {
+        PomRule digits = new VersionRule(PROPERTIES, null, "[0-9.]+", "digits only");
+        PomRule alpha = new VersionRule(PROPERTIES, null, ".*alpha.*", "no alphas");
+        PomRule junit = new VersionRule(PROPERTIES, null, "4\\.1", "old junit");
+        Map<PomRule, List<ErrorAndLocation>> errors = RuleSet.compile(Arrays.asList(digits, alpha, junit)).scan(good);
+        Assertions.assertEquals(3, errors.get(digits).size());
+        Assertions.assertEquals(1, errors.get(alpha).size());
+        Assertions.assertEquals("20", errors.get(alpha).get(0).getLine());
+        Assertions.assertEquals(1, errors.get(junit).size());
+        Assertions.assertEquals("21", errors.get(junit).get(0).getLine());
+    }
+
+    @Test
+    public void testFirstBrokenRuleIsReported() throws Exception {
+        RuleSet ruleSet = RuleSet.compile(Arrays.asList(
+                new VersionRule(DEPENDENCY_MANAGEMENT, "\\$\\{.*\\}", null, "must be a property"),
+                new VersionRule(PROPERTIES, null, ".*alpha.*", "no alphas"),
+                new VersionRule(PROPERTIES, null, "4\\.1", "old junit")));
+        RuleViolations errors = ruleSet.check(good);
+        Assertions.assertEquals("no alphas", errors.getDescription());
+        Assertions.assertEquals(1, errors.getErrors().size());
+    }
+
+    @Test
+    public void testPassingPom() throws Exception {
+        RuleSet ruleSet = RuleSet.compile(Arrays.asList(new VersionRule(PROPERTIES, null, ".*-SNAPSHOT", null)));
+        Assertions.assertNull(ruleSet.check(good));
+    }
+
+    @Test
+    public void testEachElementIsTestedOncePerRule() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        PomRule counting = new PomRule() {
+            @Override
+            public String getPath() {
+                return PROPERTIES;
+            }
+
+            @Override
+            public boolean isViolation(final String value) {
+                calls.incrementAndGet();
+                return false;
+            }
+
+            @Override
+            public String getMessage() {
+                return "counted";
+            }
+
+            @Override
+            public String describe() {
+                return PROPERTIES + " counted";
+            }
+        };
+        RuleSet.compile(Arrays.asList(counting, new VersionRule(DEPENDENCY_MANAGEMENT, ".*", null, null))).check(good);
+        Assertions.assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testExactAndWildcardRulesOnTheSameElementBothFire() throws Exception {
+        PomRule digits = new VersionRule(PROPERTIES, null, "[0-9.]+", "digits only");
+        PomRule junit = new VersionRule("/project/properties/junit.version", null, "4\\.1", "old junit");
+        Map<PomRule, List<ErrorAndLocation>> errors = RuleSet.compile(Arrays.asList(digits, junit)).scan(good);
+        Assertions.assertEquals(3, errors.get(digits).size());
+        Assertions.assertEquals("21", errors.get(digits).get(1).getLine());
+        Assertions.assertEquals(1, errors.get(junit).size());
+        Assertions.assertEquals("21", errors.get(junit).get(0).getLine());
+
+        // a wildcard above the exact name reaches every element below it as well
+        PomRule managed = new VersionRule(DEPENDENCY_MANAGEMENT, null, ".*", "managed");
+        PomRule anySection = new VersionRule("/project/*/dependencies/dependency/version", null, ".*", "any section");
+        errors = RuleSet.compile(Arrays.asList(managed, anySection)).scan(good);
+        Assertions.assertFalse(errors.get(managed).isEmpty());
+        Assertions.assertEquals(errors.get(managed).size(), errors.get(anySection).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRuleWithoutPath() {
+        RuleSet.compile(Arrays.asList(new VersionRule()));
+    }
+
+    @Test
+    public void testRulesAreDescribedByTheirConfiguration() {
+        String description = RuleSet.compile(Arrays.asList(new VersionRule(PROPERTIES, null, "x", "no x"))).describe();
+        Assertions.assertEquals(description,
+                RuleSet.compile(Arrays.asList(new VersionRule(PROPERTIES, null, "x", "no x"))).describe());
+        Assertions.assertTrue(description.startsWith(VersionRule.class.getName() + ' ' + PROPERTIES + " allowed=null"));
+        Assertions.assertNotEquals(description,
+                RuleSet.compile(Arrays.asList(new VersionRule(PROPERTIES, null, "y", "no x"))).describe());
+    }
+
+    @Test
+    public void testRuleOnTheRootElement() {
+        for (String path : Arrays.asList("/project", "/*", "project/")) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> RuleSet.compile(Arrays.asList(new VersionRule(path, null, null, "no root"))));
+        }
+    }
+
+    @Test
+    public void testVersionRuleWithoutPatternsForbidsTheElement() {
+        Assertions.assertTrue(new VersionRule(PROPERTIES, null, null, null).isViolation("1.0"));
+        Assertions.assertFalse(new VersionRule(PROPERTIES, "1\\..*", null, null).isViolation("1.0"));
+        Assertions.assertTrue(new VersionRule(PROPERTIES, "1\\..*", ".*-SNAPSHOT", null).isViolation("1.0-SNAPSHOT"));
+    }
+
+    @Test
+    public void testCheckFirstStopsAtTheFirstElementInError() throws Exception {
+        RuleSet ruleSet = RuleSet.compile(Arrays.asList(new VersionRule(PROPERTIES, null, "[0-9.]+", "digits only")));
+        Assertions.assertEquals(3, ruleSet.check(good).getErrors().size());
+        List<RuleViolations> first = ruleSet.checkFirst(good);
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertEquals(1, first.get(0).getErrors().size());
+        Assertions.assertTrue(RuleSet.compile(Arrays.asList(
+                new VersionRule(PROPERTIES, null, null, null, "SNAPSHOT", null))).checkFirst(good).isEmpty());
+    }
+}
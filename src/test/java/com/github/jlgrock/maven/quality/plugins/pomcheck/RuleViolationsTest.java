@@ -0,0 +1,54 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RuleViolationsTest {
+
+    @Test
+    public void testBasicCreate() {
+        File file = Mockito.mock(File.class);
+        Mockito.when(file.getAbsolutePath()).thenReturn("/example/pom.xml");
+        String description = "basic description";
+        List<ErrorAndLocation> errors = new ArrayList<>();
+        errors.add(new ErrorAndLocation("example error", "6", "5"));
+
+        RuleViolations violations = new RuleViolations(file, description, errors);
+        Assertions.assertEquals(violations.getMessage(), "basic description:\nexample error on line 6 in column 5 in file /example/pom.xml\n");
+    }
+
+    @Test
+    public void testErrorsAreValues() {
+        ErrorAndLocation error = new ErrorAndLocation(ArtifactCoordinates.of("g", "a", "1.0"), "3", null);
+        Assertions.assertEquals(new ErrorAndLocation("g:a:1.0", "3", null), error);
+        Assertions.assertEquals(new ErrorAndLocation("g:a:1.0", "3", null).hashCode(), error.hashCode());
+        Assertions.assertNotEquals(new ErrorAndLocation("g:a:1.0", "4", null), error);
+        Assertions.assertFalse(Throwable.class.isAssignableFrom(ErrorAndLocation.class));
+        Assertions.assertFalse(Throwable.class.isAssignableFrom(RuleViolations.class));
+
+        RuleViolations violations = new RuleViolations(null, "d", new ArrayList<>(Collections.singletonList(error)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> violations.getErrors().add(error));
+    }
+
+    @Test
+    public void testReportAccumulatesEveryResult() {
+        File passed = new File("passed/pom.xml");
+        File failed = new File("failed/pom.xml");
+        ViolationReport report = new ViolationReport();
+        report.add(new PomCheckResult(passed, Collections.<RuleViolations>emptyList()));
+        Assertions.assertTrue(report.isPassed());
+        report.add(new PomCheckResult(failed, Collections.singletonList(
+                RuleViolations.processingFailure(failed, "unreadable"))));
+        Assertions.assertFalse(report.isPassed());
+        Assertions.assertEquals(2, report.getResults().size());
+        Assertions.assertEquals(1, report.getFailures().size());
+        Assertions.assertEquals("1 of 2 pom files failed:\nException processing:\nunreadable in file "
+                + failed.getAbsolutePath() + "\n", report.getMessage());
+    }
+}
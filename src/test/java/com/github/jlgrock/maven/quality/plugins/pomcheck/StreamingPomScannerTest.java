@@ -0,0 +1,60 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StreamingPomScannerTest {
+
+    private static final String DEPENDENCIES = "/project/dependencies/dependency/version";
+    private static final String PROFILE_DEPENDENCIES = "/project/profiles/profile/dependencies/dependency/version";
+    private static final String PROPERTIES = "/project/properties/*";
+
+    private Map<String, List<ErrorAndLocation>> scan(final String filename, final String... paths) throws Exception {
+        Map<String, String> pathMap = new LinkedHashMap<>();
+        for (String path : paths) {
+            pathMap.put(path, path);
+        }
+        StreamingPomScanner<String> scanner = new StreamingPomScanner<>(PomPathMatcher.compile(pathMap));
+        try (InputStream is = new FileInputStream("src/test/resources/" + filename)) {
+            return scanner.scan(is, (path, value) -> !value.startsWith("${"));
+        }
+    }
+
+    @Test
+    public void testGoodFileHasNoErrors() throws Exception {
+        Assertions.assertTrue(scan("good.xml", DEPENDENCIES, PROFILE_DEPENDENCIES).isEmpty());
+    }
+
+    @Test
+    public void testCoordinatesAndLine() throws Exception {
+        Map<String, List<ErrorAndLocation>> errors = scan("version-not-allowed-in-deps.xml", DEPENDENCIES);
+        Assertions.assertEquals(1, errors.get(DEPENDENCIES).size());
+        ErrorAndLocation error = errors.get(DEPENDENCIES).get(0);
+        Assertions.assertEquals("junit:junit:4.1", error.getOutput());
+        Assertions.assertEquals("79", error.getLine());
+        // StAX implementations differ on whether the start or the end of the tag is reported
+        Assertions.assertTrue(Integer.parseInt(error.getColumn()) > 0);
+    }
+
+    @Test
+    public void testErrorsAreGroupedByPath() throws Exception {
+        Map<String, List<ErrorAndLocation>> errors = scan("version-not-allowed-in-profile-deps.xml",
+                DEPENDENCIES, PROFILE_DEPENDENCIES);
+        Assertions.assertNull(errors.get(DEPENDENCIES));
+        Assertions.assertEquals("org.apache.maven:maven-archiver:3.1.1",
+                errors.get(PROFILE_DEPENDENCIES).get(0).getOutput());
+    }
+
+    @Test
+    public void testWildcardMatchesEveryProperty() throws Exception {
+        Map<String, List<ErrorAndLocation>> errors = scan("good.xml", PROPERTIES);
+        Assertions.assertEquals(4, errors.get(PROPERTIES).size());
+        Assertions.assertEquals("19", errors.get(PROPERTIES).get(0).getLine());
+    }
+}
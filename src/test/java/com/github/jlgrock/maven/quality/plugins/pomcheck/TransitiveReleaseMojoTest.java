@@ -0,0 +1,82 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class TransitiveReleaseMojoTest extends AbstractPomCheckTest {
+
+    private static final String PROJECT = "org.example:example-project:jar:1.0";
+    private static final String LIB_A = "org.example:lib-a:jar:1.0";
+    private static final String LIB_B = "org.example:lib-b:jar:1.0";
+
+    TransitiveReleaseMojo transitiveReleaseMojo = new TransitiveReleaseMojo(buildContext, mavenProject);
+
+    /**
+     * @return an artifact maven resolved, reached through the trail, which ends with the artifact itself
+     */
+    private static Artifact artifact(final String version, final String... trail) {
+        String[] id = trail[trail.length - 1].split(":");
+        Artifact artifact = new DefaultArtifact(id[0], id[1], version, "compile", "jar", null,
+                Mockito.mock(ArtifactHandler.class));
+        artifact.setDependencyTrail(Arrays.asList(trail));
+        return artifact;
+    }
+
+    private void resolve(final Artifact... artifacts) {
+        Set<Artifact> resolved = new LinkedHashSet<>(Arrays.asList(artifacts));
+        Mockito.when(mavenProject.getArtifacts()).thenReturn(resolved);
+        Mockito.when(mavenProject.getGroupId()).thenReturn("org.example");
+        Mockito.when(mavenProject.getArtifactId()).thenReturn("example-project");
+    }
+
+    @Test
+    public void testSnapshotReachedThroughARelease() throws Exception {
+        MavenProject sibling = Mockito.mock(MavenProject.class);
+        Mockito.when(sibling.getGroupId()).thenReturn("org.example");
+        Mockito.when(sibling.getArtifactId()).thenReturn("sibling");
+        transitiveReleaseMojo.reactorProjects = Arrays.asList(mavenProject, sibling);
+        String siblingId = "org.example:sibling:jar:1.0-SNAPSHOT";
+        resolve(artifact("1.0", PROJECT, LIB_A),
+                artifact("1.0", PROJECT, LIB_A, LIB_B),
+                artifact("2.0-SNAPSHOT", PROJECT, LIB_A, LIB_B, "org.example:lib-c:jar:2.0-SNAPSHOT"),
+                artifact("1.0-SNAPSHOT", PROJECT, siblingId),
+                artifact("4.0-SNAPSHOT", PROJECT, siblingId, "org.example:lib-s:jar:4.0-SNAPSHOT"),
+                artifact("3.0-SNAPSHOT", PROJECT, "org.example:lib-direct:jar:3.0-SNAPSHOT"));
+
+        MojoFailureException e = Assertions.assertThrows(MojoFailureException.class,
+                () -> transitiveReleaseMojo.checkFile(loadFile("transitive/project/pom.xml")));
+        Assertions.assertTrue(e.getMessage().startsWith("You must not depend on snapshots, however indirectly."));
+        Assertions.assertTrue(e.getMessage().contains(LIB_A + " -> " + LIB_B
+                + " -> org.example:lib-c:jar:2.0-SNAPSHOT on line 11"), e.getMessage());
+        Assertions.assertTrue(e.getMessage().contains("org.example:lib-direct:jar:3.0-SNAPSHOT on line 31"),
+                e.getMessage());
+        Assertions.assertFalse(e.getMessage().contains("sibling"), e.getMessage());
+        Assertions.assertFalse(e.getMessage().contains("lib-s"), e.getMessage());
+    }
+
+    @Test
+    public void testManagementOverridesATransitiveSnapshot() throws Exception {
+        // maven resolved lib-c at the version the project manages, rather than the snapshot lib-b asks for
+        String project = "org.example:example-managed:jar:1.0";
+        resolve(artifact("1.0", project, LIB_A),
+                artifact("1.0", project, LIB_A, LIB_B),
+                artifact("2.0", project, LIB_A, LIB_B, "org.example:lib-c:jar:2.0"));
+        transitiveReleaseMojo.checkFile(loadFile("transitive/managed/pom.xml"));
+    }
+
+    @Test
+    public void testReleasesOnly() throws Exception {
+        resolve();
+        transitiveReleaseMojo.checkFile(loadFile("good.xml"));
+    }
+}
@@ -2,10 +2,30 @@ package com.github.jlgrock.maven.quality.plugins.pomcheck;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 public class VerifyVersionsMojoTest extends AbstractPomCheckTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     VerifyVersionsMojo verifyVersionsMojo = new VerifyVersionsMojo(buildContext, mavenProject);
 
     @Test
@@ -44,6 +64,194 @@ public class VerifyVersionsMojoTest extends AbstractPomCheckTest {
         verifyVersionsMojo.checkFile(loadFile("version-not-allowed-in-profile-plugins.xml"));
     }
 
+    @Test
+    public void testCheckFilesPassesGoodFiles() throws MojoFailureException, MojoExecutionException {
+        verifyVersionsMojo.checkFiles(Arrays.asList(loadFile("good.xml"), loadFile("good.xml")));
+    }
+
+    @Test
+    public void testCheckFilesReportsEveryFailureInOrder() throws MojoExecutionException {
+        verifyVersionsMojo.threads = 2;
+        MojoFailureException failure = Assertions.assertThrows(MojoFailureException.class,
+                () -> verifyVersionsMojo.checkFiles(Arrays.asList(
+                        loadFile("version-not-allowed-in-profile-plugins.xml"),
+                        loadFile("good.xml"),
+                        loadFile("version-not-allowed-in-deps.xml"))));
+        String message = failure.getMessage();
+        Assertions.assertTrue(message.startsWith("2 of 3 pom files failed:\n"));
+        int profilePlugins = message.indexOf("org.apache.maven:maven-archiver:3.1.1");
+        int deps = message.indexOf("junit:junit:4.1");
+        Assertions.assertTrue(profilePlugins > 0 && deps > profilePlugins);
+    }
 
+    @Test(timeout = 30000)
+    public void testFailFastCancelsThePomsStillBeingChecked() throws Exception {
+        File slow = loadFile("good.xml");
+        CountDownLatch never = new CountDownLatch(1);
+        VerifyVersionsMojo failFastMojo = new VerifyVersionsMojo(buildContext, mavenProject) {
+            @Override
+            protected List<RuleViolations> findAllErrors(final File pomFile)
+                    throws IOException, XMLStreamException, SAXException {
+                if (pomFile.equals(slow)) {
+                    try {
+                        never.await();
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                }
+                return super.findAllErrors(pomFile);
+            }
+        };
+        failFastMojo.threads = 2;
+        failFastMojo.failFast = true;
+        // the first pom never finishes unless it is cancelled
+        MojoFailureException failure = Assertions.assertThrows(MojoFailureException.class,
+                () -> failFastMojo.checkFiles(Arrays.asList(slow, loadFile("version-not-allowed-in-deps.xml"))));
+        Assertions.assertTrue(failure.getMessage().startsWith("1 of 1 pom files failed:\n"), failure.getMessage());
+    }
+
+    @Test
+    public void testFailureWithoutAMessageIsDescribed() throws Exception {
+        VerifyVersionsMojo failingMojo = new VerifyVersionsMojo(buildContext, mavenProject) {
+            @Override
+            protected List<RuleViolations> findAllErrors(final File pomFile) {
+                throw new NullPointerException();
+            }
+        };
+        MojoFailureException failure = Assertions.assertThrows(MojoFailureException.class,
+                () -> failingMojo.checkFiles(Arrays.asList(folder.newFile("a.xml"), folder.newFile("b.xml"))));
+        Assertions.assertTrue(failure.getMessage().contains("java.lang.NullPointerException"), failure.getMessage());
+        Assertions.assertFalse(failure.getMessage().contains("null"), failure.getMessage());
+    }
+
+    @Test
+    public void testCachedResultIsReusedWhenContentIsUnchanged() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        Files.copy(loadFile("version-not-allowed-in-deps.xml").toPath(), pomFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Mockito.when(mavenProject.getFile()).thenReturn(pomFile);
+        verifyVersionsMojo.useCache = true;
+        verifyVersionsMojo.buildDirectory = new File(folder.getRoot(), "target");
+
+        Assertions.assertThrows(MojoFailureException.class, () -> verifyVersionsMojo.execute());
+        Assertions.assertTrue(new File(verifyVersionsMojo.buildDirectory, "pom-check/VerifyVersionsMojo.cache").isFile());
+
+        // an incremental build that reports no change trusts the cache without reading the file
+        Files.copy(loadFile("good.xml").toPath(), pomFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Mockito.when(buildContext.isIncremental()).thenReturn(true);
+        Mockito.when(buildContext.hasDelta(pomFile)).thenReturn(false);
+        Assertions.assertThrows(MojoFailureException.class, () -> verifyVersionsMojo.execute());
+
+        // once the change is reported, the new contents are checked
+        Mockito.when(buildContext.hasDelta(pomFile)).thenReturn(true);
+        verifyVersionsMojo.execute();
+    }
+
+    @Test
+    public void testEverySectionAcceptingAVersionIsChecked() throws Exception {
+        String pom = "<project>\n"
+                + "  <build>\n"
+                + "    <pluginManagement><plugins><plugin><artifactId>pm</artifactId><version>1.0</version>\n"
+                + "      <dependencies><dependency><groupId>g</groupId><artifactId>pmd</artifactId>"
+                + "<version>1.1</version></dependency></dependencies></plugin></plugins></pluginManagement>\n"
+                + "    <plugins><plugin><artifactId>p</artifactId>\n"
+                + "      <dependencies><dependency><groupId>g</groupId><artifactId>pd</artifactId>"
+                + "<version>1.2</version></dependency></dependencies></plugin></plugins>\n"
+                + "    <extensions><extension><groupId>g</groupId><artifactId>e</artifactId>"
+                + "<version>1.3</version></extension></extensions>\n"
+                + "  </build>\n"
+                + "  <reporting><plugins><plugin><artifactId>r</artifactId><version>1.4</version></plugin>"
+                + "</plugins></reporting>\n"
+                + "  <profiles><profile><build><pluginManagement><plugins><plugin><artifactId>ppm</artifactId>"
+                + "<version>1.5</version></plugin></plugins></pluginManagement></build></profile></profiles>\n"
+                + "</project>\n";
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), pom.getBytes(StandardCharsets.UTF_8));
+        verifyVersionsMojo.collectAll = true;
 
+        String all = Assertions.assertThrows(MojoFailureException.class,
+                () -> verifyVersionsMojo.checkFile(pomFile)).getMessage();
+        for (String artifact : Arrays.asList(":pm:1.0", "g:pmd:1.1", "g:pd:1.2", "g:e:1.3", ":r:1.4", ":ppm:1.5")) {
+            Assertions.assertTrue(all.contains(artifact), artifact + " not reported in " + all);
+        }
+
+        Files.write(pomFile.toPath(), pom.replaceAll("<version>[0-9.]+</version>", "<version>\\${v}</version>")
+                .getBytes(StandardCharsets.UTF_8));
+        verifyVersionsMojo.checkFile(pomFile);
+    }
+
+    @Test
+    public void testCollectAllReportsEveryRuleAndWritesReports() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), ("<project>\n"
+                + "  <dependencies><dependency><groupId>g</groupId><artifactId>a</artifactId>"
+                + "<version>1.0</version></dependency></dependencies>\n"
+                + "  <build><plugins><plugin><groupId>g</groupId><artifactId>p</artifactId>"
+                + "<version>2.0</version></plugin></plugins></build>\n"
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+        verifyVersionsMojo.buildDirectory = new File(folder.getRoot(), "target");
+        verifyVersionsMojo.reportFormats = "json, sarif";
+
+        String firstOnly = Assertions.assertThrows(MojoFailureException.class,
+                () -> verifyVersionsMojo.checkFile(pomFile)).getMessage();
+        Assertions.assertTrue(firstOnly.contains("g:a:1.0"));
+        Assertions.assertFalse(firstOnly.contains("g:p:2.0"));
+
+        verifyVersionsMojo.collectAll = true;
+        String all = Assertions.assertThrows(MojoFailureException.class,
+                () -> verifyVersionsMojo.checkFile(pomFile)).getMessage();
+        Assertions.assertTrue(all.contains("g:a:1.0"));
+        Assertions.assertTrue(all.contains("g:p:2.0"));
+
+        String json = new String(Files.readAllBytes(new File(verifyVersionsMojo.buildDirectory,
+                "pom-check/VerifyVersionsMojo.json").toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(json.contains("\"artifact\":\"g:a:1.0\",\"line\":\"2\""));
+        Assertions.assertTrue(json.contains("\"artifact\":\"g:p:2.0\",\"line\":\"3\""));
+        String sarif = new String(Files.readAllBytes(new File(verifyVersionsMojo.buildDirectory,
+                "pom-check/VerifyVersionsMojo.sarif").toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(sarif.contains("\"version\":\"2.1.0\""));
+        // both rules share a description, so they share a sarif rule
+        Assertions.assertEquals(2, sarif.split("\"ruleId\":\"POMCHECK1\"", -1).length - 1);
+        Assertions.assertTrue(sarif.contains("\"startLine\":3"));
+    }
+
+    @Test
+    public void testMetricsAreWrittenToTheBuildDirectory() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        Files.copy(loadFile("good.xml").toPath(), pomFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Mockito.when(mavenProject.getFile()).thenReturn(pomFile);
+        verifyVersionsMojo.useCache = false;
+        verifyVersionsMojo.buildDirectory = new File(folder.getRoot(), "target");
+        verifyVersionsMojo.metrics = true;
+
+        verifyVersionsMojo.execute();
+
+        String json = new String(Files.readAllBytes(new File(verifyVersionsMojo.buildDirectory,
+                "pom-check/VerifyVersionsMojo.metrics.json").toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(json.startsWith("{\"goal\":\"VerifyVersionsMojo\",\"pomCount\":1,"));
+        Assertions.assertTrue(json.contains("\"bytes\":" + pomFile.length() + ","));
+        Assertions.assertTrue(json.contains("\"scan\":{\"count\":1,"));
+        Assertions.assertFalse(json.contains("\"elements\":0,"));
+    }
+
+    @Test
+    public void testUnchangedPomIsSkippedWhenCheckingChangesOnly() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        Files.copy(loadFile("non-prop-not-allowed-in-depmgmt.xml").toPath(), pomFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        for (String[] command : new String[][] {{"git", "init", "-q"}, {"git", "add", "pom.xml"},
+                {"git", "-c", "user.name=test", "-c", "user.email=test@example.org", "-c", "commit.gpgsign=false",
+                        "commit", "-q", "-m", "initial"}}) {
+            Assertions.assertEquals(0, new ProcessBuilder(command).directory(folder.getRoot()).start().waitFor());
+        }
+        Mockito.when(mavenProject.getFile()).thenReturn(pomFile);
+        Mockito.when(mavenProject.getBasedir()).thenReturn(folder.getRoot());
+        verifyVersionsMojo.useCache = false;
+        verifyVersionsMojo.changedOnly = true;
+
+        verifyVersionsMojo.execute();
+
+        Files.write(pomFile.toPath(), "<!-- changed -->\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        Assertions.assertThrows(MojoFailureException.class, verifyVersionsMojo::execute);
+    }
 }
@@ -0,0 +1,88 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+public class VersionClassifierTest {
+
+    private static final Pattern SNAPSHOT_PATTERN = Pattern.compile("\\w*.*(-SNAPSHOT)\\w*");
+    private static final Pattern PROPERTY_VERSION_PATTERN = Pattern.compile("(\\w*)(\\$\\{[a-zA-Z0-9\\-.]*\\})(.*)");
+
+    private static final String[] FRAGMENTS = {"a", "Z", "1", "_", ".", "-", "$", "{", "}", "${", "${a.b}",
+        "-SNAPSHOT", "SNAPSHOT", "\n", " ", "[", "(", ",", "]", ")", " ", "x_y"};
+
+    private static void assertSameAsPatterns(final String value) {
+        Assertions.assertEquals(SNAPSHOT_PATTERN.matcher(value).matches(), VersionClassifier.isSnapshot(value), value);
+        Assertions.assertEquals(PROPERTY_VERSION_PATTERN.matcher(value).matches(),
+                VersionClassifier.isPropertyVersion(value), value);
+        int classification = VersionClassifier.classify(value);
+        Assertions.assertEquals(VersionClassifier.isSnapshot(value), VersionKind.SNAPSHOT.isIn(classification), value);
+        Assertions.assertEquals(VersionClassifier.isPropertyVersion(value),
+                VersionKind.PROPERTY_VERSION.isIn(classification), value);
+    }
+
+    @Test
+    public void testKnownValues() {
+        String[] values = {"", "1.0", "1.0-SNAPSHOT", "1.0-SNAPSHOT1", "1.0-SNAPSHOT.1", "1.0-snapshot", "-SNAPSHOT",
+            "SNAPSHOT", "1.0-SNAPSHO", "a\n1.0-SNAPSHOT", "1.0-SNAPSHOT\n", "${junit.version}", "a_b${v}",
+            "${v}-suffix", "${v_1}", "x-${v}", "${v}\n", "${", "${v", "$ {v}", "[1.0,2.0)", "1.0-${a}-SNAPSHOT"};
+        for (String value : values) {
+            assertSameAsPatterns(value);
+        }
+    }
+
+    @Test
+    public void testRandomValuesMatchThePatterns() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder value = new StringBuilder();
+            int fragments = random.nextInt(8);
+            for (int j = 0; j < fragments; j++) {
+                value.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameAsPatterns(value.toString());
+        }
+    }
+
+    @Test
+    public void testKinds() {
+        int literal = VersionClassifier.classify("1.0");
+        Assertions.assertTrue(VersionKind.LITERAL.isIn(literal));
+        Assertions.assertFalse(VersionKind.REFERENCE.isIn(literal));
+        Assertions.assertFalse(VersionKind.QUALIFIER.isIn(literal));
+
+        int reference = VersionClassifier.classify("${junit.version}");
+        Assertions.assertEquals(VersionKind.REFERENCE.mask() | VersionKind.PROPERTY_VERSION.mask(), reference);
+
+        int mixed = VersionClassifier.classify("${base}-SNAPSHOT");
+        Assertions.assertTrue(VersionKind.isMixed(mixed));
+        Assertions.assertTrue(VersionKind.SNAPSHOT.isIn(mixed));
+        Assertions.assertTrue(VersionKind.QUALIFIER.isIn(mixed));
+
+        Assertions.assertTrue(VersionKind.RANGE.isIn(VersionClassifier.classify("[1.0,2.0)")));
+        Assertions.assertFalse(VersionKind.RANGE.isIn(VersionClassifier.classify("1.0)")));
+        Assertions.assertTrue(VersionKind.QUALIFIER.isIn(VersionClassifier.classify("2.5.RELEASE")));
+        Assertions.assertTrue(VersionKind.LITERAL.isIn(VersionClassifier.classify("${unterminated")));
+    }
+
+    @Test
+    public void testLongValuesAreLinear() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            value.append('a');
+        }
+        value.append("-SNAPSHOT.");
+        Assertions.assertFalse(VersionClassifier.isSnapshot(value));
+        Assertions.assertTrue(VersionKind.LITERAL.isIn(VersionClassifier.classify(value)));
+    }
+
+    @Test
+    public void testMaskOf() {
+        Assertions.assertEquals(VersionKind.SNAPSHOT.mask() | VersionKind.RANGE.mask(), VersionKind.maskOf("SNAPSHOT, RANGE"));
+        Assertions.assertEquals(0, VersionKind.maskOf(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VersionKind.maskOf("NIGHTLY"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.jlgrock.maven.quality.plugins.pomcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class XmlParsersTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParserIsReusedWithinThread() {
+        Assertions.assertSame(XmlParsers.saxParser(), XmlParsers.saxParser());
+        Assertions.assertSame(XmlParsers.inputFactory(), XmlParsers.inputFactory());
+    }
+
+    @Test
+    public void testParserIsNotSharedBetweenThreads() throws Exception {
+        SAXParser local = XmlParsers.saxParser();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Assertions.assertNotSame(local, pool.submit(() -> XmlParsers.saxParser()).get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEntityExpansionIsLimited() throws Exception {
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), ("<!DOCTYPE project [<!ENTITY a \"1\"><!ENTITY b \"&a;&a;&a;&a;&a;\">]>"
+                + "<project><version>&b;&b;</version></project>").getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("1111111111", PomModel.read(pomFile).getVersion());
+
+        PomLimits limits = new PomLimits(256, 1000, 1000, 5);
+        SAXException failure = Assertions.assertThrows(SAXException.class, () -> PomModel.read(pomFile, limits));
+        Assertions.assertTrue(failure.getMessage().contains("\"5\" entity expansions"), failure.getMessage());
+        // StAX readers ignore the DTD, so the entity is never declared
+        PomPathMatcher<String> matcher = PomPathMatcher.compile(Collections.singletonMap("/project/version", "v"));
+        Assertions.assertThrows(XMLStreamException.class,
+                () -> new MappedPomScanner<>(matcher, limits).scan(pomFile, (path, value) -> true));
+    }
+
+    @Test
+    public void testExternalEntitiesAreNotRead() throws Exception {
+        File secret = folder.newFile("secret.txt");
+        Files.write(secret.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), ("<!DOCTYPE project [<!ENTITY s SYSTEM \"" + secret.toURI() + "\">]>"
+                + "<project><version>&s;</version></project>").getBytes(StandardCharsets.UTF_8));
+        String version = PomModel.read(pomFile).getVersion();
+        Assertions.assertFalse(version != null && version.contains("secret"));
+        PomPathMatcher<String> matcher = PomPathMatcher.compile(Collections.singletonMap("/project/version", "v"));
+        try {
+            new MappedPomScanner<>(matcher).scan(pomFile, (path, value) -> {
+                Assertions.assertFalse(value.contains("secret"));
+                return false;
+            });
+        } catch (XMLStreamException e) {
+            // refusing the entity outright is just as good
+        }
+    }
+
+    @Test
+    public void testDeeplyNestedPomFailsWithTheLimit() throws Exception {
+        StringBuilder pom = new StringBuilder("<project>");
+        for (int i = 0; i < 300; i++) {
+            pom.append("<a>");
+        }
+        for (int i = 0; i < 300; i++) {
+            pom.append("</a>");
+        }
+        File pomFile = folder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), pom.append("</project>").toString().getBytes(StandardCharsets.UTF_8));
+        SAXException failure = Assertions.assertThrows(SAXException.class, () -> PomModel.read(pomFile));
+        Assertions.assertTrue(failure.getMessage().contains("pomcheck.maxDepth"), failure.getMessage());
+    }
+}